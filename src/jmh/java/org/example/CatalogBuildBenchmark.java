@@ -0,0 +1,34 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a DishCatalog, as on startup and on every hot reload.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class CatalogBuildBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int dishes;
+
+    private List<Dish> dishList;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dishList = SyntheticData.dishes(dishes, 42);
+    }
+
+    @Benchmark
+    public DishCatalog build() {
+        return DishCatalog.of(dishList);
+    }
+}
@@ -0,0 +1,110 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.Profile;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each MealPlanner filter stage in isolation, list based versus DishCatalog bitsets.
+ * Every invocation uses the next profile from a fixed synthetic population.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FilterStageBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int dishes;
+
+    private List<Dish> dishList;
+    private DishCatalog catalog;
+    private List<Profile> profiles;
+    private Set<Dish> afterAllergens;
+    private Set<Dish> afterDiet;
+    private Set<Dish> afterRegion;
+    private BitSet afterAllergenBits;
+    private BitSet afterDietBits;
+    private BitSet afterRegionBits;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dishList = SyntheticData.dishes(dishes, 42);
+        catalog = DishCatalog.of(dishList);
+        profiles = SyntheticData.profiles(1024, 7);
+        Profile p = profiles.get(0);
+        afterAllergens = MealPlanner.filterByAllergens(dishList, p.getExcludeAllergens());
+        afterDiet = MealPlanner.filterByDietWithFallback(afterAllergens, p);
+        afterRegion = MealPlanner.filterByRegionWithFallback(afterDiet, p.getPreferredRegions());
+        afterAllergenBits = catalog.filterByAllergens(p.getExcludeAllergens());
+        afterDietBits = catalog.filterByDietWithFallback(afterAllergenBits, p);
+        afterRegionBits = catalog.filterByRegionWithFallback(afterDietBits, p.getPreferredRegions());
+    }
+
+    private Profile nextProfile() {
+        next = (next + 1) & (profiles.size() - 1);
+        return profiles.get(next);
+    }
+
+    @Benchmark
+    public Set<Dish> listAllergens() {
+        return MealPlanner.filterByAllergens(dishList, nextProfile().getExcludeAllergens());
+    }
+
+    @Benchmark
+    public Set<Dish> listDiet() {
+        return MealPlanner.filterByDietWithFallback(afterAllergens, nextProfile());
+    }
+
+    @Benchmark
+    public Set<Dish> listRegion() {
+        return MealPlanner.filterByRegionWithFallback(afterDiet, nextProfile().getPreferredRegions());
+    }
+
+    @Benchmark
+    public Set<Dish> listNutrition() {
+        return MealPlanner.filterByNutritionalPreferences(afterRegion, nextProfile().getPreferences());
+    }
+
+    @Benchmark
+    public Map<String, List<Dish>> listGroupAndSort() {
+        Profile p = nextProfile();
+        Map<String, List<Dish>> byMeal = MealPlanner.groupDishesByMealType(afterRegion);
+        MealPlanner.sortDishesByScore(byMeal, p.getPreferences());
+        return byMeal;
+    }
+
+    @Benchmark
+    public BitSet catalogAllergens() {
+        return catalog.filterByAllergens(nextProfile().getExcludeAllergens());
+    }
+
+    @Benchmark
+    public BitSet catalogDiet() {
+        return catalog.filterByDietWithFallback(afterAllergenBits, nextProfile());
+    }
+
+    @Benchmark
+    public BitSet catalogRegion() {
+        return catalog.filterByRegionWithFallback(afterDietBits, nextProfile().getPreferredRegions());
+    }
+
+    @Benchmark
+    public BitSet catalogNutrition() {
+        return catalog.filterByNutritionalPreferences(afterRegionBits, nextProfile().getPreferences());
+    }
+
+    @Benchmark
+    public Map<String, List<Dish>> catalogRanked() {
+        return catalog.rankedByMealType(afterRegionBits, nextProfile().getPreferences());
+    }
+}
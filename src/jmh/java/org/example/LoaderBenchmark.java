@@ -0,0 +1,78 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.Profile;
+import org.example.utility.DishLoader;
+import org.example.utility.profileLoader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * CSV load throughput. Dish and profile sizes are separate JMH parameters, so each trial only
+ * writes the file it reads; narrow them with e.g. {@code -p profiles=1000}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LoaderBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class DishFile {
+        @Param({"1000", "100000", "1000000"})
+        public int dishes;
+
+        private Path file;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            file = SyntheticData.writeDishesCsv(dishes, 42);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ProfileFile {
+        @Param({"1000", "1000000", "10000000"})
+        public int profiles;
+
+        private Path file;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            file = SyntheticData.writeProfilesCsv(profiles, 7);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Benchmark
+    public List<Dish> loadDishesFromCSV(DishFile dishes) {
+        return DishLoader.loadDishesFromCSV(dishes.file.toString());
+    }
+
+    /**
+     * Profiles are streamed rather than collected, so the 10M case fits in a default fork heap.
+     */
+    @Benchmark
+    public void streamProfilesFromCSV(ProfileFile profiles, Blackhole sink) {
+        try (Stream<Profile> stream = profileLoader.streamProfilesFromCSV(profiles.file.toString())) {
+            stream.forEach(sink::consume);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.MealPlan;
+import org.example.entity.Profile;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end selectMealsHtml per profile, list based versus DishCatalog, plus planning alone.
+ * Run with {@code -prof gc} to see allocation per plan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PlannerBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int dishes;
+
+    private List<Dish> dishList;
+    private DishCatalog catalog;
+    private List<Profile> profiles;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dishList = SyntheticData.dishes(dishes, 42);
+        catalog = DishCatalog.of(dishList);
+        profiles = SyntheticData.profiles(1024, 7);
+    }
+
+    private Profile nextProfile() {
+        next = (next + 1) & (profiles.size() - 1);
+        return profiles.get(next);
+    }
+
+    @Benchmark
+    public String selectMealsHtmlList() {
+        return MealPlanner.selectMealsHtml(dishList, nextProfile());
+    }
+
+    @Benchmark
+    public String selectMealsHtmlCatalog() {
+        return MealPlanner.selectMealsHtml(catalog, nextProfile());
+    }
+
+    @Benchmark
+    public MealPlan planMealsCatalog() {
+        return MealPlanner.planMeals(catalog, nextProfile());
+    }
+}
@@ -0,0 +1,111 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.Profile;
+import org.example.utility.Vocabulary;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Deterministic synthetic dishes and profiles for the benchmarks, in memory or as CSV files
+ * in the same layout as {@code data/dishes.csv} and {@code data/profiles.csv}.
+ */
+public final class SyntheticData {
+
+    private static final String[] MEAL_TYPES = {"breakfast", "lunch", "dinner", "snack", "snack"};
+    private static final String[] ALLERGENS = {"gluten", "dairy", "eggs", "fish", "shellfish", "peanuts", "nuts",
+            "soy", "sesame", "mustard", "celery", "lupin", "sulphites", "molluscs"};
+    private static final String[] REGIONS = {"North America", "Europe", "India", "Asia", "Middle East",
+            "Mediterranean", "South America", "Africa", "Oceania", "Japan"};
+    private static final String[] DIETS = {"omnivore", "vegetarian", "vegan", "pescatarian"};
+
+    private SyntheticData() {
+    }
+
+    public static List<Dish> dishes(int count, long seed) {
+        Random random = new Random(seed);
+        List<Dish> dishes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean vegan = random.nextInt(4) == 0;
+            boolean vegetarian = vegan || random.nextInt(2) == 0;
+            dishes.add(new Dish("Dish " + i,
+                    100 + random.nextInt(600),
+                    pick(random, ALLERGENS, 2, Vocabulary.ALLERGENS),
+                    random.nextInt(400) / 10.0,
+                    random.nextInt(150) / 10.0,
+                    random.nextInt(800) / 10.0,
+                    random.nextInt(1200),
+                    MEAL_TYPES[random.nextInt(MEAL_TYPES.length)],
+                    pick(random, REGIONS, 3, Vocabulary.REGIONS),
+                    vegetarian,
+                    vegan));
+        }
+        return dishes;
+    }
+
+    public static List<Profile> profiles(int count, long seed) {
+        Random random = new Random(seed);
+        List<Profile> profiles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Boolean> prefs = new HashMap<>();
+            prefs.put("high_protein", random.nextBoolean());
+            prefs.put("high_fiber", random.nextBoolean());
+            prefs.put("low_carb", random.nextBoolean());
+            profiles.add(new Profile(1200 + 100 * random.nextInt(15),
+                    pick(random, ALLERGENS, 2, Vocabulary.ALLERGENS),
+                    DIETS[random.nextInt(DIETS.length)],
+                    prefs,
+                    18 + random.nextInt(70),
+                    pick(random, REGIONS, 2, Vocabulary.REGIONS)));
+        }
+        return profiles;
+    }
+
+    public static Path writeDishesCsv(int count, long seed) throws IOException {
+        Path file = Files.createTempFile("synthetic_dishes", ".csv");
+        file.toFile().deleteOnExit();
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("name,calories,allergens,protein_g,fiber_g,carbs_g,sodium_mg,meal_type,cuisine,is_vegetarian,is_vegan,availability_regions\n");
+            for (Dish d : dishes(count, seed)) {
+                out.write(d.getName() + "," + d.getCalories() + ","
+                        + (d.getAllergens().isEmpty() ? "None" : String.join(";", d.getAllergens())) + ","
+                        + d.getProtein() + "," + d.getFiber() + "," + d.getCarbs() + "," + d.getSodium() + ","
+                        + d.getMealType() + ",Synthetic," + d.isVegetarian() + "," + d.isVegan() + ",\""
+                        + String.join(";", d.getAvailabilityRegions()) + "\"\n");
+            }
+        }
+        return file;
+    }
+
+    public static Path writeProfilesCsv(int count, long seed) throws IOException {
+        Path file = Files.createTempFile("synthetic_profiles", ".csv");
+        file.toFile().deleteOnExit();
+        Random random = new Random(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("age,calorie_target,diet,exclude_allergens,high_protein,high_fiber,low_carb,preferred_regions\n");
+            // Written row by row so 10M-profile files do not need the profiles in memory
+            for (int i = 0; i < count; i++) {
+                out.write((18 + random.nextInt(70)) + "," + (1200 + 100 * random.nextInt(15)) + ","
+                        + DIETS[random.nextInt(DIETS.length)] + ","
+                        + String.join(";", pick(random, ALLERGENS, 2, Vocabulary.ALLERGENS)) + ","
+                        + random.nextBoolean() + "," + random.nextBoolean() + "," + random.nextBoolean() + ",\""
+                        + String.join(";", pick(random, REGIONS, 2, Vocabulary.REGIONS)) + "\"\n");
+            }
+        }
+        return file;
+    }
+
+    private static Set<String> pick(Random random, String[] pool, int max, Vocabulary vocabulary) {
+        int count = random.nextInt(max + 1);
+        Set<String> picked = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            picked.add(vocabulary.intern(pool[random.nextInt(pool.length)]));
+        }
+        return picked;
+    }
+}
@@ -1,73 +1,91 @@
 package org.example;
 
-import org.example.entity.Dish;
+import org.example.entity.MealPlan;
 import org.example.entity.Profile;
-import org.example.utility.DishLoader;
+import org.example.metrics.PlannerMetrics;
+import org.example.metrics.PlannerStats;
 import org.example.utility.profileLoader;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Hello world!
  */
 public class App {
-    public static void main(String[] args) {
-        String dishFileAbsPath = "C:\\Users\\vipul\\Downloads\\ticket\\fastDelivery\\HealthifyMe\\src\\main\\java\\org\\example\\data\\dishes.csv";
-        List<Dish> dishes = DishLoader.loadDishesFromCSV(dishFileAbsPath);
-        System.out.println("Loaded " + dishes.size() + " dishes.");
-
-        String patientFileAbsPath = "C:\\Users\\vipul\\Downloads\\ticket\\fastDelivery\\HealthifyMe\\src\\main\\java\\org\\example\\data\\profiles.csv";
-        List<Profile> profiles = profileLoader.loadProfilesFromCSV(patientFileAbsPath);
-        System.out.println("Loaded " + profiles.size() + " patient profiles.");
-
-        StringBuilder combinedHtml = new StringBuilder();
-
-        // Begin full html document
-        combinedHtml.append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"UTF-8\">\n")
-                .append("<title>All Meal Plans</title>\n")
-                .append("<style>")
-                .append("body { font-family: Arial, sans-serif; padding: 20px; background:#f9f9f9 }")
-                .append("h1,h2 {color:#2c3e50}")
-                .append("pre { background:#ececec; padding:10px; border-radius:5px }")
-                .append("section { margin-bottom: 50px; padding: 20px; border-bottom: 1px solid #ccc; }")
-                .append("</style>\n</head>\n<body>\n");
 
-        int profileCount = 1;
-        for (Profile profile : profiles) {
-            combinedHtml.append("<section>\n");
-            combinedHtml.append("<h1>Profile ").append(profileCount).append("</h1>\n");
-            combinedHtml.append("<h2>Details</h2>\n");
-            combinedHtml.append("<pre>").append(profileToJson(profile)).append("</pre>\n");
+    private static final int PLAN_CACHE_SIZE = 100_000;
 
-            String mealPlanHtml = MealPlanner.selectMealsHtml(dishes, profile);
+    public static void main(String[] args) {
+        String dishFileAbsPath = args.length > 0 ? args[0] : "C:\\Users\\vipul\\Downloads\\ticket\\fastDelivery\\HealthifyMe\\src\\main\\java\\org\\example\\data\\dishes.csv";
+        String patientFileAbsPath = args.length > 1 ? args[1] : "C:\\Users\\vipul\\Downloads\\ticket\\fastDelivery\\HealthifyMe\\src\\main\\java\\org\\example\\data\\profiles.csv";
 
-            combinedHtml.append(mealPlanHtml);
-            combinedHtml.append("</section>\n");
-            profileCount++;
+        // Profiles are streamed from the CSV and each plan is rendered straight into the report
+        // as soon as it is ready, so the output file never has to fit in memory.
+        String outputFile = args.length > 2 ? args[2] : "all_meal_plans.html";
+        // Optional number of days to plan per profile, without repeating dishes across days
+        int days = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        // Optional work directory: plan in checkpointed shards so a rerun resumes after a crash
+        if (args.length > 4) {
+            runSharded(dishFileAbsPath, patientFileAbsPath, outputFile, days, Paths.get(args[4]));
+            return;
         }
+        // Both passes below read the profiles' binary snapshot, written here on the first run
+        profileLoader.refreshSnapshot(patientFileAbsPath);
+        // The dish file is watched for the whole run; plans started after a menu change use the new menu
+        try (CatalogHolder catalogs = new CatalogHolder(Paths.get(dishFileAbsPath));
+             HtmlReportWriter report = HtmlReportWriter.open(outputFile);
+             Stream<Profile> profiles = profileLoader.streamProfiles(patientFileAbsPath);
+             BatchPlanner planner = new BatchPlanner(catalogs, Runtime.getRuntime().availableProcessors())) {
+            System.out.println("Loaded " + catalogs.get().size() + " dishes.");
+            catalogs.startWatching();
+
+            PlannerStats stats = new PlannerStats();
+            PlannerMetrics.setSink(stats);
 
-        combinedHtml.append("</body>\n</html>");
+            long start = System.nanoTime();
+            long planned;
+            String reuse;
+            if (days > 1) {
+                // Profiles differing only in age share a plan
+                PlanCache<List<MealPlan>> weekly = new PlanCache<>(PLAN_CACHE_SIZE,
+                        (c, profile) -> MultiDayPlanner.planDays(c, profile, days));
+                planned = planner.planStream(profiles, planner.getParallelism() * 64,
+                        profile -> weekly.get(catalogs.get(), profile), report::writeSection);
+                reuse = String.format("%.0f%% plan cache hits", weekly.hitRate() * 100);
+            } else {
+                // Pre-pass: profiles differing only in calorie target share filtering and main meals
+                CohortPlanner cohorts;
+                try (Stream<Profile> scan = profileLoader.streamProfiles(patientFileAbsPath)) {
+                    cohorts = CohortPlanner.scan(scan, CohortPlanner.maxCohorts());
+                }
+                planned = planner.planStream(profiles, planner.getParallelism() * 64,
+                        profile -> cohorts.plan(catalogs.get(), profile), report::writeSection);
+                reuse = cohorts.toString();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
 
-        // Write combined HTML once to a single file
-        String outputFile = "all_meal_plans.html";
-        try (FileWriter writer = new FileWriter(outputFile)) {
-            writer.write(combinedHtml.toString());
+            System.out.printf("Planned %d profiles on %d threads (%.1f profiles/s, %s).%n",
+                    planned, planner.getParallelism(), seconds > 0 ? planned / seconds : 0, reuse);
+            System.out.print("Planner stages and fallbacks:\n" + stats.summary());
             System.out.println("Saved combined meal plans to " + outputFile);
-        } catch (IOException e) {
+        } catch (IOException | RuntimeException e) {
             System.err.println("Error writing combined HTML: " + e.getMessage());
         }
     }
 
-    private static String profileToJson(Profile profile) {
-        return String.format("{\n  \"age\": %d,\n  \"calorie_target\": %d,\n  \"diet\": \"%s\",\n  \"exclude_allergens\": %s,\n  \"preferences\": %s\n}",
-                profile.getAge(),
-                profile.getCalorieTarget(),
-                profile.getDiet(),
-                profile.getExcludeAllergens().toString(),
-                profile.getPreferences().toString()
-        );
+    private static void runSharded(String dishFile, String profileFile, String outputFile, int days, Path workDir) {
+        try (CatalogHolder catalogs = new CatalogHolder(Paths.get(dishFile))) {
+            System.out.println("Loaded " + catalogs.get().size() + " dishes.");
+            catalogs.startWatching();
+            ShardedBatchJob job = new ShardedBatchJob(catalogs, workDir, Runtime.getRuntime().availableProcessors(), days, 0);
+            System.out.println("Planned " + job.run(profileFile, outputFile) + ".");
+            System.out.println("Saved combined meal plans to " + outputFile);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error running sharded batch: " + e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,146 @@
+package org.example;
+
+import org.example.entity.Profile;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Plans many profiles against one {@link DishCatalog} on a fork-join pool.
+ * Results come back in the same order as the input profiles. With a catalog supplier such as
+ * {@link CatalogHolder}, each profile is planned against the catalog current when it starts.
+ */
+public class BatchPlanner implements AutoCloseable {
+
+    private final Supplier<DishCatalog> catalogs;
+    private final ForkJoinPool pool;
+
+    public BatchPlanner(DishCatalog catalog) {
+        this(catalog, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchPlanner(DishCatalog catalog, int parallelism) {
+        this(() -> catalog, parallelism);
+    }
+
+    public BatchPlanner(Supplier<DishCatalog> catalogs, int parallelism) {
+        this.catalogs = catalogs;
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public BatchResult<String> planAll(List<Profile> profiles) {
+        return planAll(profiles, p -> MealPlanner.selectMealsHtml(catalogs.get(), p));
+    }
+
+    public BatchResult<String> planAll(Stream<Profile> profiles) {
+        return planAll(profiles.collect(Collectors.toList()));
+    }
+
+    public <R> BatchResult<R> planAll(List<Profile> profiles, Function<Profile, R> planner) {
+        long start = System.nanoTime();
+        @SuppressWarnings("unchecked")
+        R[] results = (R[]) new Object[profiles.size()];
+        try {
+            pool.submit(() -> IntStream.range(0, profiles.size()).parallel()
+                    .forEach(i -> results[i] = planner.apply(profiles.get(i)))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch planning interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch planning failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        return new BatchResult<>(Arrays.asList(results), System.nanoTime() - start);
+    }
+
+    /**
+     * Plans profiles as they are pulled from {@code profiles} and hands each result to {@code sink}
+     * in input order. At most {@code maxInFlight} profiles are queued or being planned at once, so
+     * reading blocks while the workers are behind and memory stays flat for any input size.
+     *
+     * @return number of profiles planned
+     */
+    public <R> long planStream(Stream<Profile> profiles, int maxInFlight, Function<Profile, R> planner,
+                               PlanSink<R> sink) throws IOException {
+        int window = Math.max(1, maxInFlight);
+        Deque<Profile> pendingProfiles = new ArrayDeque<>(window);
+        Deque<ForkJoinTask<R>> pendingPlans = new ArrayDeque<>(window);
+        long index = 0;
+
+        Iterator<Profile> it = profiles.iterator();
+        while (it.hasNext()) {
+            Profile profile = it.next();
+            pendingProfiles.addLast(profile);
+            pendingPlans.addLast(pool.submit(() -> planner.apply(profile)));
+            if (pendingPlans.size() >= window) {
+                sink.accept(index++, pendingProfiles.removeFirst(), await(pendingPlans.removeFirst()));
+            }
+        }
+        while (!pendingPlans.isEmpty()) {
+            sink.accept(index++, pendingProfiles.removeFirst(), await(pendingPlans.removeFirst()));
+        }
+        return index;
+    }
+
+    public long planStream(Stream<Profile> profiles, int maxInFlight, PlanSink<String> sink) throws IOException {
+        return planStream(profiles, maxInFlight, p -> MealPlanner.selectMealsHtml(catalogs.get(), p), sink);
+    }
+
+    private static <R> R await(ForkJoinTask<R> task) {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Batch planning interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch planning failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Receives planned profiles in input order; {@code index} is zero based.
+     */
+    @FunctionalInterface
+    public interface PlanSink<R> {
+        void accept(long index, Profile profile, R plan) throws IOException;
+    }
+
+    public static class BatchResult<R> {
+        private final List<R> results;
+        private final long elapsedNanos;
+
+        BatchResult(List<R> results, long elapsedNanos) {
+            this.results = Collections.unmodifiableList(results);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<R> getResults() {
+            return results;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double profilesPerSecond() {
+            if (elapsedNanos == 0) return 0;
+            return results.size() * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.store.OffHeapDishStore;
+import org.example.utility.DishLoader;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Holds the current {@link DishCatalog} for a dish file and swaps in a new one when the file
+ * changes. Readers just read a volatile field: a plan that already fetched the catalog keeps
+ * using that snapshot until it finishes, and a reload never blocks planning.
+ * <p>
+ * Reloads run on a daemon watcher thread. Write the dish file with an atomic rename where
+ * possible; in-place writes are debounced but a reader could still see a half written file.
+ * A file that fails to parse, or parses to no dishes, leaves the current catalog in place.
+ */
+public class CatalogHolder implements Supplier<DishCatalog>, AutoCloseable {
+
+    private static final long DEBOUNCE_MILLIS = 200;
+    // -Dplanner.offheap=true keeps the dishes in an OffHeapDishStore; only the indexes stay on the heap
+    private static final boolean OFF_HEAP = Boolean.getBoolean("planner.offheap");
+
+    private final Path dishFile;
+    private final AtomicLong reloads = new AtomicLong();
+    private final AtomicLong failedReloads = new AtomicLong();
+    private volatile DishCatalog catalog;
+    private WatchService watcher;
+    private Thread watcherThread;
+
+    /**
+     * Loads the dish file once; call {@link #startWatching()} to pick up later changes.
+     */
+    public CatalogHolder(Path dishFile) throws IOException {
+        this.dishFile = dishFile.toAbsolutePath();
+        this.catalog = load();
+    }
+
+    @Override
+    public DishCatalog get() {
+        return catalog;
+    }
+
+    private DishCatalog load() throws IOException {
+        List<Dish> dishes = DishLoader.readDishes(dishFile.toString());
+        if (dishes.isEmpty()) {
+            throw new IOException("No dishes in " + dishFile);
+        }
+        return OFF_HEAP ? DishCatalog.of(OffHeapDishStore.of(dishes)) : DishCatalog.of(dishes);
+    }
+
+    /**
+     * Re-reads the dish file and publishes the new catalog. Indexes are built before the swap,
+     * so readers only ever see a complete catalog.
+     *
+     * @return true if a new catalog was published
+     */
+    public boolean reload() {
+        try {
+            DishCatalog next = load();
+            catalog = next;
+            reloads.incrementAndGet();
+            System.out.println("Reloaded " + next.size() + " dishes from " + dishFile);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            failedReloads.incrementAndGet();
+            System.err.println("Error reloading dishes, keeping the current catalog: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Starts a daemon thread that reloads the catalog whenever the dish file is modified.
+     */
+    public synchronized void startWatching() throws IOException {
+        if (watcherThread != null) return;
+        Path dir = dishFile.getParent();
+        watcher = dir.getFileSystem().newWatchService();
+        dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watcherThread = new Thread(() -> watch(watcher), "catalog-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = drain(key);
+                // Editors and copy tools fire several events per save; wait until the file goes quiet
+                WatchKey more;
+                while ((more = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(more);
+                }
+                if (changed) reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // close() was called
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        Path name = dishFile.getFileName();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    public long getReloadCount() {
+        return reloads.get();
+    }
+
+    public long getFailedReloadCount() {
+        return failedReloads.get();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watcherThread == null) return;
+        watcher.close();
+        watcherThread.interrupt();
+        watcherThread = null;
+    }
+}
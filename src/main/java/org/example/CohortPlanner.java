@@ -0,0 +1,197 @@
+package org.example;
+
+import org.example.entity.MealPlan;
+import org.example.entity.Profile;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Grouping stage for batch runs. A pre-pass over the profiles counts the members of each
+ * cohort: profiles that differ at most in calorie target ({@link ProfileSignature#cohortOf}).
+ * While planning, the first member of a cohort runs filtering and main meal selection, and the
+ * other members reuse that result and only run the snack stage for their own calorie target;
+ * members with a calorie target already planned in the cohort get the same plan. A cohort's
+ * state is dropped after its last member. Plans are the ones {@link MealPlanner#planMeals}
+ * returns.
+ * <p>
+ * Profiles alone in their cohort, or not seen by the pre-pass, are planned as usual and get no
+ * cohort state. So are new cohorts while {@value #MAX_OPEN_COHORTS} others are holding state,
+ * which bounds memory when cohorts are interleaved across a large file.
+ */
+public class CohortPlanner {
+
+    static final int MAX_OPEN_COHORTS = 4096;
+    // Rough pre-pass heap per distinct cohort: the signature with its term sets, and a map entry
+    private static final int BYTES_PER_COHORT = 512;
+
+    private final Map<ProfileSignature, Cohort> cohorts;
+    private final int distinct;
+    private final long profiles;
+    private final boolean grouped;
+    private final AtomicInteger open = new AtomicInteger();
+    private final LongAdder mainsPlanned = new LongAdder();
+    private final LongAdder snacksPlanned = new LongAdder();
+    private final LongAdder ungrouped = new LongAdder();
+
+    private CohortPlanner(Map<ProfileSignature, Cohort> cohorts, int distinct, long profiles, boolean grouped) {
+        this.cohorts = cohorts;
+        this.distinct = distinct;
+        this.profiles = profiles;
+        this.grouped = grouped;
+    }
+
+    /**
+     * Counts cohort members in {@code profiles}. If there are more than {@code maxCohorts}
+     * distinct cohorts grouping would not pay for its memory, and the returned planner plans
+     * every profile on its own.
+     */
+    public static CohortPlanner scan(Stream<Profile> profiles, int maxCohorts) {
+        Map<ProfileSignature, Integer> members = new HashMap<>();
+        long count = 0;
+        Iterator<Profile> it = profiles.iterator();
+        while (it.hasNext()) {
+            members.merge(ProfileSignature.cohortOf(it.next()), 1, Integer::sum);
+            count++;
+            if (members.size() > maxCohorts) return new CohortPlanner(Map.of(), members.size(), count, false);
+        }
+        Map<ProfileSignature, Cohort> cohorts = new HashMap<>();
+        members.forEach((signature, n) -> {
+            if (n > 1) cohorts.put(signature, new Cohort(n));
+        });
+        return new CohortPlanner(cohorts, members.size(), count, true);
+    }
+
+    /**
+     * The most distinct cohorts whose pre-pass fits in a sixteenth of the maximum heap.
+     */
+    public static int maxCohorts() {
+        return (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 16 / BYTES_PER_COHORT);
+    }
+
+    public MealPlan plan(DishCatalog catalog, Profile profile) {
+        Cohort cohort = cohorts.get(ProfileSignature.cohortOf(profile));
+        if (cohort == null) {
+            ungrouped.increment();
+            return MealPlanner.planMeals(catalog, profile);
+        }
+        PlanningScratch scratch = PlanningScratch.acquire();
+        try {
+            PlanningScratch.Mains mains = cohort.mains(this, catalog, profile, scratch);
+            if (mains == null) {
+                ungrouped.increment();
+                return scratch.plan(catalog, profile);
+            }
+            MealPlan plan = cohort.planned(profile.getCalorieTarget());
+            if (plan == null) {
+                plan = scratch.plan(mains, profile);
+                snacksPlanned.increment();
+                cohort.remember(mains, profile.getCalorieTarget(), plan);
+            }
+            return plan;
+        } finally {
+            scratch.release();
+            if (cohort.remaining.decrementAndGet() == 0) cohort.release(this);
+        }
+    }
+
+    public boolean isGrouped() {
+        return grouped;
+    }
+
+    /**
+     * Number of distinct cohorts found by the pre-pass.
+     */
+    public int getCohorts() {
+        return distinct;
+    }
+
+    /**
+     * Profiles counted by the pre-pass, which stops early when there are too many cohorts.
+     */
+    public long getProfiles() {
+        return profiles;
+    }
+
+    /**
+     * Times filtering and main meal selection ran for a cohort.
+     */
+    public long getMainsPlanned() {
+        return mainsPlanned.sum();
+    }
+
+    /**
+     * Times the snack stage ran on a cohort's shared main meals.
+     */
+    public long getSnacksPlanned() {
+        return snacksPlanned.sum();
+    }
+
+    /**
+     * Profiles planned on their own, without a cohort.
+     */
+    public long getUngrouped() {
+        return ungrouped.sum();
+    }
+
+    @Override
+    public String toString() {
+        if (!grouped) return "too many cohorts to group";
+        return String.format("%d profiles in %d cohorts; main meals planned %d times, snacks %d times, %d planned alone",
+                profiles, distinct, getMainsPlanned(), getSnacksPlanned(), getUngrouped());
+    }
+
+    private static final class Cohort {
+        final AtomicInteger remaining;
+        // Plans by calorie target, created with the first one
+        private volatile Map<Integer, MealPlan> byTarget;
+        private PlanningScratch.Mains mains;
+        private boolean released;
+
+        Cohort(int members) {
+            remaining = new AtomicInteger(members);
+        }
+
+        MealPlan planned(int calorieTarget) {
+            Map<Integer, MealPlan> plans = byTarget;
+            return plans == null ? null : plans.get(calorieTarget);
+        }
+
+        // Main meals for the cohort, planned by the first member to ask; null if over the open limit
+        synchronized PlanningScratch.Mains mains(CohortPlanner owner, DishCatalog catalog, Profile profile,
+                                                 PlanningScratch scratch) {
+            if (mains != null && mains.catalog == catalog) return mains;
+            if (mains == null) {
+                if (released || owner.open.incrementAndGet() > MAX_OPEN_COHORTS) {
+                    if (!released) owner.open.decrementAndGet();
+                    return null;
+                }
+            } else {
+                // The catalog was reloaded; plans made against the old one do not carry over
+                byTarget = null;
+            }
+            mains = scratch.planMains(catalog, profile);
+            owner.mainsPlanned.increment();
+            return mains;
+        }
+
+        // Two members with the same target may both plan; the plans are equal
+        synchronized void remember(PlanningScratch.Mains plannedOn, int calorieTarget, MealPlan plan) {
+            if (mains != plannedOn) return;
+            if (byTarget == null) byTarget = new ConcurrentHashMap<>();
+            byTarget.putIfAbsent(calorieTarget, plan);
+        }
+
+        synchronized void release(CohortPlanner owner) {
+            if (mains != null) owner.open.decrementAndGet();
+            mains = null;
+            released = true;
+            byTarget = null;
+        }
+    }
+}
@@ -0,0 +1,624 @@
+package org.example;
+
+import org.example.entity.Diet;
+import org.example.entity.Dish;
+import org.example.entity.MealType;
+import org.example.entity.Preference;
+import org.example.entity.Profile;
+import org.example.metrics.Fallback;
+import org.example.metrics.FilterStep;
+import org.example.metrics.PlannerMetrics;
+import org.example.store.OffHeapDishStore;
+import org.example.utility.Vocabulary;
+
+import java.util.*;
+
+/**
+ * Immutable index over the dish list returned by {@code DishLoader}.
+ * Every dish gets a fixed position and each allergen, region, diet and meal type
+ * keeps a bitset of the positions it applies to, so profile filtering becomes a
+ * handful of bitset AND/ANDNOT operations instead of a stream pass per stage.
+ */
+public final class DishCatalog {
+
+    private static final BitSet EMPTY = new BitSet();
+
+    static final int HIGH_PROTEIN = Preference.HIGH_PROTEIN.bit();
+    static final int HIGH_FIBER = Preference.HIGH_FIBER.bit();
+    static final int LOW_CARB = Preference.LOW_CARB.bit();
+    static final int SIGNATURES = Preference.combinations();
+    private static final int SORT_BLOCK = 32;
+    // Tuned rule sets kept, least recently used dropped first
+    static final int MAX_TUNED_RANKINGS = 64;
+
+    static final List<MealType> MEAL_TYPES = List.of(MealType.BREAKFAST, MealType.LUNCH, MealType.DINNER, MealType.SNACK);
+
+    private final List<Dish> dishes;
+    private final DishColumns columns;
+    private final BitSet all;
+    // Indexed by Vocabulary code
+    private final BitSet[] byAllergen;
+    private final BitSet[] byRegion;
+    private final Map<MealType, BitSet> byMealType;
+    private final BitSet seafood;
+    private final BitSet vegetarian;
+    private final BitSet vegan;
+    // Scores, rankings and thresholds under the default scoring rules, and under tuned ones
+    private final Ranking ranking;
+    private final Map<ScoringRules, Ranking> tuned = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ScoringRules, Ranking> eldest) {
+            return size() > MAX_TUNED_RANKINGS;
+        }
+    };
+    // Position of the first dish equal to each dish; duplicate rows share one
+    private final int[] canonical;
+    // Built on first use; batch runs never look up substitutes
+    private volatile DishSimilarityIndex similarity;
+
+    private DishCatalog(List<Dish> dishes, boolean copy) {
+        this.dishes = copy ? List.copyOf(dishes) : dishes;
+        this.columns = DishColumns.of(this.dishes);
+        int n = this.dishes.size();
+        this.all = new BitSet(n);
+        this.all.set(0, n);
+
+        List<BitSet> allergens = new ArrayList<>();
+        List<BitSet> regions = new ArrayList<>();
+        Map<MealType, BitSet> mealTypes = new EnumMap<>(MealType.class);
+        for (MealType mealType : MealType.values()) {
+            mealTypes.put(mealType, new BitSet(n));
+        }
+        this.vegetarian = new BitSet(n);
+        this.vegan = new BitSet(n);
+
+        for (int i = 0; i < n; i++) {
+            Dish d = this.dishes.get(i);
+            if (d.getAllergens() != null) {
+                for (String allergen : d.getAllergens()) {
+                    bitsFor(allergens, Vocabulary.ALLERGENS.code(allergen), n).set(i);
+                }
+            }
+            if (d.getAvailabilityRegions() != null) {
+                for (String region : d.getAvailabilityRegions()) {
+                    bitsFor(regions, Vocabulary.REGIONS.code(region), n).set(i);
+                }
+            }
+            mealTypes.get(d.getMealTypeCode()).set(i);
+            if (d.isVegetarian()) vegetarian.set(i);
+            if (d.isVegan()) vegan.set(i);
+        }
+        this.byAllergen = allergens.toArray(new BitSet[0]);
+        this.byRegion = regions.toArray(new BitSet[0]);
+        this.byMealType = mealTypes;
+
+        // Non-vegetarian dishes containing fish or shellfish, for the pescatarian rule
+        this.seafood = new BitSet(n);
+        seafood.or(codeBits(byAllergen, Vocabulary.ALLERGENS.lookup("fish")));
+        seafood.or(codeBits(byAllergen, Vocabulary.ALLERGENS.lookup("shellfish")));
+        seafood.andNot(vegetarian);
+
+        this.ranking = new Ranking(ScoringRules.defaults(), null);
+        for (int signature = 0; signature < SIGNATURES; signature++) ranking.rank(signature);
+
+        this.canonical = canonicalPositions(this.dishes);
+    }
+
+    /**
+     * Position of the first dish equal to each dish. Positions are sorted by hash code and only
+     * dishes with equal hashes are compared, so no dish has to be held for the whole pass; with
+     * an off-heap dish list each one is materialized only while it is looked at.
+     */
+    private static int[] canonicalPositions(List<Dish> dishes) {
+        int n = dishes.size();
+        int[] canonical = new int[n];
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) keys[i] = (long) dishes.get(i).hashCode() << 32 | i;
+        Arrays.sort(keys);
+        List<Dish> firsts = new ArrayList<>();
+        List<Integer> firstPositions = new ArrayList<>();
+        int run = 0;
+        while (run < n) {
+            int end = run + 1;
+            while (end < n && (int) (keys[end] >>> 32) == (int) (keys[run] >>> 32)) end++;
+            if (end - run == 1) {
+                int i = (int) keys[run];
+                canonical[i] = i;
+            } else {
+                // Within a run positions are ascending, so the first of each equal group comes first
+                firsts.clear();
+                firstPositions.clear();
+                for (int k = run; k < end; k++) {
+                    int i = (int) keys[k];
+                    Dish dish = dishes.get(i);
+                    int match = firsts.indexOf(dish);
+                    if (match < 0) {
+                        firsts.add(dish);
+                        firstPositions.add(i);
+                        canonical[i] = i;
+                    } else {
+                        canonical[i] = firstPositions.get(match);
+                    }
+                }
+            }
+            run = end;
+        }
+        return canonical;
+    }
+
+    /**
+     * Stable sort of positions by descending score, so ties keep catalog order. Scores are
+     * gathered next to their positions first, so the sort reads both arrays sequentially
+     * instead of looking each score up: insertion sort on small blocks, then bottom-up merges
+     * that skip runs already in order (the all-zero signature is a single pass).
+     */
+    static void sortByScore(int[] positions, double[] scores) {
+        int n = positions.length;
+        double[] keys = new double[n];
+        for (int i = 0; i < n; i++) keys[i] = scores[positions[i]];
+        for (int lo = 0; lo < n; lo += SORT_BLOCK) {
+            int hi = Math.min(lo + SORT_BLOCK, n);
+            for (int i = lo + 1; i < hi; i++) {
+                double key = keys[i];
+                int position = positions[i];
+                int j = i - 1;
+                while (j >= lo && Double.compare(keys[j], key) < 0) {
+                    keys[j + 1] = keys[j];
+                    positions[j + 1] = positions[j];
+                    j--;
+                }
+                keys[j + 1] = key;
+                positions[j + 1] = position;
+            }
+        }
+        int[] positionScratch = new int[n];
+        double[] keyScratch = new double[n];
+        for (int width = SORT_BLOCK; width < n; width *= 2) {
+            for (int lo = 0; lo < n - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(lo + 2 * width, n);
+                if (Double.compare(keys[mid - 1], keys[mid]) >= 0) continue;
+                System.arraycopy(positions, lo, positionScratch, lo, hi - lo);
+                System.arraycopy(keys, lo, keyScratch, lo, hi - lo);
+                int i = lo;
+                int j = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (j >= hi || (i < mid && Double.compare(keyScratch[i], keyScratch[j]) >= 0)) {
+                        keys[k] = keyScratch[i];
+                        positions[k] = positionScratch[i++];
+                    } else {
+                        keys[k] = keyScratch[j];
+                        positions[k] = positionScratch[j++];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Folds the scoring preferences into one of {@link #SIGNATURES} values; profiles with the
+     * same signature rank dishes identically. The signature is the {@link Preference} mask, as
+     * kept by {@link Profile#getPreferenceMask()}.
+     */
+    static int preferenceSignature(Map<String, Boolean> prefs) {
+        return Preference.mask(prefs);
+    }
+
+    private static BitSet bitsFor(List<BitSet> index, int code, int n) {
+        while (index.size() <= code) index.add(null);
+        BitSet bits = index.get(code);
+        if (bits == null) {
+            bits = new BitSet(n);
+            index.set(code, bits);
+        }
+        return bits;
+    }
+
+    private static BitSet codeBits(BitSet[] index, int code) {
+        return code >= 0 && code < index.length && index[code] != null ? index[code] : EMPTY;
+    }
+
+    public static DishCatalog of(List<Dish> dishes) {
+        return new DishCatalog(dishes, true);
+    }
+
+    /**
+     * A catalog over dishes kept off the heap. Only the indexes live on the heap; {@link #get}
+     * materializes a dish from the store on each call.
+     */
+    public static DishCatalog of(OffHeapDishStore store) {
+        return new DishCatalog(store.asList(), false);
+    }
+
+    public int size() {
+        return dishes.size();
+    }
+
+    public Dish get(int index) {
+        return dishes.get(index);
+    }
+
+    public List<Dish> getDishes() {
+        return dishes;
+    }
+
+    /**
+     * Dish scores, rankings and thresholds under one set of {@link ScoringRules}. The catalog's
+     * default rules are ranked up front. Tuned rules share the default threshold bitsets where
+     * their thresholds match, which they do for weight-only overrides. A preference signature
+     * under tuned rules is ranked over the whole catalog the second time it is asked for; the
+     * first plan only ranks its own candidates ({@link #within}), so one-off rule sets never
+     * pay for a full sort.
+     */
+    final class Ranking {
+        final ScoringRules rules;
+        // Indexed by Preference ordinal
+        private final BitSet[] matching;
+        // Indexed by preference signature; filled in on first use
+        private final Ranked[] bySignature = new Ranked[SIGNATURES];
+        // Signatures already ranked once for a single plan. Racy, which at worst ranks twice
+        private final boolean[] asked = new boolean[SIGNATURES];
+
+        private Ranking(ScoringRules rules, Ranking base) {
+            this.rules = rules;
+            Preference[] preferences = Preference.values();
+            this.matching = new BitSet[preferences.length];
+            for (Preference preference : preferences) {
+                int p = preference.ordinal();
+                matching[p] = base != null && rules.sameThreshold(base.rules, p)
+                        ? base.matching[p] : columns.matching(rules, preference);
+            }
+        }
+
+        // A ranking for one plan: shares the thresholds and holds only the candidates' order
+        private Ranking(Ranking of, int signature, BitSet candidates) {
+            this.rules = of.rules;
+            this.matching = of.matching;
+            bySignature[signature] = of.rank(signature, candidates);
+        }
+
+        /**
+         * This ranking, or one that ranks just {@code candidates} if the signature is not
+         * ranked yet and has not been asked for before. The result must only be used with
+         * these candidates and this signature.
+         */
+        Ranking within(int signature, BitSet candidates) {
+            if (bySignature[signature] != null) return this;
+            if (asked[signature]) {
+                rank(signature);
+                return this;
+            }
+            asked[signature] = true;
+            return new Ranking(this, signature, candidates);
+        }
+
+        // Two threads may rank the same signature at once; both get equal results
+        private Ranked rank(int signature) {
+            Ranked ranked = bySignature[signature];
+            if (ranked != null) return ranked;
+            ranked = rank(signature, null);
+            bySignature[signature] = ranked;
+            return ranked;
+        }
+
+        // Scores and sorts the dishes in among, or all dishes if it is null
+        private Ranked rank(int signature, BitSet among) {
+            double[] scores = new double[size()];
+            if (among == null) columns.scores(rules, signature, scores);
+            int[][] byMeal = new int[MEAL_TYPES.size()][];
+            for (int m = 0; m < MEAL_TYPES.size(); m++) {
+                BitSet meal = byMealType.get(MEAL_TYPES.get(m));
+                int[] positions;
+                if (among == null) {
+                    positions = meal.stream().toArray();
+                } else {
+                    BitSet both = (BitSet) meal.clone();
+                    both.and(among);
+                    positions = both.stream().toArray();
+                    columns.scores(rules, signature, positions, scores);
+                }
+                sortByScore(positions, scores);
+                byMeal[m] = positions;
+            }
+            return new Ranked(byMeal, scores);
+        }
+
+        int[] ranked(int signature, int mealType) {
+            return rank(signature).byMeal[mealType];
+        }
+
+        double score(int signature, int index) {
+            return rank(signature).scores[index];
+        }
+
+        // Keeps the candidates that meet every threshold in the signature
+        void applyThresholds(int signature, BitSet candidates) {
+            for (int p = 0; p < matching.length; p++) {
+                if ((signature & (1 << p)) != 0) candidates.and(matching[p]);
+            }
+        }
+    }
+
+    // Final fields, so a Ranked read without locking is always complete
+    private static final class Ranked {
+        // [meal type] -> dish positions, best score first
+        final int[][] byMeal;
+        // [dish position] -> ScoringRules.score
+        final double[] scores;
+
+        Ranked(int[][] byMeal, double[] scores) {
+            this.byMeal = byMeal;
+            this.scores = scores;
+        }
+    }
+
+    /**
+     * Ranking under the catalog's default rules.
+     */
+    Ranking ranking() {
+        return ranking;
+    }
+
+    Ranking ranking(ScoringRules rules) {
+        if (rules.equals(ranking.rules)) return ranking;
+        synchronized (tuned) {
+            return tuned.computeIfAbsent(rules, r -> new Ranking(r, ranking));
+        }
+    }
+
+    Ranking ranking(Profile profile) {
+        return ranking(ScoringRules.of(profile));
+    }
+
+    int canonical(int index) {
+        return canonical[index];
+    }
+
+    int calories(int index) {
+        return columns.calories[index];
+    }
+
+    /**
+     * Nutrient similarity index over this catalog, built the first time it is asked for.
+     */
+    public DishSimilarityIndex similarity() {
+        DishSimilarityIndex index = similarity;
+        if (index == null) {
+            synchronized (this) {
+                index = similarity;
+                if (index == null) similarity = index = DishSimilarityIndex.of(this);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Numeric dish fields as flat arrays, indexed like {@link #get(int)}.
+     */
+    public DishColumns columns() {
+        return columns;
+    }
+
+    /**
+     * Runs the allergen, diet, region and nutrition stages for a profile, with the same
+     * fallbacks as the list based pipeline in {@link MealPlanner}.
+     */
+    public BitSet filter(Profile profile) {
+        BitSet byAllergens = filterByAllergens(profile.getExcludeAllergens());
+        recordCandidates(FilterStep.ALLERGENS, byAllergens);
+        BitSet byDiet = filterByDietWithFallback(byAllergens, profile);
+        recordCandidates(FilterStep.DIET, byDiet);
+        BitSet byRegion = filterByRegionWithFallback(byDiet, profile.getPreferredRegions());
+        recordCandidates(FilterStep.REGION, byRegion);
+        BitSet byNutrition = filterByNutritionalPreferences(byRegion, profile.getPreferenceMask(), ranking(profile));
+        if (byNutrition.isEmpty()) {
+            relaxedNutrition();
+            byNutrition = byRegion;
+        }
+        recordCandidates(FilterStep.NUTRITION, byNutrition);
+        return byNutrition;
+    }
+
+    /**
+     * Same result as {@link #filter(Profile)}, written to {@code out} using {@code work} as the
+     * only temporary. Both are overwritten; nothing is allocated once they have grown to the
+     * catalog size.
+     */
+    void filterInto(Profile profile, BitSet out, BitSet work) {
+        filterInto(profile.getAllergenMask(), profile.getExcludeAllergens(), profile.getDietCode(),
+                profile.getRegionMask(), profile.getPreferredRegions(),
+                profile.getPreferenceMask(), ranking(profile), out, work);
+    }
+
+    /**
+     * {@link #filterInto(Profile, BitSet, BitSet)} on a profile's codes. The term sets are only
+     * read when their mask has {@link Vocabulary#OVERFLOW} set, and may be null otherwise. The
+     * nutrition stage uses the thresholds of {@code ranking}'s rules.
+     */
+    void filterInto(long allergenMask, Set<String> excludeAllergens, Diet diet, long regionMask,
+                    Set<String> preferredRegions, int signature, Ranking ranking, BitSet out, BitSet work) {
+        // Allergens. The profile's mask names the codes directly; only terms past the first 63
+        // need the set, which saves the iterator.
+        copy(all, out);
+        for (long bits = allergenMask & ~Vocabulary.OVERFLOW; bits != 0; bits &= bits - 1) {
+            out.andNot(codeBits(byAllergen, Long.numberOfTrailingZeros(bits)));
+        }
+        if ((allergenMask & Vocabulary.OVERFLOW) != 0) {
+            for (String allergen : excludeAllergens) {
+                out.andNot(codeBits(byAllergen, Vocabulary.ALLERGENS.lookup(allergen)));
+            }
+        }
+        recordCandidates(FilterStep.ALLERGENS, out);
+
+        // Diet, into work
+        copy(out, work);
+        switch (diet) {
+            case VEGETARIAN:
+                work.and(vegetarian);
+                break;
+            case VEGAN:
+                work.and(vegan);
+                if (work.isEmpty()) {
+                    veganFallback();
+                    copy(out, work);
+                    work.and(vegetarian);
+                }
+                break;
+            case PESCATARIAN:
+                if ((allergenMask & (Vocabulary.FISH | Vocabulary.SHELLFISH)) != 0) {
+                    work.andNot(seafood);
+                }
+                break;
+            default:
+                break;
+        }
+        recordCandidates(FilterStep.DIET, work);
+
+        // Regions, back into out
+        if (regionMask == 0) {
+            copy(work, out);
+        } else {
+            out.clear();
+            for (long bits = regionMask & ~Vocabulary.OVERFLOW; bits != 0; bits &= bits - 1) {
+                out.or(codeBits(byRegion, Long.numberOfTrailingZeros(bits)));
+            }
+            if ((regionMask & Vocabulary.OVERFLOW) != 0) {
+                for (String region : preferredRegions) {
+                    out.or(codeBits(byRegion, Vocabulary.REGIONS.lookup(region)));
+                }
+            }
+            out.and(work);
+            if (out.isEmpty()) {
+                PlannerMetrics.fallback(Fallback.ANY_REGION);
+                copy(work, out);
+            }
+        }
+        recordCandidates(FilterStep.REGION, out);
+
+        // Nutrition, kept only if something survives
+        copy(out, work);
+        ranking.applyThresholds(signature, work);
+        if (work.isEmpty()) {
+            relaxedNutrition();
+        } else {
+            copy(work, out);
+        }
+        recordCandidates(FilterStep.NUTRITION, out);
+    }
+
+    private static void recordCandidates(FilterStep step, BitSet candidates) {
+        if (PlannerMetrics.isEnabled()) PlannerMetrics.sink().candidates(step, candidates.cardinality());
+    }
+
+    private static void veganFallback() {
+        PlannerMetrics.fallback(Fallback.VEGETARIAN_FOR_VEGAN);
+        PlannerMetrics.info("No vegan dishes found; falling back to vegetarian dishes.");
+    }
+
+    private static void relaxedNutrition() {
+        PlannerMetrics.fallback(Fallback.RELAXED_NUTRITION);
+        PlannerMetrics.info("No dishes meet strict nutritional preferences; relaxing nutrition constraints.");
+    }
+
+    private static void copy(BitSet from, BitSet to) {
+        to.clear();
+        to.or(from);
+    }
+
+    BitSet filterByAllergens(Set<String> excludeAllergens) {
+        BitSet result = (BitSet) all.clone();
+        if (excludeAllergens != null) {
+            for (String allergen : excludeAllergens) {
+                result.andNot(codeBits(byAllergen, Vocabulary.ALLERGENS.lookup(allergen)));
+            }
+        }
+        return result;
+    }
+
+    BitSet filterByDietWithFallback(BitSet candidates, Profile profile) {
+        BitSet result = (BitSet) candidates.clone();
+        switch (profile.getDietCode()) {
+            case VEGETARIAN:
+                result.and(vegetarian);
+                break;
+            case VEGAN:
+                result.and(vegan);
+                if (result.isEmpty()) {
+                    veganFallback();
+                    result = (BitSet) candidates.clone();
+                    result.and(vegetarian);
+                }
+                break;
+            case PESCATARIAN:
+                if ((profile.getAllergenMask() & (Vocabulary.FISH | Vocabulary.SHELLFISH)) != 0) {
+                    result.andNot(seafood);
+                }
+                break;
+            default:
+                break;
+        }
+        return result;
+    }
+
+    BitSet filterByRegionWithFallback(BitSet candidates, Set<String> preferredRegions) {
+        if (preferredRegions == null || preferredRegions.isEmpty()) {
+            return candidates;
+        }
+        BitSet inRegion = new BitSet(size());
+        for (String region : preferredRegions) {
+            inRegion.or(codeBits(byRegion, Vocabulary.REGIONS.lookup(region)));
+        }
+        inRegion.and(candidates);
+        if (inRegion.isEmpty()) {
+            PlannerMetrics.fallback(Fallback.ANY_REGION);
+            return candidates;
+        }
+        return inRegion;
+    }
+
+    BitSet filterByNutritionalPreferences(BitSet candidates, Map<String, Boolean> prefs) {
+        return filterByNutritionalPreferences(candidates, Preference.mask(prefs));
+    }
+
+    BitSet filterByNutritionalPreferences(BitSet candidates, int preferenceMask) {
+        return filterByNutritionalPreferences(candidates, preferenceMask, ranking);
+    }
+
+    BitSet filterByNutritionalPreferences(BitSet candidates, int preferenceMask, Ranking ranking) {
+        BitSet result = (BitSet) candidates.clone();
+        ranking.applyThresholds(preferenceMask, result);
+        return result;
+    }
+
+    /**
+     * Per meal type candidates for a filtered bitset, already ranked for the given preferences.
+     * Walks the pre-sorted arrays and skips filtered out dishes, so no sorting happens per profile.
+     */
+    Map<String, List<Dish>> rankedByMealType(BitSet candidates, Map<String, Boolean> prefs) {
+        return rankedByMealType(candidates, Preference.mask(prefs));
+    }
+
+    Map<String, List<Dish>> rankedByMealType(BitSet candidates, int preferenceMask) {
+        return rankedByMealType(candidates, preferenceMask, ranking);
+    }
+
+    /**
+     * {@link #rankedByMealType(BitSet, int)} ranked by a profile's own scoring rules.
+     */
+    Map<String, List<Dish>> rankedByMealType(BitSet candidates, Profile profile) {
+        int signature = profile.getPreferenceMask();
+        return rankedByMealType(candidates, signature, ranking(profile).within(signature, candidates));
+    }
+
+    private Map<String, List<Dish>> rankedByMealType(BitSet candidates, int preferenceMask, Ranking ranking) {
+        Map<String, List<Dish>> map = new LinkedHashMap<>();
+        for (int m = 0; m < MEAL_TYPES.size(); m++) {
+            List<Dish> list = new ArrayList<>();
+            for (int i : ranking.ranked(preferenceMask, m)) {
+                if (candidates.get(i)) list.add(dishes.get(i));
+            }
+            map.put(MEAL_TYPES.get(m).key(), list);
+        }
+        return map;
+    }
+}
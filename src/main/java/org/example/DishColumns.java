@@ -0,0 +1,149 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.Preference;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Struct-of-arrays copy of the numeric dish fields, indexed by catalog position. Threshold
+ * filters and preference scores run as flat loops over primitive arrays instead of calling
+ * getters on dishes scattered across the heap; the loops are simple enough for the JIT to
+ * unroll and vectorize.
+ */
+public final class DishColumns {
+
+    final int size;
+    final double[] protein;
+    final double[] fiber;
+    final double[] carbs;
+    final int[] calories;
+    final int[] sodium;
+
+    private DishColumns(int size) {
+        this.size = size;
+        this.protein = new double[size];
+        this.fiber = new double[size];
+        this.carbs = new double[size];
+        this.calories = new int[size];
+        this.sodium = new int[size];
+    }
+
+    public static DishColumns of(List<Dish> dishes) {
+        DishColumns columns = new DishColumns(dishes.size());
+        for (int i = 0; i < columns.size; i++) {
+            Dish d = dishes.get(i);
+            columns.protein[i] = d.getProtein();
+            columns.fiber[i] = d.getFiber();
+            columns.carbs[i] = d.getCarbs();
+            columns.calories[i] = d.getCalories();
+            columns.sodium[i] = d.getSodium();
+        }
+        return columns;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double protein(int i) {
+        return protein[i];
+    }
+
+    public double fiber(int i) {
+        return fiber[i];
+    }
+
+    public double carbs(int i) {
+        return carbs[i];
+    }
+
+    public int calories(int i) {
+        return calories[i];
+    }
+
+    public int sodium(int i) {
+        return sodium[i];
+    }
+
+    /**
+     * Writes {@link ScoringRules#score} for every dish into {@code out}: one pass over the
+     * nutrient column per preference in the signature, in preference order, so the results
+     * equal the per-dish scores bit for bit.
+     */
+    public void scores(ScoringRules rules, int signature, double[] out) {
+        Arrays.fill(out, 0, size, 0.0);
+        for (int p = 0; p < rules.nutrient.length; p++) {
+            if ((signature & (1 << p)) == 0) continue;
+            double weight = rules.weight[p];
+            double cap = rules.cap[p];
+            switch (rules.nutrient[p]) {
+                case CALORIES: addTerms(calories, weight, cap, out); break;
+                case PROTEIN: addTerms(protein, weight, cap, out); break;
+                case FIBER: addTerms(fiber, weight, cap, out); break;
+                case CARBS: addTerms(carbs, weight, cap, out); break;
+                default: addTerms(sodium, weight, cap, out); break;
+            }
+        }
+    }
+
+    /**
+     * {@link #scores(ScoringRules, int, double[])} for the dishes at {@code positions} only;
+     * other entries of {@code out} are left alone.
+     */
+    public void scores(ScoringRules rules, int signature, int[] positions, double[] out) {
+        for (int i : positions) out[i] = 0;
+        for (int p = 0; p < rules.nutrient.length; p++) {
+            if ((signature & (1 << p)) == 0) continue;
+            for (int i : positions) {
+                double value;
+                switch (rules.nutrient[p]) {
+                    case CALORIES: value = calories[i]; break;
+                    case PROTEIN: value = protein[i]; break;
+                    case FIBER: value = fiber[i]; break;
+                    case CARBS: value = carbs[i]; break;
+                    default: value = sodium[i]; break;
+                }
+                out[i] += rules.term(p, value);
+            }
+        }
+    }
+
+    private void addTerms(double[] column, double weight, double cap, double[] out) {
+        if (Double.isNaN(cap)) {
+            for (int i = 0; i < size; i++) out[i] += column[i] * weight;
+        } else {
+            for (int i = 0; i < size; i++) out[i] += Math.max(0, cap - column[i]) * weight;
+        }
+    }
+
+    private void addTerms(int[] column, double weight, double cap, double[] out) {
+        if (Double.isNaN(cap)) {
+            for (int i = 0; i < size; i++) out[i] += column[i] * weight;
+        } else {
+            for (int i = 0; i < size; i++) out[i] += Math.max(0, cap - column[i]) * weight;
+        }
+    }
+
+    /**
+     * Positions of the dishes that meet the threshold of a preference's rule.
+     */
+    public BitSet matching(ScoringRules rules, Preference preference) {
+        int p = preference.ordinal();
+        long[] words = new long[(size + 63) >>> 6];
+        for (int i = 0; i < size; i++) {
+            double value;
+            switch (rules.nutrient[p]) {
+                case CALORIES: value = calories[i]; break;
+                case PROTEIN: value = protein[i]; break;
+                case FIBER: value = fiber[i]; break;
+                case CARBS: value = carbs[i]; break;
+                default: value = sodium[i]; break;
+            }
+            words[i >>> 6] |= (rules.meets(p, value) ? 1L : 0L) << i;
+        }
+        return BitSet.valueOf(words);
+    }
+}
@@ -0,0 +1,283 @@
+package org.example;
+
+import org.example.entity.MealType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Nearest-neighbour index over dish nutrient vectors (calories, protein, fiber, carbs, sodium),
+ * for finding substitutes that are nutritionally close to a dish. Each nutrient is divided by
+ * its standard deviation across the catalog so that no single unit (sodium in mg, say)
+ * dominates the distance.
+ * <p>
+ * Dishes are bucketed by meal type, and each bucket is a KD-tree stored implicitly in one array
+ * of catalog positions: the node of a range is its middle element, and each node splits on the
+ * nutrient with the widest spread in its range. A query visits O(log n) nodes when most dishes
+ * are eligible; a very selective predicate makes it closer to a scan, since ineligible nodes
+ * still have to be visited.
+ */
+public final class DishSimilarityIndex {
+
+    static final int DIMENSIONS = 5;
+
+    private final int size;
+    // Scaled nutrient vectors, DIMENSIONS per catalog position
+    private final double[] points;
+    private final int[] tree;
+    // Bucket of meal type m is tree[bucketStart[m], bucketStart[m + 1])
+    private final int[] bucketStart;
+    private final byte[] axes;
+    private final Map<String, Integer> byName;
+
+    private DishSimilarityIndex(DishCatalog catalog) {
+        DishColumns columns = catalog.columns();
+        this.size = columns.size();
+        this.points = new double[size * DIMENSIONS];
+        for (int i = 0; i < size; i++) {
+            int base = i * DIMENSIONS;
+            points[base] = columns.calories[i];
+            points[base + 1] = columns.protein[i];
+            points[base + 2] = columns.fiber[i];
+            points[base + 3] = columns.carbs[i];
+            points[base + 4] = columns.sodium[i];
+        }
+        normalize();
+
+        MealType[] meals = MealType.values();
+        this.bucketStart = new int[meals.length + 1];
+        for (int i = 0; i < size; i++) bucketStart[catalog.get(i).getMealTypeCode().ordinal() + 1]++;
+        for (int m = 0; m < meals.length; m++) bucketStart[m + 1] += bucketStart[m];
+        this.tree = new int[size];
+        int[] next = Arrays.copyOf(bucketStart, meals.length);
+        for (int i = 0; i < size; i++) tree[next[catalog.get(i).getMealTypeCode().ordinal()]++] = i;
+        this.axes = new byte[size];
+        for (int m = 0; m < meals.length; m++) build(bucketStart[m], bucketStart[m + 1]);
+
+        // First position per name, so duplicate rows resolve to the canonical dish
+        this.byName = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            String name = catalog.get(i).getName();
+            if (name != null) byName.putIfAbsent(name.toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    static DishSimilarityIndex of(DishCatalog catalog) {
+        return new DishSimilarityIndex(catalog);
+    }
+
+    /**
+     * Catalog position of the dish with this name, ignoring case, or -1.
+     */
+    public int find(String name) {
+        Integer position = byName.get(name.toLowerCase(Locale.ROOT));
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Squared distance between two dishes in scaled nutrient space.
+     */
+    public double distance(int a, int b) {
+        double sum = 0;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double diff = points[a * DIMENSIONS + d] - points[b * DIMENSIONS + d];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /**
+     * Writes up to {@code k} eligible dishes closest to {@code dish} into {@code out}, closest
+     * first, and returns how many were found. Ties go to the lower catalog position, so the
+     * answer does not depend on the shape of the tree. The dish itself is only returned if
+     * {@code eligible} accepts it.
+     */
+    public int nearest(int dish, int k, IntPredicate eligible, int[] out) {
+        if (k <= 0 || size == 0) return 0;
+        Search search = new Search(dish, k, eligible);
+        for (int m = 0; m + 1 < bucketStart.length; m++) search.visit(bucketStart[m], bucketStart[m + 1]);
+        return search.drainInto(out);
+    }
+
+    /**
+     * {@link #nearest(int, int, IntPredicate, int[])} among the dishes of one meal type only,
+     * which searches just that meal's tree.
+     */
+    public int nearest(int dish, MealType meal, int k, IntPredicate eligible, int[] out) {
+        if (k <= 0 || size == 0) return 0;
+        Search search = new Search(dish, k, eligible);
+        search.visit(bucketStart[meal.ordinal()], bucketStart[meal.ordinal() + 1]);
+        return search.drainInto(out);
+    }
+
+    private void normalize() {
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double sum = 0;
+            for (int i = 0; i < size; i++) sum += points[i * DIMENSIONS + d];
+            double mean = size == 0 ? 0 : sum / size;
+            double squares = 0;
+            for (int i = 0; i < size; i++) {
+                double diff = points[i * DIMENSIONS + d] - mean;
+                squares += diff * diff;
+            }
+            double deviation = size == 0 ? 0 : Math.sqrt(squares / size);
+            double scale = deviation > 0 ? 1 / deviation : 1;
+            for (int i = 0; i < size; i++) points[i * DIMENSIONS + d] *= scale;
+        }
+    }
+
+    private void build(int lo, int hi) {
+        while (hi - lo > 1) {
+            int axis = widestAxis(lo, hi);
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi, mid, axis);
+            axes[mid] = (byte) axis;
+            // Recurse into the smaller half, loop on the larger one
+            if (mid - lo < hi - mid - 1) {
+                build(lo, mid);
+                lo = mid + 1;
+            } else {
+                build(mid + 1, hi);
+                hi = mid;
+            }
+        }
+    }
+
+    private int widestAxis(int lo, int hi) {
+        int best = 0;
+        double widest = -1;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i++) {
+                double v = points[tree[i] * DIMENSIONS + d];
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+            if (max - min > widest) {
+                widest = max - min;
+                best = d;
+            }
+        }
+        return best;
+    }
+
+    // Quickselect: afterwards tree[nth] is in its sorted place by the axis within [lo, hi)
+    private void select(int lo, int hi, int nth, int axis) {
+        hi--;
+        while (hi > lo) {
+            double pivot = coordinate(tree[(lo + hi) >>> 1], axis);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (coordinate(tree[i], axis) < pivot) i++;
+                while (coordinate(tree[j], axis) > pivot) j--;
+                if (i <= j) {
+                    int t = tree[i];
+                    tree[i] = tree[j];
+                    tree[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (nth <= j) hi = j;
+            else if (nth >= i) lo = i;
+            else return;
+        }
+    }
+
+    private double coordinate(int position, int axis) {
+        return points[position * DIMENSIONS + axis];
+    }
+
+    // Branch and bound over the implicit tree, keeping the best k in a max-heap
+    private final class Search {
+        private final int query;
+        private final IntPredicate eligible;
+        private final double[] heapDistance;
+        private final int[] heapDish;
+        private int count;
+
+        Search(int query, int k, IntPredicate eligible) {
+            this.query = query;
+            this.eligible = eligible;
+            this.heapDistance = new double[k];
+            this.heapDish = new int[k];
+        }
+
+        void visit(int lo, int hi) {
+            if (lo >= hi) return;
+            int mid = (lo + hi) >>> 1;
+            int node = tree[mid];
+            if (eligible.test(node)) offer(distance(query, node), node);
+            if (hi - lo == 1) return;
+            int axis = axes[mid];
+            double diff = coordinate(query, axis) - coordinate(node, axis);
+            if (diff < 0) {
+                visit(lo, mid);
+                if (worthVisiting(diff)) visit(mid + 1, hi);
+            } else {
+                visit(mid + 1, hi);
+                if (worthVisiting(diff)) visit(lo, mid);
+            }
+        }
+
+        // The far side can only hold a closer dish if the split plane is within the current worst
+        private boolean worthVisiting(double planeDistance) {
+            return count < heapDish.length || planeDistance * planeDistance <= heapDistance[0];
+        }
+
+        private boolean worse(double distanceA, int dishA, double distanceB, int dishB) {
+            return distanceA > distanceB || (distanceA == distanceB && dishA > dishB);
+        }
+
+        void offer(double distance, int dish) {
+            if (count < heapDish.length) {
+                int i = count++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!worse(distance, dish, heapDistance[parent], heapDish[parent])) break;
+                    heapDistance[i] = heapDistance[parent];
+                    heapDish[i] = heapDish[parent];
+                    i = parent;
+                }
+                heapDistance[i] = distance;
+                heapDish[i] = dish;
+            } else if (worse(heapDistance[0], heapDish[0], distance, dish)) {
+                siftDown(distance, dish);
+            }
+        }
+
+        private void siftDown(double distance, int dish) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= count) break;
+                if (child + 1 < count && worse(heapDistance[child + 1], heapDish[child + 1], heapDistance[child], heapDish[child])) {
+                    child++;
+                }
+                if (!worse(heapDistance[child], heapDish[child], distance, dish)) break;
+                heapDistance[i] = heapDistance[child];
+                heapDish[i] = heapDish[child];
+                i = child;
+            }
+            heapDistance[i] = distance;
+            heapDish[i] = dish;
+        }
+
+        int drainInto(int[] out) {
+            int found = count;
+            // Pop the worst into the back of out until the heap is empty
+            while (count > 0) {
+                int worst = heapDish[0];
+                count--;
+                if (count > 0) siftDown(heapDistance[count], heapDish[count]);
+                out[count] = worst;
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.example;
+
+import org.example.entity.MealPlan;
+import org.example.entity.Profile;
+import org.example.render.HtmlPlanRenderer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the combined meal plan report one profile section at a time.
+ * Sections go straight to a buffered writer (optionally GZIP compressed) and the writer is
+ * flushed every {@code flushEvery} sections, so the report never has to fit in memory.
+ * <p>
+ * A part writer ({@link #openPart}) writes sections only, for a report assembled later from
+ * several parts with {@link #appendPart}.
+ */
+public class HtmlReportWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_FLUSH_EVERY = 1000;
+
+    private final OutputStream target;
+    private final Writer writer;
+    private final int flushEvery;
+    private final boolean document;
+    private long sections;
+
+    public HtmlReportWriter(OutputStream out, boolean gzip, int flushEvery) throws IOException {
+        this(out, gzip, flushEvery, true);
+    }
+
+    private HtmlReportWriter(OutputStream out, boolean gzip, int flushEvery, boolean document) throws IOException {
+        this.target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE, true) : out;
+        this.writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.flushEvery = Math.max(1, flushEvery);
+        this.document = document;
+        if (document) writeHeader();
+    }
+
+    /**
+     * Opens a report file; files ending in {@code .gz} are GZIP compressed.
+     */
+    public static HtmlReportWriter open(String path) throws IOException {
+        return new HtmlReportWriter(new FileOutputStream(path), path.endsWith(".gz"), DEFAULT_FLUSH_EVERY);
+    }
+
+    /**
+     * Opens an uncompressed report part: sections without the document header and footer.
+     */
+    public static HtmlReportWriter openPart(Path path) throws IOException {
+        return new HtmlReportWriter(new FileOutputStream(path.toFile()), false, DEFAULT_FLUSH_EVERY, false);
+    }
+
+    private void writeHeader() throws IOException {
+        // Begin full html document
+        writer.write("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"UTF-8\">\n");
+        writer.write("<title>All Meal Plans</title>\n");
+        writer.write("<style>");
+        writer.write("body { font-family: Arial, sans-serif; padding: 20px; background:#f9f9f9 }");
+        writer.write("h1,h2 {color:#2c3e50}");
+        writer.write("pre { background:#ececec; padding:10px; border-radius:5px }");
+        writer.write("section { margin-bottom: 50px; padding: 20px; border-bottom: 1px solid #ccc; }");
+        writer.write("</style>\n</head>\n<body>\n");
+    }
+
+    /**
+     * Writes a section for an already rendered plan.
+     */
+    public void writeSection(long index, Profile profile, String mealPlanHtml) throws IOException {
+        beginSection(index, profile);
+        writer.write(mealPlanHtml);
+        endSection();
+    }
+
+    /**
+     * Renders a planned profile directly into the output.
+     */
+    public void writeSection(long index, Profile profile, MealPlan plan) throws IOException {
+        beginSection(index, profile);
+        HtmlPlanRenderer.INSTANCE.render(plan, profile, writer);
+        endSection();
+    }
+
+    /**
+     * Renders a multi-day plan as one section with a heading per day.
+     */
+    public void writeSection(long index, Profile profile, List<MealPlan> days) throws IOException {
+        beginSection(index, profile);
+        for (int i = 0; i < days.size(); i++) {
+            writer.write("<h2>Day ");
+            writer.write(Integer.toString(i + 1));
+            writer.write("</h2>\n");
+            HtmlPlanRenderer.INSTANCE.render(days.get(i), profile, writer);
+        }
+        endSection();
+    }
+
+    private void beginSection(long index, Profile profile) throws IOException {
+        writer.write("<section>\n");
+        writer.write("<h1>Profile ");
+        writer.write(Long.toString(index + 1));
+        writer.write("</h1>\n");
+        writer.write("<h2>Details</h2>\n");
+        writer.write("<pre>");
+        writer.write(profileToJson(profile));
+        writer.write("</pre>\n");
+    }
+
+    private void endSection() throws IOException {
+        writer.write("</section>\n");
+        if (++sections % flushEvery == 0) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Copies the sections of a part written by {@link #openPart} into this report.
+     */
+    public void appendPart(Path part) throws IOException {
+        writer.flush();
+        Files.copy(part, target);
+    }
+
+    public long getSectionCount() {
+        return sections;
+    }
+
+    static String profileToJson(Profile profile) {
+        String json = String.format("{\n  \"age\": %d,\n  \"calorie_target\": %d,\n  \"diet\": \"%s\",\n  \"exclude_allergens\": %s,\n  \"preferences\": %s",
+                profile.getAge(),
+                profile.getCalorieTarget(),
+                profile.getDiet(),
+                profile.getExcludeAllergens().toString(),
+                profile.getPreferences().toString()
+        );
+        // Budgets only appear when set, so reports for profiles without them are unchanged
+        if (profile.getMaxSodium() > 0) json += ",\n  \"max_sodium\": " + profile.getMaxSodium();
+        if (profile.getMinProtein() > 0) json += ",\n  \"min_protein\": " + profile.getMinProtein();
+        if (profile.getMaxCarbs() > 0) json += ",\n  \"max_carbs\": " + profile.getMaxCarbs();
+        return json + "\n}";
+    }
+
+    /**
+     * Writes the closing tags, unless this is a part, and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (document) writer.write("</body>\n</html>");
+        } finally {
+            writer.close();
+        }
+    }
+}
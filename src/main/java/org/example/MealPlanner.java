@@ -1,8 +1,21 @@
 package org.example;
 
+import org.example.entity.Diet;
 import org.example.entity.Dish;
+import org.example.entity.MealPlan;
+import org.example.entity.MealType;
+import org.example.entity.PlannedDish;
+import org.example.entity.Preference;
 import org.example.entity.Profile;
-
+import org.example.metrics.Fallback;
+import org.example.metrics.FilterStep;
+import org.example.metrics.MetricsSink;
+import org.example.metrics.PlannerMetrics;
+import org.example.render.HtmlPlanRenderer;
+import org.example.store.ProfileRecord;
+import org.example.utility.Vocabulary;
+
+import java.io.IOException;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -10,66 +23,165 @@ import java.util.stream.Collectors;
 
 public class MealPlanner {
 
+    private static final long SEAFOOD = Vocabulary.FISH | Vocabulary.SHELLFISH;
+
     public static String selectMealsHtml(List<Dish> dishes, Profile profile) {
-        int calorieTarget = profile.getCalorieTarget();
-        double minCalories = calorieTarget * 0.9;
+        PlanTotals totals = new PlanTotals(profile);
 
         Set<Dish> filteredDishes = applyAllFilters(dishes, profile);
 
         Map<String, List<Dish>> dishesByMeal = groupDishesByMealType(filteredDishes);
 
-        sortDishesByScore(dishesByMeal, profile.getPreferences());
+        sortDishesByScore(dishesByMeal, profile.getPreferenceMask(), ScoringRules.of(profile));
 
-        AssignedMeals assignedMeals = initialMealSelectionMapped(dishesByMeal);
+        AssignedMeals assignedMeals = initialMealSelectionMapped(dishesByMeal, totals);
 
-        assignedMeals = fillMissingMealsBySwappingMapped(assignedMeals, dishesByMeal);
+        assignedMeals = fillMissingMealsBySwappingMapped(assignedMeals, dishesByMeal, totals);
 
-        assignedMeals = addSnacksToMeetCalorieTarget(assignedMeals, dishesByMeal, minCalories);
+        assignedMeals = addSnacksToMeetCalorieTarget(assignedMeals, dishesByMeal, totals, profile.getCalorieTarget());
 
         return prepareHtmlOutput(assignedMeals, profile);
     }
 
+    /**
+     * Same pipeline as {@link #selectMealsHtml(List, Profile)}, but filtering runs against the
+     * precomputed bitsets of a {@link DishCatalog} so the catalog is built once for all profiles.
+     */
+    public static String selectMealsHtml(DishCatalog catalog, Profile profile) {
+        return HtmlPlanRenderer.INSTANCE.render(planMeals(catalog, profile), profile);
+    }
+
+    /**
+     * Plans a profile and renders the result straight into {@code out}, without building an
+     * intermediate String.
+     */
+    public static void writeMealsHtml(DishCatalog catalog, Profile profile, Appendable out) throws IOException {
+        HtmlPlanRenderer.INSTANCE.render(planMeals(catalog, profile), profile, out);
+    }
+
+    /**
+     * Plans a profile without rendering anything; pass the result to a
+     * {@link org.example.render.PlanRenderer} if text output is needed. Runs on a pooled
+     * {@link PlanningScratch}, so the plan is the only thing allocated.
+     */
+    public static MealPlan planMeals(DishCatalog catalog, Profile profile) {
+        PlanningScratch scratch = PlanningScratch.acquire();
+        try {
+            return scratch.plan(catalog, profile);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * {@link #planMeals(DishCatalog, Profile)} for a profile read in place from an
+     * {@link org.example.store.OffHeapProfileStore}, without materializing a Profile.
+     */
+    public static MealPlan planMeals(DishCatalog catalog, ProfileRecord profile) {
+        PlanningScratch scratch = PlanningScratch.acquire();
+        try {
+            return scratch.plan(catalog, profile);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    /**
+     * Object based version of {@link #planMeals(DishCatalog, Profile)}, kept as the reference
+     * the scratch planner is tested against.
+     */
+    static AssignedMeals assignMeals(DishCatalog catalog, Profile profile) {
+        PlanTotals totals = new PlanTotals(profile);
+
+        Map<String, List<Dish>> dishesByMeal = catalog.rankedByMealType(catalog.filter(profile), profile);
+
+        AssignedMeals assignedMeals = initialMealSelectionMapped(dishesByMeal, totals);
+
+        assignedMeals = fillMissingMealsBySwappingMapped(assignedMeals, dishesByMeal, totals);
+
+        return addSnacksWithSolver(assignedMeals, dishesByMeal, profile, totals);
+    }
+
+    /**
+     * Up to {@code k} dishes the profile can eat for the same meal as the named dish, closest to
+     * it in nutrients first, for "replace this dish" requests. Empty if no dish has that name.
+     */
+    public static List<Dish> substitutes(DishCatalog catalog, Profile profile, String dishName, int k) {
+        DishSimilarityIndex index = catalog.similarity();
+        int target = index.find(dishName);
+        if (target < 0 || k <= 0) return Collections.emptyList();
+        MealType meal = catalog.get(target).getMealTypeCode();
+        BitSet candidates = catalog.filter(profile);
+        int[] found = new int[k];
+        int count = index.nearest(target, meal, k, i -> candidates.get(i) && i != target && catalog.canonical(i) == i, found);
+        List<Dish> substitutes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) substitutes.add(catalog.get(found[i]));
+        return substitutes;
+    }
+
+    static MealPlan toMealPlan(AssignedMeals assignedMeals) {
+        List<PlannedDish> mainMeals = new ArrayList<>(3);
+        for (String meal : Arrays.asList("breakfast", "lunch", "dinner")) {
+            AssignedDish ad = assignedMeals.mainMeals.get(meal);
+            if (ad != null) mainMeals.add(new PlannedDish(ad.dish, meal));
+        }
+        List<PlannedDish> snacks = new ArrayList<>(assignedMeals.snacks.size());
+        Set<Dish> seen = new HashSet<>();
+        for (AssignedDish ad : assignedMeals.snacks) {
+            if (seen.add(ad.dish)) snacks.add(new PlannedDish(ad.dish, ad.assignedMealType));
+        }
+        return new MealPlan(mainMeals, snacks);
+    }
+
     // Class to separate main meals (unique) and snacks (many)
     static class AssignedMeals {
         Map<String, AssignedDish> mainMeals = new LinkedHashMap<>();
         List<AssignedDish> snacks = new ArrayList<>();
     }
 
-    private static Set<Dish> applyAllFilters(List<Dish> dishes, Profile profile) {
+    static Set<Dish> applyAllFilters(List<Dish> dishes, Profile profile) {
+        MetricsSink metrics = PlannerMetrics.sink();
         Set<Dish> filteredByAllergens = filterByAllergens(dishes, profile.getExcludeAllergens());
+        metrics.candidates(FilterStep.ALLERGENS, filteredByAllergens.size());
         Set<Dish> filteredByDiet = filterByDietWithFallback(filteredByAllergens, profile);
+        metrics.candidates(FilterStep.DIET, filteredByDiet.size());
         Set<Dish> filteredByRegion = filterByRegionWithFallback(filteredByDiet, profile.getPreferredRegions());
-        Set<Dish> filteredByNutrition = filterByNutritionalPreferences(filteredByRegion, profile.getPreferences());
+        metrics.candidates(FilterStep.REGION, filteredByRegion.size());
+        Set<Dish> filteredByNutrition = filterByNutritionalPreferences(filteredByRegion, profile.getPreferenceMask(),
+                ScoringRules.of(profile));
         if (filteredByNutrition.isEmpty()) {
-            System.out.println("No dishes meet strict nutritional preferences; relaxing nutrition constraints.");
+            PlannerMetrics.fallback(Fallback.RELAXED_NUTRITION);
+            PlannerMetrics.info("No dishes meet strict nutritional preferences; relaxing nutrition constraints.");
             filteredByNutrition = filteredByRegion;
         }
+        metrics.candidates(FilterStep.NUTRITION, filteredByNutrition.size());
         return filteredByNutrition;
     }
 
-    private static Set<Dish> filterByAllergens(List<Dish> dishes, Set<String> excludeAllergens) {
+    static Set<Dish> filterByAllergens(List<Dish> dishes, Set<String> excludeAllergens) {
+        long excludeMask = Vocabulary.ALLERGENS.lookupMask(excludeAllergens);
         return dishes.stream()
-                .filter(d -> Collections.disjoint(d.getAllergens(), excludeAllergens))
+                .filter(d -> !Vocabulary.intersects(d.getAllergenMask(), d.getAllergens(), excludeMask, excludeAllergens))
                 .collect(Collectors.toSet());
     }
 
-    private static Set<Dish> filterByDietWithFallback(Set<Dish> dishes, Profile profile) {
+    static Set<Dish> filterByDietWithFallback(Set<Dish> dishes, Profile profile) {
         Set<Dish> filtered = dishes.stream().filter(d -> dietFilter(d, profile)).collect(Collectors.toSet());
-        if ("vegan".equalsIgnoreCase(profile.getDiet()) && filtered.isEmpty()) {
-            System.out.println("No vegan dishes found; falling back to vegetarian dishes.");
+        if (profile.getDietCode() == Diet.VEGAN && filtered.isEmpty()) {
+            PlannerMetrics.fallback(Fallback.VEGETARIAN_FOR_VEGAN);
+            PlannerMetrics.info("No vegan dishes found; falling back to vegetarian dishes.");
             filtered = dishes.stream().filter(Dish::isVegetarian).collect(Collectors.toSet());
         }
         return filtered;
     }
 
     private static boolean dietFilter(Dish dish, Profile profile) {
-        String diet = profile.getDiet().toLowerCase();
-        switch (diet) {
-            case "vegetarian": return dish.isVegetarian();
-            case "vegan": return dish.isVegan();
-            case "pescatarian":
-                if (profile.getExcludeAllergens().contains("fish") || profile.getExcludeAllergens().contains("shellfish")) {
-                    return dish.isVegetarian() || (!dish.getAllergens().contains("fish") && !dish.getAllergens().contains("shellfish"));
+        switch (profile.getDietCode()) {
+            case VEGETARIAN: return dish.isVegetarian();
+            case VEGAN: return dish.isVegan();
+            case PESCATARIAN:
+                if ((profile.getAllergenMask() & SEAFOOD) != 0) {
+                    return dish.isVegetarian() || (dish.getAllergenMask() & SEAFOOD) == 0;
                 } else {
                     return true;
                 }
@@ -77,62 +189,77 @@ public class MealPlanner {
         }
     }
 
-    private static Set<Dish> filterByRegionWithFallback(Set<Dish> dishes, Set<String> preferredRegions) {
+    static Set<Dish> filterByRegionWithFallback(Set<Dish> dishes, Set<String> preferredRegions) {
+        long regionMask = Vocabulary.REGIONS.lookupMask(preferredRegions);
         Set<Dish> filtered = dishes.stream()
                 .filter(d -> preferredRegions == null || preferredRegions.isEmpty()
-                        || !Collections.disjoint(d.getAvailabilityRegions(), preferredRegions))
+                        || Vocabulary.intersects(d.getRegionMask(), d.getAvailabilityRegions(), regionMask, preferredRegions))
                 .collect(Collectors.toSet());
         if (filtered.isEmpty()) {
+            PlannerMetrics.fallback(Fallback.ANY_REGION);
             return new HashSet<>(dishes);
         }
         return filtered;
     }
 
-    private static Set<Dish> filterByNutritionalPreferences(Set<Dish> dishes, Map<String, Boolean> prefs) {
-        boolean highProtein = prefs.getOrDefault("high_protein", false);
-        boolean highFiber = prefs.getOrDefault("high_fiber", false);
-        boolean lowCarb = prefs.getOrDefault("low_carb", false);
-        return dishes.stream().filter(d -> {
-            if (highProtein && d.getProtein() < 15) return false;
-            if (highFiber && d.getFiber() < 5) return false;
-            if (lowCarb && d.getCarbs() >= 25) return false;
-            return true;
-        }).collect(Collectors.toSet());
+    static Set<Dish> filterByNutritionalPreferences(Set<Dish> dishes, Map<String, Boolean> prefs) {
+        return filterByNutritionalPreferences(dishes, Preference.mask(prefs));
+    }
+
+    static Set<Dish> filterByNutritionalPreferences(Set<Dish> dishes, int preferenceMask) {
+        return filterByNutritionalPreferences(dishes, preferenceMask, ScoringRules.defaults());
     }
 
-    private static Map<String, List<Dish>> groupDishesByMealType(Set<Dish> dishes) {
+    static Set<Dish> filterByNutritionalPreferences(Set<Dish> dishes, int preferenceMask, ScoringRules rules) {
+        return dishes.stream().filter(d -> rules.accepts(d, preferenceMask)).collect(Collectors.toSet());
+    }
+
+    static Map<String, List<Dish>> groupDishesByMealType(Set<Dish> dishes) {
         Map<String, List<Dish>> map = new LinkedHashMap<>();
         map.put("breakfast", new ArrayList<>());
         map.put("lunch", new ArrayList<>());
         map.put("dinner", new ArrayList<>());
         map.put("snack", new ArrayList<>());
         for (Dish d : dishes) {
-            String mt = d.getMealType().toLowerCase();
-            if (map.containsKey(mt)) {
-                map.get(mt).add(d);
+            MealType mt = d.getMealTypeCode();
+            if (mt != MealType.OTHER) {
+                map.get(mt.key()).add(d);
             }
         }
         return map;
     }
 
-    private static void sortDishesByScore(Map<String, List<Dish>> dishesByMeal, Map<String, Boolean> prefs) {
+    static void sortDishesByScore(Map<String, List<Dish>> dishesByMeal, Map<String, Boolean> prefs) {
+        sortDishesByScore(dishesByMeal, Preference.mask(prefs));
+    }
+
+    static void sortDishesByScore(Map<String, List<Dish>> dishesByMeal, int preferenceMask) {
+        sortDishesByScore(dishesByMeal, preferenceMask, ScoringRules.defaults());
+    }
+
+    static void sortDishesByScore(Map<String, List<Dish>> dishesByMeal, int preferenceMask, ScoringRules rules) {
         for (List<Dish> dishList : dishesByMeal.values()) {
-            dishList.sort((d1, d2) -> Double.compare(scoreDish(d2, prefs), scoreDish(d1, prefs)));
+            dishList.sort((d1, d2) -> Double.compare(rules.score(d2, preferenceMask), rules.score(d1, preferenceMask)));
         }
     }
 
-    private static AssignedMeals initialMealSelectionMapped(Map<String, List<Dish>> dishesByMeal) {
+    // Best ranked dish per meal that fits the profile's budgets
+    private static AssignedMeals initialMealSelectionMapped(Map<String, List<Dish>> dishesByMeal, PlanTotals totals) {
         AssignedMeals assigned = new AssignedMeals();
         for (String meal : Arrays.asList("breakfast", "lunch", "dinner")) {
-            List<Dish> mealDishes = dishesByMeal.getOrDefault(meal, Collections.emptyList());
-            if (!mealDishes.isEmpty()) {
-                assigned.mainMeals.put(meal, new AssignedDish(mealDishes.get(0), meal));
+            for (Dish dish : dishesByMeal.getOrDefault(meal, Collections.emptyList())) {
+                if (totals.fits(dish)) {
+                    assigned.mainMeals.put(meal, new AssignedDish(dish, meal));
+                    totals.add(dish);
+                    break;
+                }
             }
         }
         return assigned;
     }
 
-    private static AssignedMeals fillMissingMealsBySwappingMapped(AssignedMeals assignedMeals, Map<String, List<Dish>> dishesByMeal) {
+    private static AssignedMeals fillMissingMealsBySwappingMapped(AssignedMeals assignedMeals, Map<String, List<Dish>> dishesByMeal,
+                                                                  PlanTotals totals) {
         Set<String> missingMeals = new LinkedHashSet<>(Arrays.asList("breakfast", "lunch", "dinner"));
         assignedMeals.mainMeals.keySet().forEach(missingMeals::remove);
 
@@ -152,143 +279,113 @@ public class MealPlanner {
             for (String source : priorities.getOrDefault(missing, Collections.emptyList())) {
                 List<Dish> candidates = dishesByMeal.getOrDefault(source, Collections.emptyList());
                 for (Dish candidate : candidates) {
-                    if (!used.contains(candidate)) {
+                    if (!used.contains(candidate) && totals.fits(candidate)) {
                         assignedMeals.mainMeals.put(missing, new AssignedDish(candidate, missing));
                         used.add(candidate);
-                        System.out.println("Swapped '" + candidate.getName() + "' from " + source + " to fill " + missing);
+                        totals.add(candidate);
+                        PlannerMetrics.fallback(Fallback.MEAL_SWAPPED);
+                        if (PlannerMetrics.isInfoEnabled()) {
+                            PlannerMetrics.info("Swapped '" + candidate.getName() + "' from " + source + " to fill " + missing);
+                        }
                         filled = true;
                         break;
                     }
                 }
                 if (filled) break;
             }
-            if (!filled) System.out.println("Could not fill missing meal: " + missing);
+            if (!filled) {
+                PlannerMetrics.fallback(Fallback.MEAL_UNFILLED);
+                if (PlannerMetrics.isInfoEnabled()) PlannerMetrics.info("Could not fill missing meal: " + missing);
+            }
         }
         return assignedMeals;
     }
 
-    private static AssignedMeals addSnacksToMeetCalorieTarget(AssignedMeals assignedMeals, Map<String, List<Dish>> dishesByMeal, double minCalories) {
-        int totalCalories = assignedMeals.mainMeals.values().stream().mapToInt(ad -> ad.dish.getCalories()).sum()
-                + assignedMeals.snacks.stream().mapToInt(ad -> ad.dish.getCalories()).sum();
-        List<Dish> snacks = dishesByMeal.getOrDefault("snack", Collections.emptyList());
+    private static AssignedMeals addSnacksToMeetCalorieTarget(AssignedMeals assignedMeals, Map<String, List<Dish>> dishesByMeal,
+                                                              PlanTotals totals, int calorieTarget) {
+        List<Dish> snacks = greedySnacks(dishesByMeal.getOrDefault("snack", Collections.emptyList()),
+                usedDishes(assignedMeals), totals, calorieTarget);
         for (Dish snack : snacks) {
-            if (totalCalories >= minCalories) break;
-            boolean usedInMain = assignedMeals.mainMeals.values().stream().anyMatch(ad -> ad.dish.equals(snack));
-            boolean usedInSnacks = assignedMeals.snacks.stream().anyMatch(ad -> ad.dish.equals(snack));
-            if (!usedInMain && !usedInSnacks) {
-                assignedMeals.snacks.add(new AssignedDish(snack, "snack"));
-                totalCalories += snack.getCalories();
-            }
+            assignedMeals.snacks.add(new AssignedDish(snack, "snack"));
         }
         return assignedMeals;
     }
 
-    private static String prepareHtmlOutput(AssignedMeals assignedMeals, Profile profile) {
-        StringBuilder html = new StringBuilder();
-
-        int totalCalories = 0;
-
-        html.append("<h2>Meal Plan</h2>\n");
-        html.append("<ul>\n");
-
-        for (String meal : Arrays.asList("breakfast", "lunch", "dinner")) {
-            AssignedDish ad = assignedMeals.mainMeals.get(meal);
-            if (ad != null) {
-                Dish dish = ad.dish;
-                totalCalories += dish.getCalories();
-
-                String rationale = generateRationale(dish, profile);
-                if (!ad.assignedMealType.equalsIgnoreCase(dish.getMealType())) {
-                    rationale += ", swapped from " + dish.getMealType();
-                }
+    /**
+     * Lets {@link SnackSolver} pick the snacks that best fit the calorie band, falling back to
+     * greedy filling when the band cannot be reached or the solver runs out of time.
+     */
+    private static AssignedMeals addSnacksWithSolver(AssignedMeals assignedMeals, Map<String, List<Dish>> dishesByMeal,
+                                                     Profile profile, PlanTotals totals) {
+        List<Dish> chosen = chooseSnacks(dishesByMeal.getOrDefault("snack", Collections.emptyList()),
+                usedDishes(assignedMeals), totals, profile);
+        for (Dish snack : chosen) {
+            assignedMeals.snacks.add(new AssignedDish(snack, "snack"));
+        }
+        return assignedMeals;
+    }
 
-                html.append("<li><strong>").append(capitalize(meal)).append(":</strong> ")
-                        .append(dish.getName())
-                        .append(" (").append(dish.getCalories()).append(" kcal) - ")
-                        .append(rationale)
-                        .append("</li>\n");
+    /**
+     * Snacks for the rest of the day, in plan order; {@code totals} holds what is planned so far
+     * and is updated with the snacks returned. Only snacks within the sodium and carb caps are
+     * offered to the solver. If its pick still breaks a budget as a set, or misses the protein
+     * goal, the greedy fill takes over.
+     */
+    static List<Dish> chooseSnacks(List<Dish> rankedSnacks, Set<Dish> used, PlanTotals totals, Profile profile) {
+        List<Dish> offered = rankedSnacks;
+        if (totals.hasBudgets()) {
+            offered = new ArrayList<>();
+            for (Dish snack : rankedSnacks) {
+                if (totals.fits(snack)) offered.add(snack);
             }
         }
+        List<Dish> chosen = SnackSolver.DEFAULT.select(offered, used, totals.getCalories(), profile.getCalorieTarget(),
+                profile.getPreferenceMask(), ScoringRules.of(profile));
+        if (chosen != null && totals.acceptsAll(chosen)) {
+            for (Dish snack : chosen) totals.add(snack);
+            return chosen;
+        }
+        PlannerMetrics.fallback(Fallback.GREEDY_SNACKS);
+        return greedySnacks(rankedSnacks, used, totals, profile.getCalorieTarget());
+    }
 
-        Set<Dish> printedSnacks = new HashSet<>();
-        for (AssignedDish snack : assignedMeals.snacks) {
-            if (printedSnacks.add(snack.dish)) {
-                Dish dish = snack.dish;
-                totalCalories += dish.getCalories();
-
-                String rationale = generateRationale(dish, profile);
-                if (!snack.assignedMealType.equalsIgnoreCase(dish.getMealType())) {
-                    rationale += ", swapped from " + dish.getMealType();
-                }
-
-                html.append("<li><strong>Snack:</strong> ")
-                        .append(dish.getName())
-                        .append(" (").append(dish.getCalories()).append(" kcal) - ")
-                        .append(rationale)
-                        .append("</li>\n");
+    // Best ranked snacks until calories reach the band and protein its goal, within the caps
+    private static List<Dish> greedySnacks(List<Dish> rankedSnacks, Set<Dish> used, PlanTotals totals, int calorieTarget) {
+        double minCalories = calorieTarget * 0.9;
+        int maxCalories = totals.getCalories() + SnackSolver.DEFAULT.upperGap(calorieTarget, totals.getCalories());
+        List<Dish> chosen = new ArrayList<>();
+        Set<Dish> picked = new HashSet<>();
+        for (Dish snack : rankedSnacks) {
+            if (totals.snacksDone(minCalories)) break;
+            if (!used.contains(snack) && !picked.contains(snack) && totals.wantsSnack(snack, minCalories, maxCalories)) {
+                chosen.add(snack);
+                picked.add(snack);
+                totals.add(snack);
             }
         }
-
-        html.append("</ul>\n");
-        String summary = generateDaySummary(assignedMeals.mainMeals.size() + assignedMeals.snacks.size(),
-                totalCalories, profile.getCalorieTarget(), profile.getPreferences());
-
-        html.append("<p><strong>Total calories consumed:</strong> ").append(totalCalories).append(" kcal</p>\n");
-        html.append("<p><em>").append(summary).append("</em></p>\n");
-
-        return html.toString();
+        return chosen;
     }
 
-    private static String capitalize(String s) {
-        if (s == null || s.isEmpty()) return s;
-        return s.substring(0,1).toUpperCase() + s.substring(1);
+    private static Set<Dish> usedDishes(AssignedMeals assignedMeals) {
+        Set<Dish> used = new HashSet<>();
+        for (AssignedDish ad : assignedMeals.mainMeals.values()) used.add(ad.dish);
+        for (AssignedDish ad : assignedMeals.snacks) used.add(ad.dish);
+        return used;
     }
 
-    private static double scoreDish(Dish dish, Map<String, Boolean> prefs) {
-        double score = 0;
-        if (prefs.getOrDefault("high_protein", false)) score += dish.getProtein() * 2;
-        if (prefs.getOrDefault("high_fiber", false)) score += dish.getFiber() * 1.5;
-        if (prefs.getOrDefault("low_carb", false)) score += Math.max(0, 50 - dish.getCarbs());
-        return score;
+    private static String prepareHtmlOutput(AssignedMeals assignedMeals, Profile profile) {
+        return HtmlPlanRenderer.INSTANCE.render(toMealPlan(assignedMeals), profile);
     }
 
-    private static String generateRationale(Dish dish, Profile profile) {
-        List<String> reasons = new ArrayList<>();
-        Map<String, Boolean> prefs = profile.getPreferences();
-
-        if (prefs.getOrDefault("high_protein", false) && dish.getProtein() > 15) reasons.add("high protein");
-        if (prefs.getOrDefault("high_fiber", false) && dish.getFiber() > 5) reasons.add("high fiber");
-        if (prefs.getOrDefault("low_carb", false) && dish.getCarbs() < 25) reasons.add("low carb");
-        if (dish.getAllergens().contains("dairy") && !profile.getExcludeAllergens().contains("dairy")) reasons.add("includes dairy");
-
-        if (dish.isVegan() && "vegan".equalsIgnoreCase(profile.getDiet())) reasons.add("vegan");
-        else if (dish.isVegetarian() && "vegetarian".equalsIgnoreCase(profile.getDiet())) reasons.add("vegetarian");
-        else if ("pescatarian".equalsIgnoreCase(profile.getDiet())
-                && dish.getAllergens().stream().noneMatch(a -> a.equalsIgnoreCase("shellfish") || a.equalsIgnoreCase("fish"))) {
-            reasons.add("pescatarian compliant");
-        }
-
-        if (reasons.isEmpty()) reasons.add("matches profile preferences");
-        if (prefs.getOrDefault("low_carb", false) && dish.getCarbs() >= 25) reasons.add("moderate carbs for energy balance");
-
-        return String.join(", ", reasons);
+    static double scoreDish(Dish dish, Map<String, Boolean> prefs) {
+        return scoreDish(dish, Preference.mask(prefs));
     }
 
-    private static String generateDaySummary(int mealCount, int totalCalories, int calorieTarget, Map<String, Boolean> prefs) {
-        String focus = "balanced nutrients";
-        if (prefs.getOrDefault("high_fiber", false)) focus = "high fiber foods";
-        else if (prefs.getOrDefault("high_protein", false)) focus = "high protein foods";
-        else if (prefs.getOrDefault("low_carb", false)) focus = "low carb foods";
-
-        if (mealCount == 0) {
-            return "No suitable meals found to meet the profile preferences.";
-        } else if (mealCount < 4) {
-            return String.format("This meal plan provides approximately %d calories, below your target of %d calories. It includes %d meal(s) focusing on %s. Consider adjusting preferences or adding more dishes for better variety.",
-                    totalCalories, calorieTarget, mealCount, focus);
-        } else {
-            return String.format("This meal plan provides approximately %d calories, closely matching the target of %d calories. It emphasizes %s to meet your dietary preferences. The plan includes a balanced selection of breakfast, lunch, dinner, and snacks to ensure variety and nutritional completeness.",
-                    totalCalories, calorieTarget, focus);
-        }
+    /**
+     * Score of a dish under the default {@link ScoringRules}.
+     */
+    static double scoreDish(Dish dish, int preferenceMask) {
+        return ScoringRules.defaults().score(dish, preferenceMask);
     }
 
     static class AssignedDish {
@@ -0,0 +1,172 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.MealPlan;
+import org.example.entity.Profile;
+import org.example.metrics.Fallback;
+import org.example.metrics.PlannerMetrics;
+
+import java.util.*;
+
+/**
+ * Plans consecutive days for one profile without repeating dishes across days.
+ * Filtering and ranking run once when the planner is created; each day then only advances
+ * per meal type cursors past dishes already used, so planning a week costs little more than
+ * planning a single day. When a main meal can no longer be filled with an unused dish, the
+ * used set is cleared and the rotation starts over from the best ranked dishes; snacks, which
+ * run out sooner, start over on their own once the unused ones can no longer reach the calorie
+ * target.
+ */
+public class MultiDayPlanner {
+
+    private static final List<String> MAIN_MEALS = Arrays.asList("breakfast", "lunch", "dinner");
+    private static final Map<String, List<String>> SWAP_PRIORITIES = Map.of(
+            "breakfast", Arrays.asList("lunch", "dinner", "snack"),
+            "lunch", Arrays.asList("breakfast", "dinner", "snack"),
+            "dinner", Arrays.asList("lunch", "breakfast", "snack")
+    );
+
+    private final Profile profile;
+    private final double minCalories;
+    private final Map<String, List<Dish>> dishesByMeal;
+    // First position in each ranked list that may still be unused
+    private final Map<String, Integer> cursors = new HashMap<>();
+    private final Set<Dish> used = new HashSet<>();
+    private int day;
+    private int rotations;
+
+    public MultiDayPlanner(DishCatalog catalog, Profile profile) {
+        this.profile = profile;
+        this.minCalories = profile.getCalorieTarget() * 0.9;
+        this.dishesByMeal = catalog.rankedByMealType(catalog.filter(profile), profile);
+    }
+
+    /**
+     * Plans {@code days} consecutive days for a profile. Day 1 is the same plan
+     * {@link MealPlanner#planMeals(DishCatalog, Profile)} returns.
+     */
+    public static List<MealPlan> planDays(DishCatalog catalog, Profile profile, int days) {
+        MultiDayPlanner planner = new MultiDayPlanner(catalog, profile);
+        List<MealPlan> plans = new ArrayList<>(days);
+        for (int i = 0; i < days; i++) {
+            plans.add(planner.nextDay());
+        }
+        return plans;
+    }
+
+    public MealPlan nextDay() {
+        day++;
+        MealPlanner.AssignedMeals today = new MealPlanner.AssignedMeals();
+        PlanTotals totals = new PlanTotals(profile);
+        List<String> missing = fillMainMeals(today, totals);
+        if (!missing.isEmpty() && used.size() > today.mainMeals.size()) {
+            // Earlier days used up the pool; start a new rotation but keep today's picks
+            rotations++;
+            used.clear();
+            cursors.clear();
+            for (MealPlanner.AssignedDish ad : today.mainMeals.values()) used.add(ad.dish);
+            PlannerMetrics.fallback(Fallback.REPEATED_DISHES);
+            if (PlannerMetrics.isInfoEnabled()) {
+                PlannerMetrics.info("Ran out of unused dishes on day " + day + "; repeating dishes from earlier days.");
+            }
+            missing = fillMainMeals(today, totals);
+        }
+        for (String meal : missing) {
+            PlannerMetrics.fallback(Fallback.MEAL_UNFILLED);
+            if (PlannerMetrics.isInfoEnabled()) PlannerMetrics.info("Could not fill missing meal: " + meal);
+        }
+        addSnacks(today, totals);
+        return MealPlanner.toMealPlan(today);
+    }
+
+    public int getDay() {
+        return day;
+    }
+
+    /**
+     * Number of times the planner had to start repeating dishes.
+     */
+    public int getRotations() {
+        return rotations;
+    }
+
+    // Same order as the single day planner: each meal's best unused dish, then swaps by priority
+    private List<String> fillMainMeals(MealPlanner.AssignedMeals today, PlanTotals totals) {
+        for (String meal : MAIN_MEALS) {
+            if (today.mainMeals.containsKey(meal)) continue;
+            Dish dish = firstUnused(meal, totals);
+            if (dish != null) {
+                today.mainMeals.put(meal, new MealPlanner.AssignedDish(dish, meal));
+                used.add(dish);
+                totals.add(dish);
+            }
+        }
+        List<String> missing = new ArrayList<>();
+        for (String meal : MAIN_MEALS) {
+            if (today.mainMeals.containsKey(meal)) continue;
+            Dish dish = null;
+            for (String source : SWAP_PRIORITIES.get(meal)) {
+                dish = firstUnused(source, totals);
+                if (dish != null) {
+                    PlannerMetrics.fallback(Fallback.MEAL_SWAPPED);
+                    if (PlannerMetrics.isInfoEnabled()) {
+                        PlannerMetrics.info("Swapped '" + dish.getName() + "' from " + source + " to fill " + meal);
+                    }
+                    break;
+                }
+            }
+            if (dish != null) {
+                today.mainMeals.put(meal, new MealPlanner.AssignedDish(dish, meal));
+                used.add(dish);
+                totals.add(dish);
+            } else {
+                missing.add(meal);
+            }
+        }
+        return missing;
+    }
+
+    private void addSnacks(MealPlanner.AssignedMeals today, PlanTotals mains) {
+        PlanTotals totals = new PlanTotals(mains);
+        List<Dish> chosen = MealPlanner.chooseSnacks(unusedTail("snack"), used, totals, profile);
+        if (totals.getCalories() < minCalories && restartSnackRotation(today)) {
+            // Snacks run out long before main meals; recycling them beats an empty afternoon
+            PlannerMetrics.fallback(Fallback.REPEATED_DISHES);
+            chosen = MealPlanner.chooseSnacks(unusedTail("snack"), used, new PlanTotals(mains), profile);
+        }
+        for (Dish snack : chosen) {
+            today.snacks.add(new MealPlanner.AssignedDish(snack, "snack"));
+            used.add(snack);
+        }
+    }
+
+    // Makes snacks from earlier days available again; dishes planned today stay used
+    private boolean restartSnackRotation(MealPlanner.AssignedMeals today) {
+        Set<Dish> planned = new HashSet<>();
+        for (MealPlanner.AssignedDish ad : today.mainMeals.values()) planned.add(ad.dish);
+        boolean released = false;
+        for (Dish snack : dishesByMeal.getOrDefault("snack", Collections.emptyList())) {
+            if (!planned.contains(snack) && used.remove(snack)) released = true;
+        }
+        cursors.remove("snack");
+        return released;
+    }
+
+    private Dish firstUnused(String meal, PlanTotals totals) {
+        List<Dish> tail = unusedTail(meal);
+        for (Dish dish : tail) {
+            if (!used.contains(dish) && totals.fits(dish)) return dish;
+        }
+        return null;
+    }
+
+    // Ranked dishes from the cursor on. Dishes before the cursor are all used; the cursor only
+    // moves forward within a rotation, so each list is walked about once per rotation.
+    private List<Dish> unusedTail(String meal) {
+        List<Dish> ranked = dishesByMeal.getOrDefault(meal, Collections.emptyList());
+        int cursor = cursors.getOrDefault(meal, 0);
+        while (cursor < ranked.size() && used.contains(ranked.get(cursor))) cursor++;
+        cursors.put(meal, cursor);
+        return ranked.subList(cursor, ranked.size());
+    }
+}
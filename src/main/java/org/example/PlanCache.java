@@ -0,0 +1,104 @@
+package org.example;
+
+import org.example.entity.Profile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Bounded LRU cache of planning results keyed by {@link ProfileSignature}.
+ * Entries belong to the catalog they were planned against; asking with a different catalog
+ * (for example after a reload) drops everything first.
+ */
+public class PlanCache<V> {
+
+    private final int maxEntries;
+    private final BiFunction<DishCatalog, Profile, V> planner;
+    private final LinkedHashMap<ProfileSignature, V> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private DishCatalog catalog;
+
+    public PlanCache(int maxEntries, BiFunction<DishCatalog, Profile, V> planner) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.planner = planner;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ProfileSignature, V> eldest) {
+                if (size() > PlanCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cache of rendered HTML plans, as returned by {@link MealPlanner#selectMealsHtml(DishCatalog, Profile)}.
+     */
+    public static PlanCache<String> forHtml(int maxEntries) {
+        return new PlanCache<>(maxEntries, MealPlanner::selectMealsHtml);
+    }
+
+    public V get(DishCatalog catalog, Profile profile) {
+        ProfileSignature key = ProfileSignature.of(profile);
+        synchronized (entries) {
+            if (this.catalog != catalog) {
+                entries.clear();
+                this.catalog = catalog;
+            }
+            V cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        // Planned outside the lock; two threads missing on the same key both plan, which is harmless.
+        V planned = planner.apply(catalog, profile);
+        synchronized (entries) {
+            if (this.catalog == catalog) {
+                entries.put(key, planned);
+            }
+        }
+        return planned;
+    }
+
+    /**
+     * Drops every entry, e.g. when the dish catalog has been reloaded.
+     */
+    public void invalidate() {
+        synchronized (entries) {
+            entries.clear();
+            catalog = null;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
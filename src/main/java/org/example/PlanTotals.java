@@ -0,0 +1,132 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.Profile;
+
+import java.util.List;
+
+/**
+ * Running nutrient totals of a plan while it is assembled, checked against the profile's daily
+ * budgets (max sodium, min protein, max carbs). Dishes are added one at a time, so checking a
+ * candidate is O(1) instead of re-summing the plan.
+ * <p>
+ * Caps are hard: a dish that would push sodium or carbs over budget is never planned, even if
+ * that leaves a meal empty. Minimum protein is a goal for the snack stage.
+ */
+final class PlanTotals {
+
+    private int maxSodium;
+    private double minProtein;
+    private double maxCarbs;
+
+    private int calories;
+    private double protein;
+    private double carbs;
+    private int sodium;
+
+    /**
+     * Totals with no budgets, for pipelines that ignore them.
+     */
+    PlanTotals() {
+    }
+
+    PlanTotals(Profile profile) {
+        reset(profile);
+    }
+
+    PlanTotals(PlanTotals other) {
+        copyFrom(other);
+    }
+
+    void copyFrom(PlanTotals other) {
+        maxSodium = other.maxSodium;
+        minProtein = other.minProtein;
+        maxCarbs = other.maxCarbs;
+        calories = other.calories;
+        protein = other.protein;
+        carbs = other.carbs;
+        sodium = other.sodium;
+    }
+
+    void reset(Profile profile) {
+        reset(profile.getMaxSodium(), profile.getMinProtein(), profile.getMaxCarbs());
+    }
+
+    void reset(int maxSodium, double minProtein, double maxCarbs) {
+        this.maxSodium = maxSodium;
+        this.minProtein = minProtein;
+        this.maxCarbs = maxCarbs;
+        calories = 0;
+        protein = 0;
+        carbs = 0;
+        sodium = 0;
+    }
+
+    boolean hasBudgets() {
+        return maxSodium > 0 || minProtein > 0 || maxCarbs > 0;
+    }
+
+    boolean fits(int dishSodium, double dishCarbs) {
+        return (maxSodium <= 0 || sodium + dishSodium <= maxSodium)
+                && (maxCarbs <= 0 || carbs + dishCarbs <= maxCarbs);
+    }
+
+    boolean fits(Dish dish) {
+        return fits(dish.getSodium(), dish.getCarbs());
+    }
+
+    void add(int dishCalories, double dishProtein, double dishCarbs, int dishSodium) {
+        calories += dishCalories;
+        protein += dishProtein;
+        carbs += dishCarbs;
+        sodium += dishSodium;
+    }
+
+    void add(Dish dish) {
+        add(dish.getCalories(), dish.getProtein(), dish.getCarbs(), dish.getSodium());
+    }
+
+    /**
+     * Whether a set of snacks picked together (e.g. by {@link SnackSolver}) stays within the caps
+     * and reaches the protein goal. Takes the set's sums, added up in plan order.
+     */
+    boolean acceptsAll(double setProtein, double setCarbs, int setSodium) {
+        return fits(setSodium, setCarbs) && protein + setProtein >= minProtein;
+    }
+
+    boolean acceptsAll(List<Dish> snacks) {
+        double setProtein = 0;
+        double setCarbs = 0;
+        int setSodium = 0;
+        for (Dish d : snacks) {
+            setProtein += d.getProtein();
+            setCarbs += d.getCarbs();
+            setSodium += d.getSodium();
+        }
+        return acceptsAll(setProtein, setCarbs, setSodium);
+    }
+
+    /**
+     * Greedy snack filling under budgets stops once calories reach the band and protein its goal.
+     */
+    boolean snacksDone(double minCalories) {
+        return calories >= minCalories && protein >= minProtein;
+    }
+
+    /**
+     * Whether the greedy fill should take a snack: it must fit the caps, and once calories are
+     * met it is only taken for protein if it keeps calories at or under {@code maxCalories}.
+     */
+    boolean wantsSnack(int dishCalories, double dishCarbs, int dishSodium, double minCalories, int maxCalories) {
+        if (!fits(dishSodium, dishCarbs)) return false;
+        return calories < minCalories || calories + dishCalories <= maxCalories;
+    }
+
+    boolean wantsSnack(Dish dish, double minCalories, int maxCalories) {
+        return wantsSnack(dish.getCalories(), dish.getCarbs(), dish.getSodium(), minCalories, maxCalories);
+    }
+
+    int getCalories() {
+        return calories;
+    }
+}
@@ -0,0 +1,346 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.MealPlan;
+import org.example.entity.PlannedDish;
+import org.example.entity.Profile;
+import org.example.metrics.Fallback;
+import org.example.metrics.MetricsSink;
+import org.example.metrics.PlannerMetrics;
+import org.example.metrics.PlannerStage;
+import org.example.store.ProfileRecord;
+import org.example.utility.Vocabulary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Working state for planning against a {@link DishCatalog}. Filtering, meal selection, swaps
+ * and the snack solver all run on dish positions in bitsets and int arrays held here, so once
+ * the pool is warm the only allocations are the returned {@link MealPlan} itself. Produces the
+ * same plans as {@link MealPlanner#assignMeals}.
+ * <p>
+ * Buffers grow to the largest catalog seen and are kept. Scratches are borrowed from a shared
+ * pool ({@link #acquire}, {@link #release}) rather than tied to a thread, so short-lived
+ * threads such as the server's virtual thread per request reuse them too.
+ */
+final class PlanningScratch {
+
+    // Idle scratches, most recently released first; bounded so a burst of planners pins no memory
+    private static final Deque<PlanningScratch> POOL = new ConcurrentLinkedDeque<>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
+    private static final int MAX_POOLED = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+
+    private static final int BREAKFAST = 0;
+    private static final int LUNCH = 1;
+    private static final int DINNER = 2;
+    private static final int SNACK = 3;
+    private static final String[] MAIN_MEALS = {"breakfast", "lunch", "dinner"};
+    private static final String[] MEAL_NAMES = {"breakfast", "lunch", "dinner", "snack"};
+    // Where to borrow a dish from when a main meal has no candidates, in order
+    private static final int[][] SWAP_SOURCES = {
+            {LUNCH, DINNER, SNACK},
+            {BREAKFAST, DINNER, SNACK},
+            {LUNCH, BREAKFAST, SNACK}
+    };
+
+    private final BitSet candidates = new BitSet();
+    private final BitSet work = new BitSet();
+    // Canonical positions of planned dishes, and of snacks offered to the solver
+    private final BitSet used = new BitSet();
+    private final BitSet offered = new BitSet();
+    private final PlanTotals totals = new PlanTotals();
+    private final int[] mainSlots = new int[3];
+    private int[] snackSlots = new int[16];
+    private int snackCount;
+
+    private final SnackSolver.Workspace solverWorkspace = new SnackSolver.Workspace();
+    private int[] solverItems = new int[0];
+    private int[] solverCalories = new int[0];
+    private double[] solverValues = new double[0];
+    private int[] solverChosen = new int[0];
+
+    /**
+     * An idle scratch from the pool, or a new one. Hand it back with {@link #release} when the
+     * plan is done; plans already returned do not reference it.
+     */
+    static PlanningScratch acquire() {
+        PlanningScratch scratch = POOL.pollFirst();
+        if (scratch == null) return new PlanningScratch();
+        POOLED.decrementAndGet();
+        return scratch;
+    }
+
+    void release() {
+        if (POOLED.incrementAndGet() <= MAX_POOLED) {
+            POOL.offerFirst(this);
+        } else {
+            POOLED.decrementAndGet();
+        }
+    }
+
+    /**
+     * Candidates and main meals for a group of profiles that differ at most in calorie target
+     * (see {@link ProfileSignature#cohortOf}); {@link #plan(Mains, Profile)} adds each one's snacks.
+     */
+    static final class Mains {
+        final DishCatalog catalog;
+        final DishCatalog.Ranking ranking;
+        final int signature;
+        final BitSet candidates;
+        final int[] slots;
+        final PlanTotals totals;
+
+        private Mains(DishCatalog catalog, DishCatalog.Ranking ranking, int signature, BitSet candidates, int[] slots,
+                      PlanTotals totals) {
+            this.catalog = catalog;
+            this.ranking = ranking;
+            this.signature = signature;
+            this.candidates = candidates;
+            this.slots = slots;
+            this.totals = totals;
+        }
+    }
+
+    MealPlan plan(DishCatalog catalog, Profile profile) {
+        long start = System.nanoTime();
+        DishCatalog.Ranking ranking = selectMains(catalog, profile);
+        long selected = System.nanoTime();
+        addSnacks(catalog, ranking, profile.getCalorieTarget(), profile.getPreferenceMask());
+        long end = System.nanoTime();
+
+        MetricsSink metrics = PlannerMetrics.sink();
+        metrics.stage(PlannerStage.SNACKS, end - selected);
+        metrics.stage(PlannerStage.PLAN, end - start);
+        return toMealPlan(catalog);
+    }
+
+    /**
+     * {@link #plan(DishCatalog, Profile)} for a profile read in place from an off-heap store.
+     */
+    MealPlan plan(DishCatalog catalog, ProfileRecord profile) {
+        long start = System.nanoTime();
+        Map<String, Double> weights = profile.getPreferenceWeights();
+        DishCatalog.Ranking ranking = weights == null ? catalog.ranking() : catalog.ranking(ScoringRules.of(weights));
+        int signature = profile.getPreferenceMask();
+        long allergenMask = profile.getAllergenMask();
+        long regionMask = profile.getRegionMask();
+        catalog.filterInto(allergenMask, (allergenMask & Vocabulary.OVERFLOW) != 0 ? profile.getExcludeAllergens() : null,
+                profile.getDietCode(), regionMask, (regionMask & Vocabulary.OVERFLOW) != 0 ? profile.getPreferredRegions() : null,
+                signature, ranking, candidates, work);
+        ranking = ranking.within(signature, candidates);
+        totals.reset(profile.getMaxSodium(), profile.getMinProtein(), profile.getMaxCarbs());
+        selectMains(catalog, ranking, signature, start);
+        long selected = System.nanoTime();
+        addSnacks(catalog, ranking, profile.getCalorieTarget(), signature);
+        long end = System.nanoTime();
+
+        MetricsSink metrics = PlannerMetrics.sink();
+        metrics.stage(PlannerStage.SNACKS, end - selected);
+        metrics.stage(PlannerStage.PLAN, end - start);
+        return toMealPlan(catalog);
+    }
+
+    /**
+     * Runs filtering and main meal selection and keeps a copy of the result.
+     */
+    Mains planMains(DishCatalog catalog, Profile profile) {
+        DishCatalog.Ranking ranking = selectMains(catalog, profile);
+        return new Mains(catalog, ranking, profile.getPreferenceMask(), (BitSet) candidates.clone(), mainSlots.clone(),
+                new PlanTotals(totals));
+    }
+
+    /**
+     * Finishes a plan from shared main meals; the same plan {@link #plan(DishCatalog, Profile)}
+     * returns for a profile of that cohort.
+     */
+    MealPlan plan(Mains mains, Profile profile) {
+        long start = System.nanoTime();
+        DishCatalog catalog = mains.catalog;
+        candidates.clear();
+        candidates.or(mains.candidates);
+        used.clear();
+        for (int meal = BREAKFAST; meal <= DINNER; meal++) {
+            mainSlots[meal] = mains.slots[meal];
+            if (mainSlots[meal] >= 0) used.set(catalog.canonical(mainSlots[meal]));
+        }
+        totals.copyFrom(mains.totals);
+        snackCount = 0;
+        addSnacks(catalog, mains.ranking, profile.getCalorieTarget(), mains.signature);
+        long end = System.nanoTime();
+
+        MetricsSink metrics = PlannerMetrics.sink();
+        metrics.stage(PlannerStage.SNACKS, end - start);
+        metrics.stage(PlannerStage.PLAN, end - start);
+        return toMealPlan(catalog);
+    }
+
+    // Filters and picks the main meals into this scratch; returns the ranking used for the candidates
+    private DishCatalog.Ranking selectMains(DishCatalog catalog, Profile profile) {
+        long start = System.nanoTime();
+        int signature = profile.getPreferenceMask();
+        DishCatalog.Ranking ranking = catalog.ranking(profile);
+        catalog.filterInto(profile.getAllergenMask(), profile.getExcludeAllergens(), profile.getDietCode(),
+                profile.getRegionMask(), profile.getPreferredRegions(), signature, ranking, candidates, work);
+        ranking = ranking.within(signature, candidates);
+        totals.reset(profile);
+        selectMains(catalog, ranking, signature, start);
+        return ranking;
+    }
+
+    // Picks the main meals from the candidates, with totals already reset for the profile
+    private void selectMains(DishCatalog catalog, DishCatalog.Ranking ranking, int signature, long start) {
+        long filtered = System.nanoTime();
+        DishColumns columns = catalog.columns();
+        used.clear();
+        snackCount = 0;
+
+        for (int meal = BREAKFAST; meal <= DINNER; meal++) {
+            int dish = firstCandidate(ranking.ranked(signature, meal), false, catalog);
+            mainSlots[meal] = dish;
+            if (dish >= 0) {
+                used.set(catalog.canonical(dish));
+                addToTotals(columns, dish);
+            }
+        }
+        for (int meal = BREAKFAST; meal <= DINNER; meal++) {
+            if (mainSlots[meal] >= 0) continue;
+            for (int source : SWAP_SOURCES[meal]) {
+                int dish = firstCandidate(ranking.ranked(signature, source), true, catalog);
+                if (dish >= 0) {
+                    mainSlots[meal] = dish;
+                    used.set(catalog.canonical(dish));
+                    addToTotals(columns, dish);
+                    PlannerMetrics.fallback(Fallback.MEAL_SWAPPED);
+                    if (PlannerMetrics.isInfoEnabled()) {
+                        PlannerMetrics.info("Swapped '" + catalog.get(dish).getName() + "' from " + MEAL_NAMES[source]
+                                + " to fill " + MAIN_MEALS[meal]);
+                    }
+                    break;
+                }
+            }
+            if (mainSlots[meal] < 0) {
+                PlannerMetrics.fallback(Fallback.MEAL_UNFILLED);
+                if (PlannerMetrics.isInfoEnabled()) PlannerMetrics.info("Could not fill missing meal: " + MAIN_MEALS[meal]);
+            }
+        }
+        long selected = System.nanoTime();
+
+        MetricsSink metrics = PlannerMetrics.sink();
+        metrics.stage(PlannerStage.FILTER, filtered - start);
+        metrics.stage(PlannerStage.MEALS, selected - filtered);
+    }
+
+    private int firstCandidate(int[] ranked, boolean skipUsed, DishCatalog catalog) {
+        DishColumns columns = catalog.columns();
+        for (int dish : ranked) {
+            if (candidates.get(dish) && !(skipUsed && used.get(catalog.canonical(dish)))
+                    && totals.fits(columns.sodium[dish], columns.carbs[dish])) {
+                return dish;
+            }
+        }
+        return -1;
+    }
+
+    private void addToTotals(DishColumns columns, int dish) {
+        totals.add(columns.calories[dish], columns.protein[dish], columns.carbs[dish], columns.sodium[dish]);
+    }
+
+    // Mirrors MealPlanner.chooseSnacks: knapsack first, greedy if it gives up or breaks a budget
+    private void addSnacks(DishCatalog catalog, DishCatalog.Ranking ranking, int target, int signature) {
+        SnackSolver solver = SnackSolver.DEFAULT;
+        DishColumns columns = catalog.columns();
+        int calories = totals.getCalories();
+        int lo = solver.lowerGap(target, calories);
+        int hi = solver.upperGap(target, calories);
+        int[] ranked = ranking.ranked(signature, SNACK);
+
+        int count = 0;
+        if (lo > 0) {
+            int limit = solver.getMaxCandidates();
+            ensureSolverCapacity(limit);
+            int k = 0;
+            offered.clear();
+            for (int dish : ranked) {
+                if (k == limit) break;
+                int dishCalories = columns.calories[dish];
+                int canonical = catalog.canonical(dish);
+                if (candidates.get(dish) && dishCalories > 0 && dishCalories <= hi
+                        && totals.fits(columns.sodium[dish], columns.carbs[dish])
+                        && !used.get(canonical) && !offered.get(canonical)) {
+                    offered.set(canonical);
+                    solverItems[k] = dish;
+                    solverCalories[k] = dishCalories;
+                    solverValues[k] = ranking.score(signature, dish);
+                    k++;
+                }
+            }
+            count = solver.solve(solverCalories, solverValues, k, lo, hi, target - calories, solverWorkspace, solverChosen);
+        }
+        if (count >= 0) {
+            double protein = 0;
+            double carbs = 0;
+            int sodium = 0;
+            for (int i = 0; i < count; i++) {
+                int dish = solverItems[solverChosen[i]];
+                protein += columns.protein[dish];
+                carbs += columns.carbs[dish];
+                sodium += columns.sodium[dish];
+            }
+            if (totals.acceptsAll(protein, carbs, sodium)) {
+                for (int i = 0; i < count; i++) {
+                    int dish = solverItems[solverChosen[i]];
+                    addSnack(catalog, dish);
+                    addToTotals(columns, dish);
+                }
+                return;
+            }
+        }
+
+        PlannerMetrics.fallback(Fallback.GREEDY_SNACKS);
+        double minCalories = target * 0.9;
+        int maxCalories = calories + hi;
+        for (int dish : ranked) {
+            if (totals.snacksDone(minCalories)) break;
+            if (candidates.get(dish) && !used.get(catalog.canonical(dish))
+                    && totals.wantsSnack(columns.calories[dish], columns.carbs[dish], columns.sodium[dish], minCalories, maxCalories)) {
+                addSnack(catalog, dish);
+                addToTotals(columns, dish);
+            }
+        }
+    }
+
+    private void addSnack(DishCatalog catalog, int dish) {
+        if (snackCount == snackSlots.length) snackSlots = Arrays.copyOf(snackSlots, snackCount * 2);
+        snackSlots[snackCount++] = dish;
+        used.set(catalog.canonical(dish));
+    }
+
+    private void ensureSolverCapacity(int k) {
+        if (solverItems.length < k) {
+            solverItems = new int[k];
+            solverCalories = new int[k];
+            solverValues = new double[k];
+            solverChosen = new int[k];
+        }
+    }
+
+    private MealPlan toMealPlan(DishCatalog catalog) {
+        List<PlannedDish> mainMeals = new ArrayList<>(3);
+        for (int meal = BREAKFAST; meal <= DINNER; meal++) {
+            if (mainSlots[meal] >= 0) mainMeals.add(new PlannedDish(catalog.get(mainSlots[meal]), MAIN_MEALS[meal]));
+        }
+        List<PlannedDish> snacks = new ArrayList<>(snackCount);
+        for (int i = 0; i < snackCount; i++) {
+            Dish dish = catalog.get(snackSlots[i]);
+            snacks.add(new PlannedDish(dish, "snack"));
+        }
+        return new MealPlan(mainMeals, snacks);
+    }
+}
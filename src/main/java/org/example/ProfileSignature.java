@@ -0,0 +1,88 @@
+package org.example;
+
+import org.example.entity.Diet;
+import org.example.entity.Profile;
+
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Canonical form of the profile fields that affect a meal plan. Two profiles with equal
+ * signatures get identical plans; age and the raw diet spelling are deliberately left out.
+ */
+public final class ProfileSignature {
+
+    private final int calorieTarget;
+    private final Diet diet;
+    private final int preferences;
+    private final long allergenMask;
+    private final long regionMask;
+    private final int maxSodium;
+    private final double minProtein;
+    private final double maxCarbs;
+    private final Set<String> excludeAllergens;
+    private final Set<String> preferredRegions;
+    private final ScoringRules scoring;
+    private final int hash;
+
+    private ProfileSignature(Profile profile, int calorieTarget) {
+        this.calorieTarget = calorieTarget;
+        this.diet = profile.getDietCode();
+        this.preferences = profile.getPreferenceMask();
+        this.allergenMask = profile.getAllergenMask();
+        this.regionMask = profile.getRegionMask();
+        this.maxSodium = profile.getMaxSodium();
+        this.minProtein = profile.getMinProtein();
+        this.maxCarbs = profile.getMaxCarbs();
+        this.excludeAllergens = profile.getExcludeAllergens() == null ? Set.of() : Set.copyOf(profile.getExcludeAllergens());
+        this.preferredRegions = profile.getPreferredRegions() == null ? Set.of() : Set.copyOf(profile.getPreferredRegions());
+        this.scoring = ScoringRules.of(profile);
+        this.hash = Objects.hash(calorieTarget, diet, preferences, allergenMask, regionMask, maxSodium, minProtein, maxCarbs)
+                * 31 + scoring.hashCode();
+    }
+
+    public static ProfileSignature of(Profile profile) {
+        return new ProfileSignature(profile, profile.getCalorieTarget());
+    }
+
+    /**
+     * Signature without the calorie target, which only matters once snacks are added. Profiles
+     * with equal cohort signatures get the same candidates and main meals.
+     */
+    public static ProfileSignature cohortOf(Profile profile) {
+        return new ProfileSignature(profile, 0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProfileSignature)) return false;
+        ProfileSignature that = (ProfileSignature) o;
+        return hash == that.hash
+                && calorieTarget == that.calorieTarget
+                && diet == that.diet
+                && preferences == that.preferences
+                && allergenMask == that.allergenMask
+                && regionMask == that.regionMask
+                && maxSodium == that.maxSodium
+                && Double.compare(minProtein, that.minProtein) == 0
+                && Double.compare(maxCarbs, that.maxCarbs) == 0
+                && excludeAllergens.equals(that.excludeAllergens)
+                && preferredRegions.equals(that.preferredRegions)
+                && scoring.equals(that.scoring);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "ProfileSignature{calorieTarget=" + calorieTarget + ", diet=" + diet + ", preferences=" + preferences
+                + ", excludeAllergens=" + excludeAllergens + ", preferredRegions=" + preferredRegions
+                + (maxSodium > 0 || minProtein > 0 || maxCarbs > 0
+                ? ", maxSodium=" + maxSodium + ", minProtein=" + minProtein + ", maxCarbs=" + maxCarbs : "")
+                + (scoring != ScoringRules.defaults() ? ", scoring=" + scoring : "") + "}";
+    }
+}
@@ -0,0 +1,294 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.Preference;
+import org.example.entity.Profile;
+import org.example.metrics.PlannerMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scoring and filtering rules for the nutrition preferences. Each {@link Preference} has one
+ * rule: the nutrient it reads, a score term (the nutrient times a weight, or with a cap, how far
+ * the nutrient is under the cap times the weight) and the threshold a dish must meet while the
+ * preference is strict. The built-in rules are the planner's original ones.
+ * <p>
+ * A rule set is compiled into flat per-preference arrays. {@link DishColumns#scores} applies
+ * them to a whole nutrient column at a time, and {@link DishCatalog} ranks dishes once per rule
+ * set, so tuned rules plan as fast as the built-in ones. Rule sets are immutable and compare by
+ * value.
+ * <p>
+ * Rules are read from a properties file, one group of keys per preference, for example
+ * <pre>
+ * low_carb.nutrient = carbs
+ * low_carb.weight = 1
+ * low_carb.cap = 50
+ * low_carb.max = 25
+ * </pre>
+ * {@code min} keeps dishes with at least that much of the nutrient and {@code max} dishes with
+ * less. A preference missing from the file keeps its built-in rule. The {@code planner.scoring}
+ * system property names the file for the default rule set; profiles can still override the
+ * weights one by one ({@link Profile#getPreferenceWeights()}).
+ */
+public final class ScoringRules {
+
+    /**
+     * Nutrients a rule can read, by their column in {@link DishColumns}.
+     */
+    public enum Nutrient {
+        CALORIES,
+        PROTEIN,
+        FIBER,
+        CARBS,
+        SODIUM;
+
+        double of(Dish dish) {
+            switch (this) {
+                case CALORIES: return dish.getCalories();
+                case PROTEIN: return dish.getProtein();
+                case FIBER: return dish.getFiber();
+                case CARBS: return dish.getCarbs();
+                default: return dish.getSodium();
+            }
+        }
+
+        static Nutrient of(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown nutrient: " + name);
+            }
+        }
+    }
+
+    public static final ScoringRules BUILT_IN = new ScoringRules(
+            new Nutrient[]{Nutrient.PROTEIN, Nutrient.FIBER, Nutrient.CARBS},
+            new double[]{Preference.HIGH_PROTEIN.weight(), Preference.HIGH_FIBER.weight(), Preference.LOW_CARB.weight()},
+            new double[]{Double.NaN, Double.NaN, 50},
+            new double[]{15, 5, Double.NaN},
+            new double[]{Double.NaN, Double.NaN, 25});
+
+    // Distinct per-profile weight sets worth keeping; beyond this they are compiled per plan
+    private static final int MAX_CACHED_WEIGHTS = 1024;
+    private static final Map<Map<String, Double>, ScoringRules> WEIGHTED = new ConcurrentHashMap<>();
+
+    // Indexed by Preference ordinal; NaN means no cap, no minimum or no maximum
+    final Nutrient[] nutrient;
+    final double[] weight;
+    final double[] cap;
+    final double[] min;
+    final double[] max;
+    private final int hash;
+
+    private ScoringRules(Nutrient[] nutrient, double[] weight, double[] cap, double[] min, double[] max) {
+        this.nutrient = nutrient;
+        this.weight = weight;
+        this.cap = cap;
+        this.min = min;
+        this.max = max;
+        this.hash = 31 * (31 * (31 * (31 * Arrays.hashCode(nutrient) + Arrays.hashCode(weight)) + Arrays.hashCode(cap))
+                + Arrays.hashCode(min)) + Arrays.hashCode(max);
+    }
+
+    /**
+     * The rule set catalogs rank by: the file named by {@code planner.scoring}, or the built-in
+     * rules if the property is unset or the file cannot be read.
+     */
+    public static ScoringRules defaults() {
+        return Defaults.RULES;
+    }
+
+    private static final class Defaults {
+        static final ScoringRules RULES = loadDefaults(System.getProperty("planner.scoring"));
+    }
+
+    private static ScoringRules loadDefaults(String file) {
+        if (file == null || file.isEmpty()) return BUILT_IN;
+        try {
+            ScoringRules rules = load(Path.of(file));
+            PlannerMetrics.info("Loaded scoring rules from " + file);
+            return rules;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error loading scoring rules, using the built-in rules: " + e.getMessage());
+            return BUILT_IN;
+        }
+    }
+
+    public static ScoringRules load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        return parse(properties);
+    }
+
+    /**
+     * Rules from {@code <preference>.<field>} properties on top of the built-in rules.
+     *
+     * @throws IllegalArgumentException for an unknown preference, nutrient or field, or a value
+     *                                  that is not a finite number
+     */
+    public static ScoringRules parse(Properties properties) {
+        Nutrient[] nutrient = BUILT_IN.nutrient.clone();
+        double[] weight = BUILT_IN.weight.clone();
+        double[] cap = BUILT_IN.cap.clone();
+        double[] min = BUILT_IN.min.clone();
+        double[] max = BUILT_IN.max.clone();
+        for (String name : properties.stringPropertyNames()) {
+            int dot = name.lastIndexOf('.');
+            Preference preference = dot < 0 ? null : Preference.of(name.substring(0, dot));
+            if (preference == null) throw new IllegalArgumentException("Unknown scoring rule: " + name);
+            int p = preference.ordinal();
+            String value = properties.getProperty(name).trim();
+            switch (name.substring(dot + 1)) {
+                case "nutrient":
+                    nutrient[p] = Nutrient.of(value);
+                    break;
+                case "weight":
+                    weight[p] = number(name, value);
+                    break;
+                case "cap":
+                    cap[p] = value.isEmpty() ? Double.NaN : number(name, value);
+                    break;
+                case "min":
+                    min[p] = value.isEmpty() ? Double.NaN : number(name, value);
+                    break;
+                case "max":
+                    max[p] = value.isEmpty() ? Double.NaN : number(name, value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown scoring rule: " + name);
+            }
+        }
+        return new ScoringRules(nutrient, weight, cap, min, max);
+    }
+
+    private static double number(String name, String value) {
+        double number;
+        try {
+            number = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a number: " + value);
+        }
+        if (!Double.isFinite(number)) throw new IllegalArgumentException(name + " must be finite: " + value);
+        return number;
+    }
+
+    /**
+     * These rules with some weights replaced, keyed by preference; unknown keys are ignored.
+     */
+    public ScoringRules withWeights(Map<String, Double> weights) {
+        double[] tuned = weight.clone();
+        for (Preference preference : Preference.values()) {
+            Double w = weights.get(preference.key());
+            if (w != null) tuned[preference.ordinal()] = w;
+        }
+        return Arrays.equals(tuned, weight) ? this : new ScoringRules(nutrient, tuned, cap, min, max);
+    }
+
+    /**
+     * The rules a profile is planned with: the default rules, with the profile's own weights
+     * if it has any.
+     */
+    public static ScoringRules of(Profile profile) {
+        return of(profile.getPreferenceWeights());
+    }
+
+    /**
+     * The default rules with these weights, keyed by preference; null or empty gives the
+     * defaults themselves.
+     */
+    public static ScoringRules of(Map<String, Double> weights) {
+        if (weights == null || weights.isEmpty()) return defaults();
+        ScoringRules rules = WEIGHTED.get(weights);
+        if (rules == null) {
+            rules = defaults().withWeights(weights);
+            if (WEIGHTED.size() < MAX_CACHED_WEIGHTS) WEIGHTED.putIfAbsent(Map.copyOf(weights), rules);
+        }
+        return rules;
+    }
+
+    /**
+     * Score of a dish under a preference mask: the terms of the preferences in the mask, added
+     * in preference order.
+     */
+    public double score(Dish dish, int preferenceMask) {
+        double score = 0;
+        for (int p = 0; p < nutrient.length; p++) {
+            if ((preferenceMask & (1 << p)) != 0) score += term(p, nutrient[p].of(dish));
+        }
+        return score;
+    }
+
+    double term(int p, double value) {
+        return Double.isNaN(cap[p]) ? value * weight[p] : Math.max(0, cap[p] - value) * weight[p];
+    }
+
+    /**
+     * Whether a dish meets the thresholds of every preference in the mask.
+     */
+    public boolean accepts(Dish dish, int preferenceMask) {
+        for (int p = 0; p < nutrient.length; p++) {
+            if ((preferenceMask & (1 << p)) != 0 && !meets(p, nutrient[p].of(dish))) return false;
+        }
+        return true;
+    }
+
+    boolean meets(int p, double value) {
+        return !(value < min[p]) && !(value >= max[p]);
+    }
+
+    // Whether preference p filters dishes the same way under both rule sets
+    boolean sameThreshold(ScoringRules other, int p) {
+        return nutrient[p] == other.nutrient[p]
+                && Double.compare(min[p], other.min[p]) == 0
+                && Double.compare(max[p], other.max[p]) == 0;
+    }
+
+    public Nutrient nutrient(Preference preference) {
+        return nutrient[preference.ordinal()];
+    }
+
+    public double weight(Preference preference) {
+        return weight[preference.ordinal()];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ScoringRules)) return false;
+        ScoringRules that = (ScoringRules) o;
+        return hash == that.hash
+                && Arrays.equals(nutrient, that.nutrient)
+                && Arrays.equals(weight, that.weight)
+                && Arrays.equals(cap, that.cap)
+                && Arrays.equals(min, that.min)
+                && Arrays.equals(max, that.max);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("ScoringRules{");
+        for (Preference preference : Preference.values()) {
+            int p = preference.ordinal();
+            if (p > 0) out.append(", ");
+            out.append(preference.key()).append('=').append(nutrient[p].name().toLowerCase()).append(" x").append(weight[p]);
+            if (!Double.isNaN(cap[p])) out.append(" under ").append(cap[p]);
+            if (!Double.isNaN(min[p])) out.append(", min ").append(min[p]);
+            if (!Double.isNaN(max[p])) out.append(", max ").append(max[p]);
+        }
+        return out.append('}').toString();
+    }
+}
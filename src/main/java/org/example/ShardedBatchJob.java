@@ -0,0 +1,299 @@
+package org.example;
+
+import org.example.entity.MealPlan;
+import org.example.entity.Profile;
+import org.example.utility.profileLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Plans a profile CSV as a resumable job. The records after the header are split into byte
+ * ranges on line boundaries (shards), shards are planned in parallel, and each one writes its
+ * own report part plus a checkpoint once the part is safely on disk. Running the job again with
+ * the same work directory skips every shard with a checkpoint, so a crash only costs the shards
+ * that were in progress. The parts are merged into the report at the end.
+ * <p>
+ * The work directory also holds a manifest with the shard ranges and the number of profiles in
+ * each, so profiles are numbered exactly as in a single pass and a restart does not split the
+ * file again. A job refuses to resume if the profile file or the number of days changed; plans
+ * in completed parts are not redone when only the dish file changed.
+ */
+public class ShardedBatchJob {
+
+    static final String MANIFEST = "job.properties";
+    // Small enough that a lost shard is a few minutes of work
+    private static final long TARGET_SHARD_BYTES = 16L << 20;
+    private static final int PLAN_CACHE_SIZE = 100_000;
+
+    private final Supplier<DishCatalog> catalogs;
+    private final Path workDir;
+    private final int parallelism;
+    private final int days;
+    private final int shards;
+    private final PlanCache<MealPlan> daily = new PlanCache<>(PLAN_CACHE_SIZE, MealPlanner::planMeals);
+    private final PlanCache<List<MealPlan>> multiDay;
+
+    /**
+     * @param shards number of shards for a new job, or 0 to pick one from the file size; a
+     *               resumed job keeps the split from its manifest
+     */
+    public ShardedBatchJob(Supplier<DishCatalog> catalogs, Path workDir, int parallelism, int days, int shards) {
+        this.catalogs = catalogs;
+        this.workDir = workDir;
+        this.parallelism = Math.max(1, parallelism);
+        this.days = Math.max(1, days);
+        this.shards = shards;
+        this.multiDay = new PlanCache<>(PLAN_CACHE_SIZE, (c, profile) -> MultiDayPlanner.planDays(c, profile, this.days));
+    }
+
+    public static class Result {
+        public final int shards;
+        public final int resumedShards;
+        public final long profiles;
+        public final long plannedProfiles;
+        public final long elapsedNanos;
+
+        Result(int shards, int resumedShards, long profiles, long plannedProfiles, long elapsedNanos) {
+            this.shards = shards;
+            this.resumedShards = resumedShards;
+            this.profiles = profiles;
+            this.plannedProfiles = plannedProfiles;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            return String.format("%d profiles in %d shards (%d resumed); planned %d in %.1fs (%.1f profiles/s)",
+                    profiles, shards, resumedShards, plannedProfiles, seconds,
+                    seconds > 0 ? plannedProfiles / seconds : 0);
+        }
+    }
+
+    // One shard: records starting in [start, end), numbered from first
+    static final class Shard {
+        final int id;
+        final long start;
+        final long end;
+        final long first;
+        final long profiles;
+
+        Shard(int id, long start, long end, long first, long profiles) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.first = first;
+            this.profiles = profiles;
+        }
+    }
+
+    /**
+     * Plans every shard without a checkpoint, then writes the merged report to {@code output}.
+     * If any shard fails the others still finish and checkpoint, and the report is not written;
+     * run again to retry just the failed shards.
+     */
+    public Result run(String profileFile, String output) throws IOException {
+        long started = System.nanoTime();
+        Files.createDirectories(workDir);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "shard-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Shard> plan = loadOrCreateManifest(profileFile, pool);
+            List<Shard> pending = new ArrayList<>();
+            for (Shard shard : plan) {
+                if (!isComplete(shard)) pending.add(shard);
+            }
+            System.out.println("Planning " + pending.size() + " of " + plan.size() + " shards in " + workDir);
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (Shard shard : pending) {
+                futures.add(pool.submit(() -> {
+                    planShard(profileFile, shard);
+                    return null;
+                }));
+            }
+            int failed = 0;
+            Throwable firstError = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    if (firstError == null) firstError = e.getCause();
+                }
+            }
+            if (failed > 0) {
+                throw new IOException(failed + " of " + plan.size() + " shards failed, run again to resume: "
+                        + firstError.getMessage(), firstError);
+            }
+
+            long planned = 0;
+            for (Shard shard : pending) planned += shard.profiles;
+            try (HtmlReportWriter report = HtmlReportWriter.open(output)) {
+                for (Shard shard : plan) report.appendPart(partPath(shard));
+            }
+            Shard last = plan.get(plan.size() - 1);
+            return new Result(plan.size(), plan.size() - pending.size(), last.first + last.profiles, planned,
+                    System.nanoTime() - started);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted; completed shards are kept in " + workDir, e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void planShard(String profileFile, Shard shard) throws IOException {
+        Path part = partPath(shard);
+        long index = shard.first;
+        try (Stream<Profile> profiles = profileLoader.streamProfilesFromCSV(profileFile, shard.start, shard.end);
+             HtmlReportWriter writer = HtmlReportWriter.openPart(part)) {
+            Iterator<Profile> it = profiles.iterator();
+            while (it.hasNext()) {
+                Profile profile = it.next();
+                if (days > 1) {
+                    writer.writeSection(index++, profile, multiDay.get(catalogs.get(), profile));
+                } else {
+                    writer.writeSection(index++, profile, daily.get(catalogs.get(), profile));
+                }
+            }
+        }
+        if (index - shard.first != shard.profiles) {
+            throw new IOException("Shard " + shard.id + " has " + (index - shard.first)
+                    + " profiles, the manifest expected " + shard.profiles);
+        }
+        // The checkpoint must never be on disk before the part it vouches for
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("profiles", Long.toString(shard.profiles));
+        checkpoint.setProperty("bytes", Long.toString(Files.size(part)));
+        writeAtomically(checkpointPath(shard), checkpoint);
+        System.out.println("Shard " + (shard.id + 1) + " done: " + shard.profiles + " profiles");
+    }
+
+    private boolean isComplete(Shard shard) throws IOException {
+        Path checkpoint = checkpointPath(shard);
+        Path part = partPath(shard);
+        if (!Files.isRegularFile(checkpoint) || !Files.isRegularFile(part)) return false;
+        Properties done = read(checkpoint);
+        return Long.toString(Files.size(part)).equals(done.getProperty("bytes"));
+    }
+
+    private List<Shard> loadOrCreateManifest(String profileFile, ExecutorService pool)
+            throws IOException, InterruptedException {
+        Path input = Path.of(profileFile).toAbsolutePath().normalize();
+        Path manifestPath = workDir.resolve(MANIFEST);
+        if (Files.isRegularFile(manifestPath)) {
+            Properties manifest = read(manifestPath);
+            String mismatch = null;
+            if (!input.toString().equals(manifest.getProperty("input"))) mismatch = "another profile file";
+            else if (!Long.toString(Files.size(input)).equals(manifest.getProperty("input.size"))
+                    || !Long.toString(Files.getLastModifiedTime(input).toMillis()).equals(manifest.getProperty("input.modified"))) {
+                mismatch = "the profile file has changed";
+            } else if (!Integer.toString(days).equals(manifest.getProperty("days"))) mismatch = "a different number of days";
+            if (mismatch != null) {
+                throw new IOException("Work directory " + workDir + " holds a job for " + mismatch
+                        + "; remove it or use another one");
+            }
+            return parseShards(manifest);
+        }
+
+        int count = shards > 0 ? shards
+                : (int) Math.max(parallelism * 4L, Math.min(100_000, Files.size(input) / TARGET_SHARD_BYTES + 1));
+        long[] offsets = profileLoader.shardOffsets(profileFile, count);
+        // Counting is a parse of the whole file, but far cheaper than planning it
+        List<Future<Long>> counts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long start = offsets[i];
+            long end = offsets[i + 1];
+            counts.add(pool.submit(() -> profileLoader.countProfiles(profileFile, start, end)));
+        }
+        Properties manifest = new Properties();
+        manifest.setProperty("input", input.toString());
+        manifest.setProperty("input.size", Long.toString(Files.size(input)));
+        manifest.setProperty("input.modified", Long.toString(Files.getLastModifiedTime(input).toMillis()));
+        manifest.setProperty("days", Integer.toString(days));
+        manifest.setProperty("shards", Integer.toString(count));
+        long first = 0;
+        for (int i = 0; i < count; i++) {
+            long profiles;
+            try {
+                profiles = counts.get(i).get();
+            } catch (ExecutionException e) {
+                throw new IOException("Could not split " + profileFile + ": " + e.getCause().getMessage(), e.getCause());
+            }
+            manifest.setProperty("shard." + i, offsets[i] + "," + offsets[i + 1] + "," + first + "," + profiles);
+            first += profiles;
+        }
+        // Parts left over from an earlier job in the same directory must not count as done
+        for (int i = 0; i < count; i++) Files.deleteIfExists(checkpointPath(i));
+        writeAtomically(manifestPath, manifest);
+        return parseShards(manifest);
+    }
+
+    private static List<Shard> parseShards(Properties manifest) throws IOException {
+        List<Shard> shards = new ArrayList<>();
+        try {
+            int count = Integer.parseInt(manifest.getProperty("shards"));
+            for (int i = 0; i < count; i++) {
+                String[] fields = manifest.getProperty("shard." + i).split(",");
+                shards.add(new Shard(i, Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                        Long.parseLong(fields[2]), Long.parseLong(fields[3])));
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt job manifest: " + e.getMessage(), e);
+        }
+        if (shards.isEmpty()) throw new IOException("Job manifest has no shards");
+        return shards;
+    }
+
+    Path partPath(Shard shard) {
+        return workDir.resolve(String.format("part-%05d.html", shard.id));
+    }
+
+    private Path checkpointPath(Shard shard) {
+        return checkpointPath(shard.id);
+    }
+
+    private Path checkpointPath(int shard) {
+        return workDir.resolve(String.format("part-%05d.done", shard));
+    }
+
+    private static Properties read(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    private static void writeAtomically(Path path, Properties properties) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            properties.store(out, null);
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.entity;
+
+/**
+ * Diet codes, normalized once when a profile is loaded.
+ */
+public enum Diet {
+    VEGETARIAN,
+    VEGAN,
+    PESCATARIAN,
+    OMNIVORE;
+
+    /**
+     * Case-insensitive lookup; anything unrecognised (including null) plans as omnivore.
+     */
+    public static Diet of(String diet) {
+        if (diet == null) return OMNIVORE;
+        switch (diet.trim().toLowerCase()) {
+            case "vegetarian": return VEGETARIAN;
+            case "vegan": return VEGAN;
+            case "pescatarian": return PESCATARIAN;
+            default: return OMNIVORE;
+        }
+    }
+}
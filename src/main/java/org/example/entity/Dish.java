@@ -1,12 +1,15 @@
 package org.example.entity;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
+import org.example.utility.Vocabulary;
 
 import java.util.Set;
 
 @Data
-@AllArgsConstructor
 public class Dish {
     private String name;
     private int calories;
@@ -20,6 +23,44 @@ public class Dish {
     private boolean isVegetarian;
     private boolean isVegan;
 
+    // Codes derived from the fields above, kept in sync by the constructor and setters.
+    @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude @ToString.Exclude
+    private MealType mealTypeCode = MealType.OTHER;
+    @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude @ToString.Exclude
+    private long allergenMask;
+    @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude @ToString.Exclude
+    private long regionMask;
+
+    public Dish(String name, int calories, Set<String> allergens, double protein, double fiber, double carbs, int sodium,
+                String mealType, Set<String> availabilityRegions, boolean isVegetarian, boolean isVegan) {
+        this.name = name;
+        this.calories = calories;
+        this.protein = protein;
+        this.fiber = fiber;
+        this.carbs = carbs;
+        this.sodium = sodium;
+        this.isVegetarian = isVegetarian;
+        this.isVegan = isVegan;
+        setAllergens(allergens);
+        setMealType(mealType);
+        setAvailabilityRegions(availabilityRegions);
+    }
+
     public Dish(String name, String mealType, int calories, int protein, int fiber, int carbs, Set<String> allergens, Set<String> regions, boolean vegetarian, boolean vegan) {
     }
+
+    public void setAllergens(Set<String> allergens) {
+        this.allergens = allergens;
+        this.allergenMask = Vocabulary.ALLERGENS.mask(allergens);
+    }
+
+    public void setMealType(String mealType) {
+        this.mealType = mealType;
+        this.mealTypeCode = MealType.of(mealType);
+    }
+
+    public void setAvailabilityRegions(Set<String> availabilityRegions) {
+        this.availabilityRegions = availabilityRegions;
+        this.regionMask = Vocabulary.REGIONS.mask(availabilityRegions);
+    }
 }
@@ -0,0 +1,57 @@
+package org.example.entity;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Result of planning one profile, independent of how it is rendered.
+ * Main meals are in breakfast, lunch, dinner order and only include filled slots.
+ */
+@Value
+public class MealPlan {
+    List<PlannedDish> mainMeals;
+    List<PlannedDish> snacks;
+    int totalCalories;
+    double totalProtein;
+    double totalCarbs;
+    int totalSodium;
+
+    public MealPlan(List<PlannedDish> mainMeals, List<PlannedDish> snacks) {
+        this.mainMeals = List.copyOf(mainMeals);
+        this.snacks = List.copyOf(snacks);
+        int calories = 0;
+        double protein = 0;
+        double carbs = 0;
+        int sodium = 0;
+        for (PlannedDish pd : this.mainMeals) {
+            Dish d = pd.getDish();
+            calories += d.getCalories();
+            protein += d.getProtein();
+            carbs += d.getCarbs();
+            sodium += d.getSodium();
+        }
+        for (PlannedDish pd : this.snacks) {
+            Dish d = pd.getDish();
+            calories += d.getCalories();
+            protein += d.getProtein();
+            carbs += d.getCarbs();
+            sodium += d.getSodium();
+        }
+        this.totalCalories = calories;
+        this.totalProtein = protein;
+        this.totalCarbs = carbs;
+        this.totalSodium = sodium;
+    }
+
+    public PlannedDish getMainMeal(String meal) {
+        for (PlannedDish pd : mainMeals) {
+            if (pd.getAssignedMealType().equals(meal)) return pd;
+        }
+        return null;
+    }
+
+    public int getMealCount() {
+        return mainMeals.size() + snacks.size();
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.entity;
+
+/**
+ * Meal type codes, normalized once when a dish is loaded.
+ */
+public enum MealType {
+    BREAKFAST("breakfast"),
+    LUNCH("lunch"),
+    DINNER("dinner"),
+    SNACK("snack"),
+    OTHER("other");
+
+    private final String key;
+
+    MealType(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Lower case name used as the meal key by the planner.
+     */
+    public String key() {
+        return key;
+    }
+
+    public static MealType of(String mealType) {
+        if (mealType == null) return OTHER;
+        switch (mealType.trim().toLowerCase()) {
+            case "breakfast": return BREAKFAST;
+            case "lunch": return LUNCH;
+            case "dinner": return DINNER;
+            case "snack": return SNACK;
+            default: return OTHER;
+        }
+    }
+}
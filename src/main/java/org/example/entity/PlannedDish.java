@@ -0,0 +1,24 @@
+package org.example.entity;
+
+import lombok.Value;
+
+/**
+ * A dish placed in a meal slot. The slot can differ from the dish's own meal type when the
+ * planner had to swap it in.
+ */
+@Value
+public class PlannedDish {
+    Dish dish;
+    String assignedMealType;
+
+    public boolean isSwapped() {
+        return !assignedMealType.equalsIgnoreCase(dish.getMealType());
+    }
+
+    /**
+     * The dish's own meal type if it was swapped into this slot, otherwise null.
+     */
+    public String getSwappedFrom() {
+        return isSwapped() ? dish.getMealType() : null;
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.entity;
+
+import java.util.Map;
+
+/**
+ * Nutrition preference codes. A profile's preferences are folded once into an int with one
+ * {@link #bit()} per preference that is on, so planning tests bits instead of looking up
+ * string keys. Add a constant here, with its built-in rule in
+ * {@link org.example.ScoringRules}, to support a new preference; keys not listed are ignored.
+ */
+public enum Preference {
+    HIGH_PROTEIN("high_protein", 2),
+    HIGH_FIBER("high_fiber", 1.5),
+    LOW_CARB("low_carb", 1);
+
+    private static final Preference[] VALUES = values();
+
+    private final String key;
+    private final double weight;
+
+    Preference(String key, double weight) {
+        this.key = key;
+        this.weight = weight;
+    }
+
+    /**
+     * Key of this preference in a profile's preference map.
+     */
+    public String key() {
+        return key;
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Built-in multiplier of this preference's term in a dish score.
+     */
+    public double weight() {
+        return weight;
+    }
+
+    public boolean in(int mask) {
+        return (mask & bit()) != 0;
+    }
+
+    /**
+     * The preference with this map key, or null.
+     */
+    public static Preference of(String key) {
+        for (Preference preference : VALUES) {
+            if (preference.key.equals(key)) return preference;
+        }
+        return null;
+    }
+
+    /**
+     * Number of distinct masks, i.e. preference combinations.
+     */
+    public static int combinations() {
+        return 1 << VALUES.length;
+    }
+
+    /**
+     * Mask of the preferences set to true; a null map means none.
+     */
+    public static int mask(Map<String, Boolean> preferences) {
+        if (preferences == null || preferences.isEmpty()) return 0;
+        int mask = 0;
+        for (Preference preference : VALUES) {
+            if (Boolean.TRUE.equals(preferences.get(preference.key))) mask |= preference.bit();
+        }
+        return mask;
+    }
+}
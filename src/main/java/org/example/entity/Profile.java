@@ -1,15 +1,18 @@
 package org.example.entity;
 
 import jdk.jfr.DataAmount;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.example.utility.Vocabulary;
 
 import java.util.Map;
 import java.util.Set;
 
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 public class Profile {
     private int calorieTarget;
@@ -18,4 +21,59 @@ public class Profile {
     private Map<String, Boolean> preferences;
     private int age;
     private Set<String> preferredRegions;
+    // Optional daily budgets, 0 for none: sodium in mg, protein and carbs in grams
+    private int maxSodium;
+    private double minProtein;
+    private double maxCarbs;
+    // Optional score weights by preference key, overriding the scoring rules for this profile
+    private Map<String, Double> preferenceWeights;
+
+    // Codes derived from the fields above, kept in sync by the constructor and setters.
+    @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude @ToString.Exclude
+    private Diet dietCode = Diet.OMNIVORE;
+    @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude @ToString.Exclude
+    private long allergenMask;
+    @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude @ToString.Exclude
+    private long regionMask;
+    // Preference bits; the map is kept for compatibility, so change preferences through the setter
+    @Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude @ToString.Exclude
+    private int preferenceMask;
+
+    public Profile(int calorieTarget, Set<String> excludeAllergens, String diet, Map<String, Boolean> preferences,
+                   int age, Set<String> preferredRegions) {
+        this.calorieTarget = calorieTarget;
+        this.age = age;
+        setPreferences(preferences);
+        setExcludeAllergens(excludeAllergens);
+        setDiet(diet);
+        setPreferredRegions(preferredRegions);
+    }
+
+    public boolean hasBudgets() {
+        return maxSodium > 0 || minProtein > 0 || maxCarbs > 0;
+    }
+
+    public boolean prefers(Preference preference) {
+        return preference.in(preferenceMask);
+    }
+
+    public void setPreferences(Map<String, Boolean> preferences) {
+        this.preferences = preferences;
+        this.preferenceMask = Preference.mask(preferences);
+    }
+
+    public void setExcludeAllergens(Set<String> excludeAllergens) {
+        this.excludeAllergens = excludeAllergens;
+        this.allergenMask = Vocabulary.ALLERGENS.lookupMask(excludeAllergens);
+    }
+
+    public void setDiet(String diet) {
+        this.diet = diet;
+        this.dietCode = Diet.of(diet);
+    }
+
+    public void setPreferredRegions(Set<String> preferredRegions) {
+        this.preferredRegions = preferredRegions;
+        this.regionMask = Vocabulary.REGIONS.lookupMask(preferredRegions);
+    }
 }
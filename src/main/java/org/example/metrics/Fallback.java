@@ -0,0 +1,21 @@
+package org.example.metrics;
+
+/**
+ * Paths where the planner had to give up on part of a profile or fill in for a missing dish.
+ */
+public enum Fallback {
+    /** No vegan dish passed the filters, vegetarian dishes were used instead */
+    VEGETARIAN_FOR_VEGAN,
+    /** No dish from the preferred regions passed the filters, every region was allowed */
+    ANY_REGION,
+    /** No dish met all nutrition preferences, they were ignored */
+    RELAXED_NUTRITION,
+    /** A main meal had no candidates and took a dish from another meal type */
+    MEAL_SWAPPED,
+    /** A main meal had no candidates and nothing could be swapped in */
+    MEAL_UNFILLED,
+    /** The snack solver could not reach the calorie band and snacks were added greedily */
+    GREEDY_SNACKS,
+    /** A multi-day plan ran out of unused dishes and started repeating */
+    REPEATED_DISHES
+}
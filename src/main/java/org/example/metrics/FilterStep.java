@@ -0,0 +1,12 @@
+package org.example.metrics;
+
+/**
+ * Filters applied to the catalog for a profile, in order. Candidate set sizes are reported
+ * after each one, with its fallback already applied.
+ */
+public enum FilterStep {
+    ALLERGENS,
+    DIET,
+    REGION,
+    NUTRITION
+}
@@ -0,0 +1,74 @@
+package org.example.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * {@link MetricsSink} that emits JFR events, to line planner stages and fallbacks up with GC,
+ * lock and allocation events in a recording. Events are only built while a recording has them
+ * enabled, e.g. {@code -XX:StartFlightRecording} or {@code jcmd <pid> JFR.start}.
+ */
+public class JfrMetricsSink implements MetricsSink {
+
+    @Name("org.example.PlannerStage")
+    @Label("Planner Stage")
+    @Category({"Meal Planner"})
+    @StackTrace(false)
+    static final class StageEvent extends Event {
+        @Label("Stage")
+        String stage;
+
+        @Label("Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long time;
+    }
+
+    @Name("org.example.PlannerFallback")
+    @Label("Planner Fallback")
+    @Category({"Meal Planner"})
+    @StackTrace(false)
+    static final class FallbackEvent extends Event {
+        @Label("Fallback")
+        String fallback;
+    }
+
+    @Name("org.example.PlannerCandidates")
+    @Label("Planner Candidates")
+    @Category({"Meal Planner"})
+    @StackTrace(false)
+    static final class CandidatesEvent extends Event {
+        @Label("Filter Step")
+        String step;
+
+        @Label("Dishes")
+        int count;
+    }
+
+    @Override
+    public void stage(PlannerStage stage, long nanos) {
+        StageEvent event = new StageEvent();
+        if (event.isEnabled()) {
+            event.stage = stage.name();
+            event.time = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void fallback(Fallback fallback) {
+        FallbackEvent event = new FallbackEvent();
+        if (event.isEnabled()) {
+            event.fallback = fallback.name();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void candidates(FilterStep step, int count) {
+        CandidatesEvent event = new CandidatesEvent();
+        if (event.isEnabled()) {
+            event.step = step.name();
+            event.count = count;
+            event.commit();
+        }
+    }
+}
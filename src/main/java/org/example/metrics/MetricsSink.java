@@ -0,0 +1,53 @@
+package org.example.metrics;
+
+/**
+ * Receives what the planner measures. Install one with {@link PlannerMetrics#setSink}.
+ * Methods are called on the planning threads, so they must be thread safe and cheap.
+ */
+public interface MetricsSink {
+
+    MetricsSink NOOP = new MetricsSink() {
+        @Override
+        public void stage(PlannerStage stage, long nanos) {
+        }
+
+        @Override
+        public void fallback(Fallback fallback) {
+        }
+
+        @Override
+        public void candidates(FilterStep step, int count) {
+        }
+    };
+
+    void stage(PlannerStage stage, long nanos);
+
+    void fallback(Fallback fallback);
+
+    void candidates(FilterStep step, int count);
+
+    /**
+     * Sends everything to both sinks, e.g. in-process stats and JFR.
+     */
+    static MetricsSink tee(MetricsSink first, MetricsSink second) {
+        return new MetricsSink() {
+            @Override
+            public void stage(PlannerStage stage, long nanos) {
+                first.stage(stage, nanos);
+                second.stage(stage, nanos);
+            }
+
+            @Override
+            public void fallback(Fallback fallback) {
+                first.fallback(fallback);
+                second.fallback(fallback);
+            }
+
+            @Override
+            public void candidates(FilterStep step, int count) {
+                first.candidates(step, count);
+                second.candidates(step, count);
+            }
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.metrics;
+
+/**
+ * Where the planner reports to: the installed {@link MetricsSink}, and a level check for the
+ * messages it used to print unconditionally. Nothing is measured until a sink is installed.
+ * <p>
+ * The log level starts from the {@code planner.log} system property ({@code off} or
+ * {@code info}, default {@code info}). Build messages only after checking
+ * {@link #isInfoEnabled()}; with logging off a plan never touches {@code System.out}, which
+ * is synchronized and becomes the bottleneck under load.
+ */
+public final class PlannerMetrics {
+
+    public enum LogLevel {
+        OFF,
+        INFO
+    }
+
+    private static volatile MetricsSink sink = MetricsSink.NOOP;
+    private static volatile LogLevel logLevel = parseLevel(System.getProperty("planner.log"));
+
+    private PlannerMetrics() {
+    }
+
+    private static LogLevel parseLevel(String value) {
+        return "off".equalsIgnoreCase(value) ? LogLevel.OFF : LogLevel.INFO;
+    }
+
+    public static MetricsSink sink() {
+        return sink;
+    }
+
+    public static void setSink(MetricsSink newSink) {
+        sink = newSink == null ? MetricsSink.NOOP : newSink;
+    }
+
+    /**
+     * False while no sink is installed, so callers can skip measurements that cost something,
+     * such as counting a candidate set.
+     */
+    public static boolean isEnabled() {
+        return sink != MetricsSink.NOOP;
+    }
+
+    public static void fallback(Fallback fallback) {
+        sink.fallback(fallback);
+    }
+
+    public static LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    public static void setLogLevel(LogLevel level) {
+        logLevel = level;
+    }
+
+    public static boolean isInfoEnabled() {
+        return logLevel == LogLevel.INFO;
+    }
+
+    public static void info(String message) {
+        if (isInfoEnabled()) System.out.println(message);
+    }
+}
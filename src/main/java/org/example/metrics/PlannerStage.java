@@ -0,0 +1,12 @@
+package org.example.metrics;
+
+/**
+ * Timed stages of planning one profile. {@link #PLAN} covers the whole plan, the others are
+ * its parts.
+ */
+public enum PlannerStage {
+    FILTER,
+    MEALS,
+    SNACKS,
+    PLAN
+}
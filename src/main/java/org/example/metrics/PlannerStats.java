@@ -0,0 +1,107 @@
+package org.example.metrics;
+
+import org.example.utility.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process {@link MetricsSink}: a latency histogram per stage, a counter per fallback and a
+ * histogram of candidate set sizes per filter step. Everything is lock free.
+ */
+public class PlannerStats implements MetricsSink {
+
+    private final Map<PlannerStage, LatencyHistogram> stages = new EnumMap<>(PlannerStage.class);
+    private final Map<Fallback, LongAdder> fallbacks = new EnumMap<>(Fallback.class);
+    private final Map<FilterStep, LatencyHistogram> candidates = new EnumMap<>(FilterStep.class);
+
+    public PlannerStats() {
+        for (PlannerStage stage : PlannerStage.values()) stages.put(stage, new LatencyHistogram());
+        for (Fallback fallback : Fallback.values()) fallbacks.put(fallback, new LongAdder());
+        for (FilterStep step : FilterStep.values()) candidates.put(step, new LatencyHistogram());
+    }
+
+    @Override
+    public void stage(PlannerStage stage, long nanos) {
+        stages.get(stage).record(nanos);
+    }
+
+    @Override
+    public void fallback(Fallback fallback) {
+        fallbacks.get(fallback).increment();
+    }
+
+    @Override
+    public void candidates(FilterStep step, int count) {
+        candidates.get(step).record(count);
+    }
+
+    public LatencyHistogram getStage(PlannerStage stage) {
+        return stages.get(stage);
+    }
+
+    public long getFallbackCount(Fallback fallback) {
+        return fallbacks.get(fallback).sum();
+    }
+
+    /**
+     * Candidate set sizes after a filter step; the histogram's values are dish counts.
+     */
+    public LatencyHistogram getCandidates(FilterStep step) {
+        return candidates.get(step);
+    }
+
+    public void reset() {
+        stages.values().forEach(LatencyHistogram::reset);
+        fallbacks.values().forEach(LongAdder::reset);
+        candidates.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Stage latencies in microseconds, fallback counts and candidate set sizes as one JSON object.
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"stages\":{");
+        for (PlannerStage stage : PlannerStage.values()) {
+            LatencyHistogram h = stages.get(stage);
+            if (stage.ordinal() > 0) sb.append(',');
+            sb.append(String.format(Locale.ROOT, "\"%s\":{\"count\":%d,\"p50_us\":%.1f,\"p99_us\":%.1f,\"max_us\":%.1f}",
+                    key(stage), h.getCount(), h.percentile(0.50) / 1000.0, h.percentile(0.99) / 1000.0,
+                    h.getMax() / 1000.0));
+        }
+        sb.append("},\"fallbacks\":{");
+        for (Fallback fallback : Fallback.values()) {
+            if (fallback.ordinal() > 0) sb.append(',');
+            sb.append('"').append(key(fallback)).append("\":").append(fallbacks.get(fallback).sum());
+        }
+        sb.append("},\"candidates\":{");
+        for (FilterStep step : FilterStep.values()) {
+            LatencyHistogram h = candidates.get(step);
+            if (step.ordinal() > 0) sb.append(',');
+            sb.append('"').append(key(step)).append("\":{\"p50\":").append(h.percentile(0.50))
+                    .append(",\"p99\":").append(h.percentile(0.99)).append(",\"max\":").append(h.getMax()).append('}');
+        }
+        return sb.append("}}").toString();
+    }
+
+    /**
+     * Multi-line summary for the end of a batch run.
+     */
+    public String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (PlannerStage stage : PlannerStage.values()) {
+            sb.append(String.format("  %-9s %s%n", key(stage), stages.get(stage).summary()));
+        }
+        for (Fallback fallback : Fallback.values()) {
+            long count = fallbacks.get(fallback).sum();
+            if (count > 0) sb.append(String.format("  %-20s %d%n", key(fallback), count));
+        }
+        return sb.toString();
+    }
+
+    private static String key(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
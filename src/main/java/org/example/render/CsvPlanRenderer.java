@@ -0,0 +1,43 @@
+package org.example.render;
+
+import org.example.entity.MealPlan;
+import org.example.entity.PlannedDish;
+import org.example.entity.Profile;
+
+import java.io.IOException;
+
+/**
+ * One CSV row per planned dish; see {@link #HEADER} for the columns.
+ */
+public class CsvPlanRenderer implements PlanRenderer {
+
+    public static final CsvPlanRenderer INSTANCE = new CsvPlanRenderer();
+
+    public static final String HEADER = "meal,name,calories,swapped_from\n";
+
+    @Override
+    public void render(MealPlan plan, Profile profile, Appendable out) throws IOException {
+        for (PlannedDish pd : plan.getMainMeals()) {
+            appendRow(out, pd);
+        }
+        for (PlannedDish pd : plan.getSnacks()) {
+            appendRow(out, pd);
+        }
+    }
+
+    private static void appendRow(Appendable out, PlannedDish pd) throws IOException {
+        out.append(pd.getAssignedMealType()).append(',');
+        appendField(out, pd.getDish().getName());
+        out.append(',').append(String.valueOf(pd.getDish().getCalories())).append(',');
+        if (pd.isSwapped()) out.append(pd.getSwappedFrom());
+        out.append('\n');
+    }
+
+    private static void appendField(Appendable out, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            out.append(value);
+            return;
+        }
+        out.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.render;
+
+import org.example.entity.Diet;
+import org.example.entity.Dish;
+import org.example.entity.MealPlan;
+import org.example.entity.PlannedDish;
+import org.example.entity.Preference;
+import org.example.entity.Profile;
+import org.example.utility.Vocabulary;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The HTML meal plan fragment used in the combined report, with a rationale per dish and a
+ * day summary.
+ */
+public class HtmlPlanRenderer implements PlanRenderer {
+
+    public static final HtmlPlanRenderer INSTANCE = new HtmlPlanRenderer();
+
+    private static final long SEAFOOD = Vocabulary.FISH | Vocabulary.SHELLFISH;
+
+    @Override
+    public void render(MealPlan plan, Profile profile, Appendable html) throws IOException {
+        html.append("<h2>Meal Plan</h2>\n");
+        html.append("<ul>\n");
+
+        for (PlannedDish pd : plan.getMainMeals()) {
+            appendDish(html, capitalize(pd.getAssignedMealType()), pd, profile);
+        }
+        for (PlannedDish pd : plan.getSnacks()) {
+            appendDish(html, "Snack", pd, profile);
+        }
+
+        html.append("</ul>\n");
+        String summary = generateDaySummary(plan.getMealCount(), plan.getTotalCalories(),
+                profile.getCalorieTarget(), profile.getPreferenceMask());
+
+        html.append("<p><strong>Total calories consumed:</strong> ").append(String.valueOf(plan.getTotalCalories())).append(" kcal</p>\n");
+        if (profile.hasBudgets()) appendBudgets(html, plan, profile);
+        html.append("<p><em>").append(summary).append("</em></p>\n");
+    }
+
+    private static void appendBudgets(Appendable html, MealPlan plan, Profile profile) throws IOException {
+        List<String> budgets = new ArrayList<>(3);
+        if (profile.getMaxSodium() > 0) {
+            budgets.add(String.format("sodium %d of %d mg", plan.getTotalSodium(), profile.getMaxSodium()));
+        }
+        if (profile.getMinProtein() > 0) {
+            budgets.add(String.format("protein %.0f g (at least %.0f g)", plan.getTotalProtein(), profile.getMinProtein()));
+        }
+        if (profile.getMaxCarbs() > 0) {
+            budgets.add(String.format("carbs %.0f of %.0f g", plan.getTotalCarbs(), profile.getMaxCarbs()));
+        }
+        html.append("<p><strong>Daily budgets:</strong> ").append(String.join(", ", budgets)).append("</p>\n");
+    }
+
+    private static void appendDish(Appendable html, String label, PlannedDish pd, Profile profile) throws IOException {
+        Dish dish = pd.getDish();
+        String rationale = generateRationale(dish, profile);
+        if (pd.isSwapped()) {
+            rationale += ", swapped from " + dish.getMealType();
+        }
+
+        html.append("<li><strong>").append(label).append(":</strong> ")
+                .append(dish.getName())
+                .append(" (").append(String.valueOf(dish.getCalories())).append(" kcal) - ")
+                .append(rationale)
+                .append("</li>\n");
+    }
+
+    private static String capitalize(String s) {
+        if (s == null || s.isEmpty()) return s;
+        return s.substring(0,1).toUpperCase() + s.substring(1);
+    }
+
+    private static String generateRationale(Dish dish, Profile profile) {
+        List<String> reasons = new ArrayList<>();
+        if (profile.prefers(Preference.HIGH_PROTEIN) && dish.getProtein() > 15) reasons.add("high protein");
+        if (profile.prefers(Preference.HIGH_FIBER) && dish.getFiber() > 5) reasons.add("high fiber");
+        if (profile.prefers(Preference.LOW_CARB) && dish.getCarbs() < 25) reasons.add("low carb");
+        if ((dish.getAllergenMask() & Vocabulary.DAIRY) != 0 && (profile.getAllergenMask() & Vocabulary.DAIRY) == 0) reasons.add("includes dairy");
+
+        Diet diet = profile.getDietCode();
+        if (dish.isVegan() && diet == Diet.VEGAN) reasons.add("vegan");
+        else if (dish.isVegetarian() && diet == Diet.VEGETARIAN) reasons.add("vegetarian");
+        else if (diet == Diet.PESCATARIAN && (dish.getAllergenMask() & SEAFOOD) == 0) {
+            reasons.add("pescatarian compliant");
+        }
+
+        if (reasons.isEmpty()) reasons.add("matches profile preferences");
+        if (profile.prefers(Preference.LOW_CARB) && dish.getCarbs() >= 25) reasons.add("moderate carbs for energy balance");
+
+        return String.join(", ", reasons);
+    }
+
+    private static String generateDaySummary(int mealCount, int totalCalories, int calorieTarget, int preferenceMask) {
+        String focus = "balanced nutrients";
+        if (Preference.HIGH_FIBER.in(preferenceMask)) focus = "high fiber foods";
+        else if (Preference.HIGH_PROTEIN.in(preferenceMask)) focus = "high protein foods";
+        else if (Preference.LOW_CARB.in(preferenceMask)) focus = "low carb foods";
+
+        if (mealCount == 0) {
+            return "No suitable meals found to meet the profile preferences.";
+        } else if (mealCount < 4) {
+            return String.format("This meal plan provides approximately %d calories, below your target of %d calories. It includes %d meal(s) focusing on %s. Consider adjusting preferences or adding more dishes for better variety.",
+                    totalCalories, calorieTarget, mealCount, focus);
+        } else {
+            return String.format("This meal plan provides approximately %d calories, closely matching the target of %d calories. It emphasizes %s to meet your dietary preferences. The plan includes a balanced selection of breakfast, lunch, dinner, and snacks to ensure variety and nutritional completeness.",
+                    totalCalories, calorieTarget, focus);
+        }
+    }
+}
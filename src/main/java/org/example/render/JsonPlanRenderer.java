@@ -0,0 +1,108 @@
+package org.example.render;
+
+import org.example.entity.Dish;
+import org.example.entity.MealPlan;
+import org.example.entity.PlannedDish;
+import org.example.entity.Profile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Compact JSON for machine callers: dish names, calories and swap info, no rationale text.
+ */
+public class JsonPlanRenderer implements PlanRenderer {
+
+    public static final JsonPlanRenderer INSTANCE = new JsonPlanRenderer();
+
+    @Override
+    public void render(MealPlan plan, Profile profile, Appendable out) throws IOException {
+        out.append("{\"meals\":");
+        appendDishes(out, plan.getMainMeals());
+        out.append(",\"snacks\":");
+        appendDishes(out, plan.getSnacks());
+        out.append(",\"total_calories\":").append(String.valueOf(plan.getTotalCalories()));
+        out.append(",\"calorie_target\":").append(String.valueOf(profile.getCalorieTarget()));
+        if (profile.hasBudgets()) {
+            out.append(",\"total_sodium\":").append(String.valueOf(plan.getTotalSodium()));
+            out.append(",\"total_protein\":").append(String.valueOf(plan.getTotalProtein()));
+            out.append(",\"total_carbs\":").append(String.valueOf(plan.getTotalCarbs()));
+        }
+        out.append('}');
+    }
+
+    private static void appendDishes(Appendable out, List<PlannedDish> dishes) throws IOException {
+        out.append('[');
+        for (int i = 0; i < dishes.size(); i++) {
+            PlannedDish pd = dishes.get(i);
+            if (i > 0) out.append(',');
+            out.append("{\"meal\":");
+            appendString(out, pd.getAssignedMealType());
+            out.append(",\"name\":");
+            appendString(out, pd.getDish().getName());
+            out.append(",\"calories\":").append(String.valueOf(pd.getDish().getCalories()));
+            if (pd.isSwapped()) {
+                out.append(",\"swapped_from\":");
+                appendString(out, pd.getSwappedFrom());
+            }
+            out.append('}');
+        }
+        out.append(']');
+    }
+
+    /**
+     * Substitutes for a dish, closest first, with the nutrients they were matched on.
+     */
+    public static String renderSubstitutes(String dish, List<Dish> substitutes) {
+        StringBuilder out = new StringBuilder(64 + 128 * substitutes.size());
+        try {
+            out.append("{\"dish\":");
+            appendString(out, dish);
+            out.append(",\"substitutes\":[");
+            for (int i = 0; i < substitutes.size(); i++) {
+                Dish d = substitutes.get(i);
+                if (i > 0) out.append(',');
+                out.append("{\"name\":");
+                appendString(out, d.getName());
+                out.append(",\"meal\":");
+                appendString(out, d.getMealType());
+                out.append(",\"calories\":").append(d.getCalories())
+                        .append(",\"protein\":").append(d.getProtein())
+                        .append(",\"fiber\":").append(d.getFiber())
+                        .append(",\"carbs\":").append(d.getCarbs())
+                        .append(",\"sodium\":").append(d.getSodium())
+                        .append('}');
+            }
+            out.append("]}");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    static void appendString(Appendable out, String value) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
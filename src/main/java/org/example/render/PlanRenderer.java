@@ -0,0 +1,35 @@
+package org.example.render;
+
+import org.example.entity.MealPlan;
+import org.example.entity.Profile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Turns a {@link MealPlan} into some output format. Planning never formats text itself, so
+ * callers that only need the structured plan skip this step entirely.
+ */
+public interface PlanRenderer {
+
+    void render(MealPlan plan, Profile profile, Appendable out) throws IOException;
+
+    default String render(MealPlan plan, Profile profile) {
+        StringBuilder sb = new StringBuilder();
+        try {
+            render(plan, profile, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder never throws
+        }
+        return sb.toString();
+    }
+
+    static PlanRenderer forFormat(String format) {
+        switch (format.toLowerCase()) {
+            case "html": return HtmlPlanRenderer.INSTANCE;
+            case "json": return JsonPlanRenderer.INSTANCE;
+            case "csv": return CsvPlanRenderer.INSTANCE;
+            default: throw new IllegalArgumentException("Unknown plan format: " + format);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.server;
+
+import org.example.utility.LatencyHistogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local load generator for {@link PlanningServer}. Runs a fixed number of closed-loop workers,
+ * each posting randomly generated profiles back to back, and reports client side throughput
+ * and latency. Compare with the server's own numbers on {@code /metrics}.
+ * <p>
+ * Usage: {@code LoadGenerator [url] [requests] [concurrency]}
+ */
+public class LoadGenerator {
+
+    private static final String[] DIETS = {"omnivore", "vegetarian", "vegan", "pescatarian"};
+    private static final String[] ALLERGENS = {"dairy", "gluten", "nuts", "fish", "shellfish", "eggs", "soy", "peanuts"};
+    private static final String[] REGIONS = {"North America", "Europe", "Asia", "India", "Middle East", "Latin America"};
+
+    private final HttpClient client;
+    private final URI uri;
+
+    public LoadGenerator(URI uri) {
+        this.uri = uri;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static class Report {
+        public final long requests;
+        public final long failures;
+        public final long elapsedNanos;
+        public final LatencyHistogram latency;
+
+        Report(long requests, long failures, long elapsedNanos, LatencyHistogram latency) {
+            this.requests = requests;
+            this.failures = failures;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        public double requestsPerSecond() {
+            return elapsedNanos == 0 ? 0 : requests * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests (%d failed) at %.0f req/s, %s",
+                    requests, failures, requestsPerSecond(), latency.summary());
+        }
+    }
+
+    /**
+     * Sends {@code requests} plans split across {@code concurrency} workers and waits for all of them.
+     */
+    public Report run(int requests, int concurrency, long seed) throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder failures = new LongAdder();
+        AtomicLong remaining = new AtomicLong(requests);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            Random random = new Random(seed + w);
+            futures.add(workers.submit(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    HttpRequest request = HttpRequest.newBuilder(uri)
+                            .timeout(Duration.ofSeconds(10))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(randomProfile(random)))
+                            .build();
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) failures.increment();
+                    } catch (Exception e) {
+                        failures.increment();
+                    }
+                    latency.record(System.nanoTime() - sent);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failures.increment();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        workers.shutdown();
+        return new Report(requests, failures.sum(), elapsed, latency);
+    }
+
+    static String randomProfile(Random random) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"age\":").append(18 + random.nextInt(60))
+                .append(",\"calorie_target\":").append(1400 + 100 * random.nextInt(13))
+                .append(",\"diet\":\"").append(DIETS[random.nextInt(DIETS.length)]).append('"')
+                .append(",\"exclude_allergens\":[");
+        for (int i = random.nextInt(3); i > 0; i--) {
+            sb.append('"').append(ALLERGENS[random.nextInt(ALLERGENS.length)]).append('"').append(i > 1 ? "," : "");
+        }
+        sb.append("],\"preferences\":{\"high_protein\":").append(random.nextBoolean())
+                .append(",\"high_fiber\":").append(random.nextBoolean())
+                .append(",\"low_carb\":").append(random.nextBoolean())
+                .append("},\"preferred_regions\":[\"").append(REGIONS[random.nextInt(REGIONS.length)]).append("\"]}");
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080/plan");
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        LoadGenerator generator = new LoadGenerator(uri);
+        // Warm up the server's JIT before measuring
+        generator.run(Math.min(requests, 10_000), concurrency, 1);
+        System.out.println(generator.run(requests, concurrency, 42));
+    }
+}
@@ -0,0 +1,347 @@
+package org.example.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.CatalogHolder;
+import org.example.DishCatalog;
+import org.example.MealPlanner;
+import org.example.PlanCache;
+import org.example.entity.MealPlan;
+import org.example.entity.Preference;
+import org.example.entity.Profile;
+import org.example.metrics.JfrMetricsSink;
+import org.example.metrics.MetricsSink;
+import org.example.metrics.PlannerMetrics;
+import org.example.metrics.PlannerStats;
+import org.example.render.CsvPlanRenderer;
+import org.example.render.HtmlPlanRenderer;
+import org.example.render.JsonPlanRenderer;
+import org.example.render.PlanRenderer;
+import org.example.utility.JsonParser;
+import org.example.utility.LatencyHistogram;
+import org.example.utility.Vocabulary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Embedded HTTP endpoint for planning single profiles.
+ * <ul>
+ *     <li>{@code POST /plan?format=json|html|csv} with a profile as JSON, in the same shape the
+ *     report prints, plus an optional {@code preferred_regions} array and optional daily
+ *     budgets {@code max_sodium}, {@code min_protein} and {@code max_carbs}, and optional
+ *     score {@code weights} by preference key</li>
+ *     <li>{@code POST /substitute?dish=name&k=5} with a profile as JSON, the dishes that profile
+ *     can eat instead of the named one, nutritionally closest first</li>
+ *     <li>{@code GET /metrics} request counts, server side latency percentiles and, when the
+ *     server was given {@link PlannerStats}, planner stage timings and fallback counts</li>
+ *     <li>{@code GET /health}</li>
+ * </ul>
+ * The catalog is read from a shared supplier on every request, so it is loaded once and a
+ * {@link CatalogHolder} can swap it underneath running requests.
+ */
+public class PlanningServer implements AutoCloseable {
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int MAX_SUBSTITUTES = 50;
+    private static final int PLAN_CACHE_SIZE = 10_000;
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle on, each response then
+        // waits for the client's delayed ACK (~40ms). Must be set before the server classes load.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Supplier<DishCatalog> catalogs;
+    private final PlanCache<MealPlan> cache = new PlanCache<>(PLAN_CACHE_SIZE, MealPlanner::planMeals);
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final PlannerStats plannerStats;
+
+    public PlanningServer(InetSocketAddress address, Supplier<DishCatalog> catalogs) throws IOException {
+        this(address, catalogs, null);
+    }
+
+    /**
+     * @param plannerStats reported on {@code /metrics}; install it with
+     *                     {@link PlannerMetrics#setSink} for it to receive anything
+     */
+    public PlanningServer(InetSocketAddress address, Supplier<DishCatalog> catalogs, PlannerStats plannerStats)
+            throws IOException {
+        this.catalogs = catalogs;
+        this.plannerStats = plannerStats;
+        this.server = HttpServer.create(address, 1024);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/plan", this::handlePlan);
+        server.createContext("/substitute", this::handleSubstitute);
+        server.createContext("/metrics", this::handleMetrics);
+        server.createContext("/health", exchange -> respond(exchange, 200, "text/plain", "ok"));
+    }
+
+    /**
+     * One virtual thread per request where the runtime has them (Java 21+). On older runtimes
+     * planning is CPU bound and short, so a fixed pool sized to the cores does the same job.
+     * Either way the planner's working buffers come from a shared pool, not the thread.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2, r -> {
+                Thread t = new Thread(r, "plan-request");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    private void handlePlan(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        requests.increment();
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                errors.increment();
+                respond(exchange, 405, "text/plain", "POST a profile as JSON");
+                return;
+            }
+            PlanRenderer renderer;
+            Profile profile;
+            try {
+                renderer = PlanRenderer.forFormat(queryParam(exchange, "format", "json"));
+                profile = parseProfile(readBody(exchange.getRequestBody()));
+            } catch (IllegalArgumentException e) {
+                errors.increment();
+                respond(exchange, 400, "text/plain", e.getMessage());
+                return;
+            }
+            MealPlan plan = cache.get(catalogs.get(), profile);
+            respond(exchange, 200, contentType(renderer), renderer.render(plan, profile));
+        } catch (RuntimeException e) {
+            errors.increment();
+            respond(exchange, 500, "text/plain", "Planning failed: " + e.getMessage());
+        } finally {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    private void handleSubstitute(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        requests.increment();
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                errors.increment();
+                respond(exchange, 405, "text/plain", "POST a profile as JSON");
+                return;
+            }
+            String dish;
+            int k;
+            Profile profile;
+            try {
+                dish = URLDecoder.decode(queryParam(exchange, "dish", ""), StandardCharsets.UTF_8);
+                k = Integer.parseInt(queryParam(exchange, "k", "5"));
+                if (k < 1 || k > MAX_SUBSTITUTES) {
+                    throw new IllegalArgumentException("k must be between 1 and " + MAX_SUBSTITUTES);
+                }
+                profile = parseProfile(readBody(exchange.getRequestBody()));
+            } catch (IllegalArgumentException e) {
+                errors.increment();
+                respond(exchange, 400, "text/plain", e.getMessage());
+                return;
+            }
+            DishCatalog catalog = catalogs.get();
+            if (catalog.similarity().find(dish) < 0) {
+                errors.increment();
+                respond(exchange, 404, "text/plain", "Unknown dish: " + dish);
+                return;
+            }
+            respond(exchange, 200, "application/json",
+                    JsonPlanRenderer.renderSubstitutes(dish, MealPlanner.substitutes(catalog, profile, dish, k)));
+        } catch (RuntimeException e) {
+            errors.increment();
+            respond(exchange, 500, "text/plain", "Substitution failed: " + e.getMessage());
+        } finally {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        String body = String.format(Locale.ROOT, "{\"requests\":%d,\"errors\":%d,\"p50_us\":%.1f,\"p99_us\":%.1f,\"p999_us\":%.1f,"
+                        + "\"max_us\":%.1f,\"plan_cache_hit_rate\":%.3f,\"dishes\":%d%s}",
+                requests.sum(), errors.sum(), latency.percentile(0.50) / 1000.0, latency.percentile(0.99) / 1000.0,
+                latency.percentile(0.999) / 1000.0, latency.getMax() / 1000.0, cache.hitRate(), catalogs.get().size(),
+                plannerStats == null ? "" : ",\"planner\":" + plannerStats.toJson());
+        respond(exchange, 200, "application/json", body);
+    }
+
+    private static String contentType(PlanRenderer renderer) {
+        if (renderer == HtmlPlanRenderer.INSTANCE) return "text/html; charset=utf-8";
+        if (renderer == CsvPlanRenderer.INSTANCE) return "text/csv; charset=utf-8";
+        return "application/json";
+    }
+
+    private static String queryParam(HttpExchange exchange, String name, String defaultValue) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) return defaultValue;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) return pair.substring(eq + 1);
+        }
+        return defaultValue;
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) throw new IllegalArgumentException("Request body too large");
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Builds a profile from a JSON request body. Terms no dish uses are dropped instead of
+     * interned, so arbitrary request input cannot grow the shared {@link Vocabulary}; an unknown
+     * allergen or region never matches a dish anyway.
+     */
+    @SuppressWarnings("unchecked")
+    static Profile parseProfile(String json) {
+        Object parsed = JsonParser.parse(json);
+        if (!(parsed instanceof Map)) throw new IllegalArgumentException("Expected a JSON object");
+        Map<String, Object> body = (Map<String, Object>) parsed;
+
+        Object target = body.get("calorie_target");
+        if (!(target instanceof Number) || ((Number) target).intValue() <= 0) {
+            throw new IllegalArgumentException("calorie_target must be a positive number");
+        }
+        Object diet = body.getOrDefault("diet", "omnivore");
+        if (!(diet instanceof String)) throw new IllegalArgumentException("diet must be a string");
+        Object age = body.getOrDefault("age", 0L);
+        if (!(age instanceof Number)) throw new IllegalArgumentException("age must be a number");
+
+        Map<String, Boolean> preferences = new HashMap<>();
+        preferences.put("high_protein", false);
+        preferences.put("high_fiber", false);
+        preferences.put("low_carb", false);
+        Object prefs = body.get("preferences");
+        if (prefs instanceof Map) {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) prefs).entrySet()) {
+                if (e.getValue() instanceof Boolean) preferences.put(e.getKey().toString(), (Boolean) e.getValue());
+            }
+        } else if (prefs != null) {
+            throw new IllegalArgumentException("preferences must be an object");
+        }
+
+        Profile profile = new Profile(((Number) target).intValue(),
+                knownTerms(body.get("exclude_allergens"), Vocabulary.ALLERGENS, true, "exclude_allergens"),
+                (String) diet, preferences, ((Number) age).intValue(),
+                knownTerms(body.get("preferred_regions"), Vocabulary.REGIONS, false, "preferred_regions"));
+        profile.setMaxSodium((int) budget(body, "max_sodium"));
+        profile.setMinProtein(budget(body, "min_protein"));
+        profile.setMaxCarbs(budget(body, "max_carbs"));
+        profile.setPreferenceWeights(weights(body.get("weights")));
+        return profile;
+    }
+
+    private static double budget(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if (value == null) return 0;
+        if (!(value instanceof Number) || ((Number) value).doubleValue() < 0) {
+            throw new IllegalArgumentException(field + " must be a non-negative number");
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    private static Map<String, Double> weights(Object value) {
+        if (value == null) return null;
+        if (!(value instanceof Map)) throw new IllegalArgumentException("weights must be an object");
+        Map<String, Double> weights = new HashMap<>();
+        for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+            String key = e.getKey().toString();
+            if (Preference.of(key) == null) throw new IllegalArgumentException("Unknown preference in weights: " + key);
+            if (!(e.getValue() instanceof Number) || !(((Number) e.getValue()).doubleValue() >= 0)
+                    || Double.isInfinite(((Number) e.getValue()).doubleValue())) {
+                throw new IllegalArgumentException("weights." + key + " must be a non-negative number");
+            }
+            weights.put(key, ((Number) e.getValue()).doubleValue());
+        }
+        return weights;
+    }
+
+    private static Set<String> knownTerms(Object value, Vocabulary vocabulary, boolean lowerCase, String field) {
+        Set<String> terms = new HashSet<>();
+        if (value == null) return terms;
+        if (!(value instanceof List)) throw new IllegalArgumentException(field + " must be an array");
+        for (Object item : (List<?>) value) {
+            if (!(item instanceof String)) throw new IllegalArgumentException(field + " must contain strings");
+            String term = ((String) item).trim();
+            if (lowerCase) term = term.toLowerCase();
+            int code = vocabulary.lookup(term);
+            if (code >= 0) terms.add(vocabulary.term(code));
+        }
+        return terms;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String dishFile = args.length > 0 ? args[0] : "src/main/java/org/example/data/dishes.csv";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        CatalogHolder catalogs = new CatalogHolder(Paths.get(dishFile));
+        catalogs.startWatching();
+        // Per-request fallback messages would serialize every worker on stdout; count them instead
+        if (System.getProperty("planner.log") == null) PlannerMetrics.setLogLevel(PlannerMetrics.LogLevel.OFF);
+        PlannerStats plannerStats = new PlannerStats();
+        PlannerMetrics.setSink(MetricsSink.tee(plannerStats, new JfrMetricsSink()));
+        PlanningServer server = new PlanningServer(new InetSocketAddress(port), catalogs, plannerStats);
+        server.start();
+        System.out.println("Loaded " + catalogs.get().size() + " dishes; planning on http://localhost:" + server.getPort() + "/plan");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            System.out.println("Served " + server.getLatency().summary());
+        }));
+    }
+}
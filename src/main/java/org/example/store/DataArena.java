@@ -0,0 +1,53 @@
+package org.example.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Variable-length values (names, overflowed term sets) in direct memory, appended one after the
+ * other. A value is addressed by a long holding its chunk and offset, and is stored with its
+ * length in front. Same threading rules as {@link RecordArena}.
+ */
+final class DataArena {
+
+    static final long NONE = -1;
+    private static final int CHUNK_BYTES = 16 << 20;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current;
+
+    long putBytes(byte[] value) {
+        ByteBuffer chunk = reserve(4 + value.length);
+        long address = address(chunk.position());
+        chunk.putInt(value.length).put(value);
+        return address;
+    }
+
+    byte[] getBytes(long address) {
+        ByteBuffer chunk = chunks.get((int) (address >>> 32));
+        int offset = (int) address;
+        byte[] value = new byte[chunk.getInt(offset)];
+        chunk.get(offset + 4, value);
+        return value;
+    }
+
+    long bytes() {
+        long total = 0;
+        for (ByteBuffer chunk : chunks) total += chunk.capacity();
+        return total;
+    }
+
+    private ByteBuffer reserve(int bytes) {
+        if (current == null || current.remaining() < bytes) {
+            current = ByteBuffer.allocateDirect(Math.max(CHUNK_BYTES, bytes)).order(ByteOrder.nativeOrder());
+            chunks.add(current);
+        }
+        return current;
+    }
+
+    private long address(int offset) {
+        return (long) (chunks.size() - 1) << 32 | offset;
+    }
+}
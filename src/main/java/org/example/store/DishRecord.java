@@ -0,0 +1,102 @@
+package org.example.store;
+
+import org.example.entity.Dish;
+import org.example.entity.MealType;
+import org.example.utility.Vocabulary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.example.store.OffHeapDishStore.*;
+
+/**
+ * Flyweight over one record of an {@link OffHeapDishStore}. Numeric fields and masks are read
+ * straight from direct memory; the name and the term sets allocate, so read them only when
+ * needed. Not thread safe.
+ */
+public final class DishRecord {
+
+    private final OffHeapDishStore store;
+    private ByteBuffer chunk;
+    private int at;
+    private int index = -1;
+
+    DishRecord(OffHeapDishStore store) {
+        this.store = store;
+    }
+
+    public DishRecord at(int index) {
+        if (index < 0 || index >= store.size()) throw new IndexOutOfBoundsException(index);
+        this.chunk = store.records.chunk(index);
+        this.at = store.records.offset(index);
+        this.index = index;
+        return this;
+    }
+
+    public int index() {
+        return index;
+    }
+
+    public int getCalories() {
+        return chunk.getInt(at + CALORIES);
+    }
+
+    public int getSodium() {
+        return chunk.getInt(at + SODIUM);
+    }
+
+    public double getProtein() {
+        return chunk.getDouble(at + PROTEIN);
+    }
+
+    public double getFiber() {
+        return chunk.getDouble(at + FIBER);
+    }
+
+    public double getCarbs() {
+        return chunk.getDouble(at + CARBS);
+    }
+
+    public long getAllergenMask() {
+        return chunk.getLong(at + ALLERGEN_MASK);
+    }
+
+    public long getRegionMask() {
+        return chunk.getLong(at + REGION_MASK);
+    }
+
+    public MealType getMealTypeCode() {
+        return store.mealTypeCode(chunk.get(at + MEAL_TYPE_CODE));
+    }
+
+    public String getMealType() {
+        return store.mealTypes.value(chunk.getShort(at + MEAL_TYPE));
+    }
+
+    public boolean isVegetarian() {
+        return (chunk.get(at + FLAGS) & VEGETARIAN) != 0;
+    }
+
+    public boolean isVegan() {
+        return (chunk.get(at + FLAGS) & VEGAN) != 0;
+    }
+
+    public String getName() {
+        long ref = chunk.getLong(at + NAME);
+        return ref == DataArena.NONE ? null : new String(store.data.getBytes(ref), StandardCharsets.UTF_8);
+    }
+
+    public Set<String> getAllergens() {
+        return Terms.get(store.data, Vocabulary.ALLERGENS, getAllergenMask(), chunk.getLong(at + ALLERGENS));
+    }
+
+    public Set<String> getAvailabilityRegions() {
+        return Terms.get(store.data, Vocabulary.REGIONS, getRegionMask(), chunk.getLong(at + REGIONS));
+    }
+
+    public Dish toDish() {
+        return new Dish(getName(), getCalories(), getAllergens(), getProtein(), getFiber(), getCarbs(), getSodium(),
+                getMealType(), getAvailabilityRegions(), isVegetarian(), isVegan());
+    }
+}
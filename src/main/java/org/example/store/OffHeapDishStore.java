@@ -0,0 +1,126 @@
+package org.example.store;
+
+import org.example.entity.Dish;
+import org.example.entity.MealType;
+import org.example.utility.Vocabulary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Dishes in direct memory as fixed 80 byte records, for catalogs too large to keep as
+ * {@link Dish} objects: a Dish with its two sets costs several hundred bytes of heap and is one
+ * more object for every full GC to trace. Read records through a {@link DishRecord} flyweight,
+ * or materialize a Dish with {@link #get(int)} when one is needed for output.
+ * <p>
+ * Names are stored as UTF-8 next to the records; allergens and regions as their
+ * {@link Vocabulary} masks. A store is filled once, then read from any thread. Its memory is
+ * released when the store is no longer reachable.
+ */
+public final class OffHeapDishStore {
+
+    static final int CALORIES = 0;
+    static final int SODIUM = 4;
+    static final int PROTEIN = 8;
+    static final int FIBER = 16;
+    static final int CARBS = 24;
+    static final int ALLERGEN_MASK = 32;
+    static final int REGION_MASK = 40;
+    static final int NAME = 48;
+    static final int ALLERGENS = 56;
+    static final int REGIONS = 64;
+    static final int MEAL_TYPE = 72;
+    static final int MEAL_TYPE_CODE = 74;
+    static final int FLAGS = 75;
+    static final int RECORD_BYTES = 80;
+
+    static final int VEGETARIAN = 1;
+    static final int VEGAN = 2;
+
+    final RecordArena records = new RecordArena(RECORD_BYTES);
+    final DataArena data = new DataArena();
+    final Terms.Spellings mealTypes = new Terms.Spellings();
+
+    public static OffHeapDishStore of(Collection<Dish> dishes) {
+        OffHeapDishStore store = new OffHeapDishStore();
+        for (Dish dish : dishes) store.add(dish);
+        return store;
+    }
+
+    /**
+     * Appends a dish and returns its position. Missing allergen and region sets are stored as
+     * empty ones.
+     */
+    public int add(Dish dish) {
+        if (records.size() == Integer.MAX_VALUE) throw new IllegalStateException("Dish store is full");
+        long index = records.append();
+        ByteBuffer chunk = records.chunk(index);
+        int at = records.offset(index);
+        chunk.putInt(at + CALORIES, dish.getCalories());
+        chunk.putInt(at + SODIUM, dish.getSodium());
+        chunk.putDouble(at + PROTEIN, dish.getProtein());
+        chunk.putDouble(at + FIBER, dish.getFiber());
+        chunk.putDouble(at + CARBS, dish.getCarbs());
+        chunk.putLong(at + ALLERGEN_MASK, dish.getAllergenMask());
+        chunk.putLong(at + REGION_MASK, dish.getRegionMask());
+        chunk.putLong(at + NAME, dish.getName() == null ? DataArena.NONE
+                : data.putBytes(dish.getName().getBytes(StandardCharsets.UTF_8)));
+        chunk.putLong(at + ALLERGENS, Terms.put(data, dish.getAllergens(), dish.getAllergenMask()));
+        chunk.putLong(at + REGIONS, Terms.put(data, dish.getAvailabilityRegions(), dish.getRegionMask()));
+        chunk.putShort(at + MEAL_TYPE, mealTypes.id(dish.getMealType()));
+        chunk.put(at + MEAL_TYPE_CODE, (byte) dish.getMealTypeCode().ordinal());
+        chunk.put(at + FLAGS, (byte) ((dish.isVegetarian() ? VEGETARIAN : 0) | (dish.isVegan() ? VEGAN : 0)));
+        return (int) index;
+    }
+
+    public int size() {
+        return (int) records.size();
+    }
+
+    /**
+     * A new flyweight over this store; position it with {@link DishRecord#at(int)}. Flyweights
+     * are cheap but not thread safe, so use one per thread.
+     */
+    public DishRecord record() {
+        return new DishRecord(this);
+    }
+
+    public Dish get(int index) {
+        return record().at(index).toDish();
+    }
+
+    /**
+     * A read-only list view that materializes each dish as it is read.
+     */
+    public List<Dish> asList() {
+        return new DishList();
+    }
+
+    /**
+     * Direct memory held by the records and their names.
+     */
+    public long offHeapBytes() {
+        return records.bytes() + data.bytes();
+    }
+
+    MealType mealTypeCode(byte ordinal) {
+        return MealType.values()[ordinal];
+    }
+
+    private final class DishList extends AbstractList<Dish> implements RandomAccess {
+        @Override
+        public Dish get(int index) {
+            if (index < 0 || index >= size()) throw new IndexOutOfBoundsException(index);
+            return OffHeapDishStore.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return OffHeapDishStore.this.size();
+        }
+    }
+}
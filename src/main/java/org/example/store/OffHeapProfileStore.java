@@ -0,0 +1,121 @@
+package org.example.store;
+
+import org.example.entity.Preference;
+import org.example.entity.Profile;
+import org.example.utility.Vocabulary;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Profiles in direct memory as fixed 72 byte records, so a batch of a hundred million profiles
+ * can be held without a heap of the same size. Read records through a {@link ProfileRecord}
+ * flyweight, which the planner accepts directly, or materialize a Profile with
+ * {@link #get(long)}.
+ * <p>
+ * Preferences are kept as their {@link org.example.entity.Preference} mask, so keys the
+ * planner does not know are dropped; the same goes for score weights, which are written to the
+ * data arena only for profiles that have any. Allergens and regions are stored as their
+ * {@link Vocabulary} masks, and missing sets come back empty. Same threading rules as
+ * {@link OffHeapDishStore}.
+ */
+public final class OffHeapProfileStore {
+
+    static final int CALORIE_TARGET = 0;
+    static final int AGE = 4;
+    static final int ALLERGEN_MASK = 8;
+    static final int REGION_MASK = 16;
+    static final int MIN_PROTEIN = 24;
+    static final int MAX_CARBS = 32;
+    static final int MAX_SODIUM = 40;
+    static final int DIET = 44;
+    static final int DIET_CODE = 46;
+    static final int PREFERENCES = 47;
+    static final int ALLERGENS = 48;
+    static final int REGIONS = 56;
+    static final int WEIGHTS = 64;
+    static final int RECORD_BYTES = 72;
+
+    // Above the Preference bits: whether the profile had a preference map at all
+    static final int HAS_PREFERENCES = 0x80;
+
+    final RecordArena records = new RecordArena(RECORD_BYTES);
+    final DataArena data = new DataArena();
+    final Terms.Spellings diets = new Terms.Spellings();
+
+    public static OffHeapProfileStore load(Stream<Profile> profiles) {
+        OffHeapProfileStore store = new OffHeapProfileStore();
+        Iterator<Profile> it = profiles.iterator();
+        while (it.hasNext()) store.add(it.next());
+        return store;
+    }
+
+    /**
+     * Appends a profile and returns its position.
+     */
+    public long add(Profile profile) {
+        long index = records.append();
+        ByteBuffer chunk = records.chunk(index);
+        int at = records.offset(index);
+        chunk.putInt(at + CALORIE_TARGET, profile.getCalorieTarget());
+        chunk.putInt(at + AGE, profile.getAge());
+        chunk.putLong(at + ALLERGEN_MASK, profile.getAllergenMask());
+        chunk.putLong(at + REGION_MASK, profile.getRegionMask());
+        chunk.putDouble(at + MIN_PROTEIN, profile.getMinProtein());
+        chunk.putDouble(at + MAX_CARBS, profile.getMaxCarbs());
+        chunk.putInt(at + MAX_SODIUM, profile.getMaxSodium());
+        chunk.putShort(at + DIET, diets.id(profile.getDiet()));
+        chunk.put(at + DIET_CODE, (byte) profile.getDietCode().ordinal());
+        chunk.put(at + PREFERENCES, (byte) (profile.getPreferenceMask() | (profile.getPreferences() != null ? HAS_PREFERENCES : 0)));
+        chunk.putLong(at + ALLERGENS, Terms.put(data, profile.getExcludeAllergens(), profile.getAllergenMask()));
+        chunk.putLong(at + REGIONS, Terms.put(data, profile.getPreferredRegions(), profile.getRegionMask()));
+        chunk.putLong(at + WEIGHTS, putWeights(profile.getPreferenceWeights()));
+        return index;
+    }
+
+    // One double per preference, NaN where the weight is not set
+    private long putWeights(Map<String, Double> weights) {
+        if (weights == null || weights.isEmpty()) return DataArena.NONE;
+        ByteBuffer values = ByteBuffer.allocate(8 * Preference.values().length).order(ByteOrder.nativeOrder());
+        for (Preference preference : Preference.values()) {
+            Double weight = weights.get(preference.key());
+            values.putDouble(weight == null ? Double.NaN : weight);
+        }
+        return data.putBytes(values.array());
+    }
+
+    public long size() {
+        return records.size();
+    }
+
+    /**
+     * A new flyweight over this store; position it with {@link ProfileRecord#at(long)}. Use one
+     * per thread.
+     */
+    public ProfileRecord record() {
+        return new ProfileRecord(this);
+    }
+
+    public Profile get(long index) {
+        return record().at(index).toProfile();
+    }
+
+    /**
+     * Materializes the profiles in order, one at a time.
+     */
+    public Stream<Profile> stream() {
+        ProfileRecord record = record();
+        return LongStream.range(0, size()).mapToObj(i -> record.at(i).toProfile());
+    }
+
+    /**
+     * Direct memory held by the records and their overflow term lists.
+     */
+    public long offHeapBytes() {
+        return records.bytes() + data.bytes();
+    }
+}
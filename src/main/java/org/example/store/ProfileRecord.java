@@ -0,0 +1,133 @@
+package org.example.store;
+
+import org.example.entity.Diet;
+import org.example.entity.Preference;
+import org.example.entity.Profile;
+import org.example.utility.Vocabulary;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.example.store.OffHeapProfileStore.*;
+
+/**
+ * Flyweight over one record of an {@link OffHeapProfileStore}. Everything the planner needs
+ * (calorie target, budgets, masks, diet and preferences) is read without allocating; the term
+ * sets are only needed when a mask has {@link Vocabulary#OVERFLOW} set, and the score weights
+ * only for profiles that have them. Not thread safe.
+ */
+public final class ProfileRecord {
+
+    private static final Diet[] DIETS = Diet.values();
+
+    private final OffHeapProfileStore store;
+    private ByteBuffer chunk;
+    private int at;
+    private long index = -1;
+
+    ProfileRecord(OffHeapProfileStore store) {
+        this.store = store;
+    }
+
+    public ProfileRecord at(long index) {
+        if (index < 0 || index >= store.size()) throw new IndexOutOfBoundsException("Profile " + index);
+        this.chunk = store.records.chunk(index);
+        this.at = store.records.offset(index);
+        this.index = index;
+        return this;
+    }
+
+    public long index() {
+        return index;
+    }
+
+    public int getCalorieTarget() {
+        return chunk.getInt(at + CALORIE_TARGET);
+    }
+
+    public int getAge() {
+        return chunk.getInt(at + AGE);
+    }
+
+    public long getAllergenMask() {
+        return chunk.getLong(at + ALLERGEN_MASK);
+    }
+
+    public long getRegionMask() {
+        return chunk.getLong(at + REGION_MASK);
+    }
+
+    public int getMaxSodium() {
+        return chunk.getInt(at + MAX_SODIUM);
+    }
+
+    public double getMinProtein() {
+        return chunk.getDouble(at + MIN_PROTEIN);
+    }
+
+    public double getMaxCarbs() {
+        return chunk.getDouble(at + MAX_CARBS);
+    }
+
+    public Diet getDietCode() {
+        return DIETS[chunk.get(at + DIET_CODE)];
+    }
+
+    public String getDiet() {
+        return store.diets.value(chunk.getShort(at + DIET));
+    }
+
+    /**
+     * The {@link Preference} bits, as in {@link Profile#getPreferenceMask()}.
+     */
+    public int getPreferenceMask() {
+        return chunk.get(at + PREFERENCES) & 0xFF & ~HAS_PREFERENCES;
+    }
+
+    public boolean prefers(Preference preference) {
+        return preference.in(getPreferenceMask());
+    }
+
+    public Set<String> getExcludeAllergens() {
+        return Terms.get(store.data, Vocabulary.ALLERGENS, getAllergenMask(), chunk.getLong(at + ALLERGENS));
+    }
+
+    public Set<String> getPreferredRegions() {
+        return Terms.get(store.data, Vocabulary.REGIONS, getRegionMask(), chunk.getLong(at + REGIONS));
+    }
+
+    public Map<String, Boolean> getPreferences() {
+        if ((chunk.get(at + PREFERENCES) & HAS_PREFERENCES) == 0) return null;
+        Map<String, Boolean> preferences = new HashMap<>();
+        for (Preference preference : Preference.values()) preferences.put(preference.key(), prefers(preference));
+        return preferences;
+    }
+
+    /**
+     * The profile's score weights by preference key, or null if it had none.
+     */
+    public Map<String, Double> getPreferenceWeights() {
+        long ref = chunk.getLong(at + WEIGHTS);
+        if (ref == DataArena.NONE) return null;
+        ByteBuffer values = ByteBuffer.wrap(store.data.getBytes(ref)).order(ByteOrder.nativeOrder());
+        Map<String, Double> weights = new HashMap<>();
+        for (Preference preference : Preference.values()) {
+            double weight = values.getDouble();
+            if (!Double.isNaN(weight)) weights.put(preference.key(), weight);
+        }
+        return weights;
+    }
+
+    public Profile toProfile() {
+        Profile profile = new Profile(getCalorieTarget(), getExcludeAllergens(), getDiet(), getPreferences(), getAge(),
+                getPreferredRegions());
+        profile.setMaxSodium(getMaxSodium());
+        profile.setMinProtein(getMinProtein());
+        profile.setMaxCarbs(getMaxCarbs());
+        profile.setPreferenceWeights(getPreferenceWeights());
+        return profile;
+    }
+}
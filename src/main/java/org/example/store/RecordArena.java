@@ -0,0 +1,56 @@
+package org.example.store;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size records in direct memory. Records live in chunks so that one arena can hold more
+ * than the 2 GB a single ByteBuffer can address, and a record never straddles two chunks, so
+ * the chunk and offset of a record are a shift and a mask away.
+ * <p>
+ * Filled by one thread, then read by any number: reads use absolute gets only.
+ */
+final class RecordArena {
+
+    private static final int CHUNK_BYTES = 64 << 20;
+
+    private final int recordBytes;
+    private final int shift;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private long size;
+
+    RecordArena(int recordBytes) {
+        this.recordBytes = recordBytes;
+        this.shift = 31 - Integer.numberOfLeadingZeros(CHUNK_BYTES / recordBytes);
+    }
+
+    /**
+     * Reserves the next record and returns its index.
+     */
+    long append() {
+        long index = size;
+        if ((int) (index >>> shift) == chunks.size()) {
+            chunks.add(ByteBuffer.allocateDirect(recordBytes << shift).order(ByteOrder.nativeOrder()));
+        }
+        size++;
+        return index;
+    }
+
+    ByteBuffer chunk(long index) {
+        return chunks.get((int) (index >>> shift));
+    }
+
+    int offset(long index) {
+        return (int) (index & ((1L << shift) - 1)) * recordBytes;
+    }
+
+    long size() {
+        return size;
+    }
+
+    long bytes() {
+        return (long) chunks.size() * (recordBytes << shift);
+    }
+}
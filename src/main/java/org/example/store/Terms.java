@@ -0,0 +1,70 @@
+package org.example.store;
+
+import org.example.utility.Vocabulary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Term sets and low-cardinality strings in fixed-layout records.
+ * <p>
+ * A term set is stored as its {@link Vocabulary} mask. Only sets with a term the mask cannot
+ * name ({@link Vocabulary#OVERFLOW}) also get their spellings written to the data arena, so
+ * storing a profile never assigns codes. A missing set comes back empty.
+ */
+final class Terms {
+
+    private Terms() {
+    }
+
+    // Terms are joined with NUL, which the CSV loaders never produce inside a term
+    private static final char SEPARATOR = '\0';
+
+    static long put(DataArena data, Set<String> terms, long mask) {
+        if ((mask & Vocabulary.OVERFLOW) == 0) return DataArena.NONE;
+        return data.putBytes(String.join(String.valueOf(SEPARATOR), terms).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Set<String> get(DataArena data, Vocabulary vocabulary, long mask, long ref) {
+        Set<String> terms = new HashSet<>();
+        if (ref != DataArena.NONE) {
+            String joined = new String(data.getBytes(ref), StandardCharsets.UTF_8);
+            for (int from = 0, to; from <= joined.length(); from = to + 1) {
+                to = joined.indexOf(SEPARATOR, from);
+                if (to < 0) to = joined.length();
+                terms.add(vocabulary.canonical(joined.substring(from, to)));
+            }
+        } else {
+            for (long bits = mask; bits != 0; bits &= bits - 1) terms.add(vocabulary.term(Long.numberOfTrailingZeros(bits)));
+        }
+        return terms;
+    }
+
+    /**
+     * Distinct spellings of a field such as diet or meal type, kept on the heap and referenced
+     * from records by a short id; -1 stands for null.
+     */
+    static final class Spellings {
+        private final Map<String, Short> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        short id(String value) {
+            if (value == null) return -1;
+            Short id = ids.get(value);
+            if (id != null) return id;
+            if (values.size() > Short.MAX_VALUE) throw new IllegalArgumentException("Too many distinct values: " + value);
+            values.add(value);
+            ids.put(value, (short) (values.size() - 1));
+            return (short) (values.size() - 1);
+        }
+
+        String value(short id) {
+            return id < 0 ? null : values.get(id);
+        }
+    }
+}
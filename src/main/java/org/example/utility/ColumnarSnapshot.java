@@ -0,0 +1,357 @@
+package org.example.utility;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Versioned binary columnar file used by {@link DishLoader} and {@link profileLoader} to skip
+ * CSV parsing on restart.
+ * <pre>
+ * header  int magic, short version, short kind, int rows, int strings, long crc32 of the rest
+ * pool    int[strings + 1] byte offsets, then the UTF-8 bytes of every distinct string
+ * columns fixed width, in the order the loader wrote them, each 8-byte aligned
+ * </pre>
+ * Strings (names, allergens, regions, ...) are stored once in the pool and referenced by id.
+ * Multi-valued fields are a start offset column plus a column of ids. Everything is little
+ * endian. Files are written to a temp file and renamed, so readers never see a partial file.
+ */
+public final class ColumnarSnapshot {
+
+    static final int MAGIC = 0x50534D48; // "HMSP"
+    // 2: profile budget columns, 3: profile weight columns
+    static final short VERSION = 3;
+    public static final short KIND_DISHES = 1;
+    public static final short KIND_PROFILES = 2;
+    private static final int HEADER_SIZE = 24;
+
+    private ColumnarSnapshot() {
+    }
+
+    /**
+     * True if the file starts with the snapshot magic number.
+     */
+    public static boolean isSnapshot(Path path) {
+        if (!Files.isRegularFile(path)) return false;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            return channel.read(head, 0) == 4 && head.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * True if {@code snapshot} exists, was modified after {@code source} and has this version.
+     * Equal timestamps count as stale, since on coarse clocks the source may have changed within
+     * the same tick; an older version counts as stale so it gets rewritten.
+     */
+    public static boolean isFresh(Path snapshot, Path source) {
+        if (!Files.isRegularFile(snapshot)) return false;
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(6).order(ByteOrder.LITTLE_ENDIAN);
+            return channel.read(head, 0) == 6 && head.getInt(0) == MAGIC && head.getShort(4) == VERSION
+                    && Files.getLastModifiedTime(snapshot).compareTo(Files.getLastModifiedTime(source)) > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Collects a snapshot's string pool and columns in memory, then writes the file in one go.
+     */
+    public static final class Writer {
+        private final short kind;
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<byte[]> strings = new ArrayList<>();
+        private final List<ByteBuffer> columns = new ArrayList<>();
+        private int rows = -1;
+
+        public Writer(short kind) {
+            this.kind = kind;
+        }
+
+        public int stringId(String s) {
+            return ids.computeIfAbsent(s, k -> {
+                strings.add(k.getBytes(StandardCharsets.UTF_8));
+                return strings.size() - 1;
+            });
+        }
+
+        public void rows(int rows) {
+            this.rows = rows;
+        }
+
+        public void intColumn(int[] values, int length) {
+            ByteBuffer column = allocate(length * 4L);
+            for (int i = 0; i < length; i++) column.putInt(values[i]);
+            columns.add(column);
+        }
+
+        public void intColumn(IntList values) {
+            intColumn(values.array(), values.size());
+        }
+
+        public void doubleColumn(DoubleList values) {
+            doubleColumn(values.array(), values.size());
+        }
+
+        public void doubleColumn(double[] values, int length) {
+            ByteBuffer column = allocate(length * 8L);
+            for (int i = 0; i < length; i++) column.putDouble(values[i]);
+            columns.add(column);
+        }
+
+        public void byteColumn(byte[] values, int length) {
+            ByteBuffer column = allocate(length);
+            column.put(values, 0, length);
+            columns.add(column);
+        }
+
+        /**
+         * Writes the low byte of each value, for small flag and enum columns.
+         */
+        public void byteColumn(IntList values) {
+            ByteBuffer column = allocate(values.size());
+            for (int i = 0; i < values.size(); i++) column.put((byte) values.array()[i]);
+            columns.add(column);
+        }
+
+        private static ByteBuffer allocate(long bytes) {
+            if (bytes > Integer.MAX_VALUE) throw new IllegalStateException("Snapshot column over 2GB");
+            return ByteBuffer.allocate((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        public void write(Path path) throws IOException {
+            if (rows < 0) throw new IllegalStateException("Row count not set");
+            long size = align(HEADER_SIZE + 4L * (strings.size() + 1) + poolBytes());
+            for (ByteBuffer column : columns) size = align(size + column.capacity());
+            if (size > Integer.MAX_VALUE) throw new IOException("Snapshot over 2GB: " + path);
+
+            ByteBuffer out = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+            out.position(HEADER_SIZE);
+            int offset = 0;
+            for (byte[] s : strings) {
+                out.putInt(offset);
+                offset += s.length;
+            }
+            out.putInt(offset);
+            for (byte[] s : strings) out.put(s);
+            pad(out);
+            for (ByteBuffer column : columns) {
+                out.put(column.array(), 0, column.capacity());
+                pad(out);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(out.array(), HEADER_SIZE, (int) size - HEADER_SIZE);
+            out.putInt(0, MAGIC);
+            out.putShort(4, VERSION);
+            out.putShort(6, kind);
+            out.putInt(8, rows);
+            out.putInt(12, strings.size());
+            out.putLong(16, crc.getValue());
+
+            // Not createTempFile: its owner-only permissions would carry over to the snapshot
+            Path tmp = path.resolveSibling(path.getFileName() + "." + ProcessHandle.current().pid()
+                    + "-" + Thread.currentThread().getId() + ".tmp");
+            try {
+                Files.write(tmp, out.array());
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+
+        private long poolBytes() {
+            long total = 0;
+            for (byte[] s : strings) total += s.length;
+            return total;
+        }
+    }
+
+    /**
+     * A mapped, checksum-verified snapshot. Columns are read back in the order they were written.
+     */
+    public static final class Reader {
+        private final ByteBuffer buffer;
+        private final int rows;
+        private final String[] strings;
+        private int position;
+
+        private Reader(ByteBuffer buffer, int rows, String[] strings, int position) {
+            this.buffer = buffer;
+            this.rows = rows;
+            this.strings = strings;
+            this.position = position;
+        }
+
+        public static Reader open(Path path, short kind) throws IOException {
+            MappedByteBuffer mapped;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) throw new IOException("Snapshot over 2GB: " + path);
+                if (channel.size() < HEADER_SIZE) throw new IOException("Not a snapshot: " + path);
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) throw new IOException("Not a snapshot: " + path);
+            if (buffer.getShort(4) != VERSION) {
+                throw new IOException("Unsupported snapshot version " + buffer.getShort(4) + ": " + path);
+            }
+            if (buffer.getShort(6) != kind) throw new IOException("Wrong snapshot kind " + buffer.getShort(6) + ": " + path);
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(HEADER_SIZE));
+            if (crc.getValue() != buffer.getLong(16)) throw new IOException("Snapshot checksum mismatch: " + path);
+
+            int rows = buffer.getInt(8);
+            int count = buffer.getInt(12);
+            int bytesStart = HEADER_SIZE + 4 * (count + 1);
+            String[] strings = new String[count];
+            byte[] scratch = new byte[64];
+            for (int i = 0; i < count; i++) {
+                int start = buffer.getInt(HEADER_SIZE + 4 * i);
+                int length = buffer.getInt(HEADER_SIZE + 4 * (i + 1)) - start;
+                if (scratch.length < length) scratch = new byte[length];
+                buffer.get(bytesStart + start, scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            int position = (int) align(bytesStart + (long) buffer.getInt(HEADER_SIZE + 4 * count));
+            return new Reader(buffer, rows, strings, position);
+        }
+
+        public int rows() {
+            return rows;
+        }
+
+        /**
+         * The decoded string pool, indexed by id. Callers may replace entries, e.g. with
+         * {@link Vocabulary} instances, before building objects from them.
+         */
+        public String[] strings() {
+            return strings;
+        }
+
+        public IntColumn intColumn(int length) {
+            IntColumn column = new IntColumn(buffer, position, length);
+            position = (int) align(position + 4L * length);
+            return column;
+        }
+
+        public DoubleColumn doubleColumn(int length) {
+            DoubleColumn column = new DoubleColumn(buffer, position);
+            position = (int) align(position + 8L * length);
+            return column;
+        }
+
+        public ByteColumn byteColumn(int length) {
+            ByteColumn column = new ByteColumn(buffer, position);
+            position = (int) align(position + length);
+            return column;
+        }
+    }
+
+    public static final class IntColumn {
+        private final ByteBuffer buffer;
+        private final int base;
+        private final int length;
+
+        IntColumn(ByteBuffer buffer, int base, int length) {
+            this.buffer = buffer;
+            this.base = base;
+            this.length = length;
+        }
+
+        public int get(int i) {
+            return buffer.getInt(base + (i << 2));
+        }
+
+        public int length() {
+            return length;
+        }
+    }
+
+    public static final class DoubleColumn {
+        private final ByteBuffer buffer;
+        private final int base;
+
+        DoubleColumn(ByteBuffer buffer, int base) {
+            this.buffer = buffer;
+            this.base = base;
+        }
+
+        public double get(int i) {
+            return buffer.getDouble(base + (i << 3));
+        }
+    }
+
+    public static final class ByteColumn {
+        private final ByteBuffer buffer;
+        private final int base;
+
+        ByteColumn(ByteBuffer buffer, int base) {
+            this.buffer = buffer;
+            this.base = base;
+        }
+
+        public byte get(int i) {
+            return buffer.get(base + i);
+        }
+    }
+
+    /**
+     * Growable int array for building list columns while rows are streamed in.
+     */
+    public static final class IntList {
+        private int[] values = new int[64];
+        private int size;
+
+        public void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int[] array() {
+            return values;
+        }
+    }
+
+    public static final class DoubleList {
+        private double[] values = new double[64];
+        private int size;
+
+        public void add(double value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public double[] array() {
+            return values;
+        }
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    private static void pad(ByteBuffer out) {
+        out.position((int) align(out.position()));
+    }
+}
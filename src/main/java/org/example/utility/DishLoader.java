@@ -1,55 +1,183 @@
 package org.example.utility;
 
 import org.example.entity.Dish;
+import org.example.entity.MealType;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 
 public class DishLoader {
 
     public static List<Dish> loadDishesFromCSV(String filename) {
+        try {
+            return readDishesFromCSV(filename);
+        } catch (Exception e) {
+            System.err.println("Error loading dishes: " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Reads dishes from a CSV file through its binary snapshot ({@code <file>.snap}) when the
+     * snapshot is newer than the CSV. Otherwise the CSV is parsed and the snapshot is
+     * rewritten for the next start. A snapshot path can also be passed directly.
+     */
+    public static List<Dish> readDishes(String filename) throws IOException {
+        Path path = Path.of(filename);
+        if (ColumnarSnapshot.isSnapshot(path)) {
+            return readDishesFromSnapshot(path);
+        }
+        Path snapshot = Path.of(filename + ".snap");
+        if (ColumnarSnapshot.isFresh(snapshot, path)) {
+            try {
+                return readDishesFromSnapshot(snapshot);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Ignoring unreadable dish snapshot: " + e.getMessage());
+            }
+        }
+        List<Dish> dishes = readDishesFromCSV(filename);
+        try {
+            writeSnapshot(dishes, snapshot);
+        } catch (IOException e) {
+            System.err.println("Could not write dish snapshot: " + e.getMessage());
+        }
+        return dishes;
+    }
+
+    /**
+     * Like {@link #loadDishesFromCSV(String)}, but read errors are thrown instead of logged, so
+     * callers can tell a broken file from an empty menu.
+     */
+    public static List<Dish> readDishesFromCSV(String filename) throws IOException {
         List<Dish> dishes = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String headerLine = br.readLine(); // Skip header
-            String line;
-            while ((line = br.readLine()) != null) {
-                // Split CSV line (simple split, assumes no commas in fields except availability_regions)
-                String[] parts = line.split(",", -1);
-                if (parts.length < 12) continue; // Basic validation
+        try (MappedCsvReader csv = MappedCsvReader.open(filename)) {
+            csv.next(); // Skip header
+            while (csv.next()) {
+                if (csv.fieldCount() < 12) continue; // Basic validation
 
-                String name = parts[0];
-                int calories = Integer.parseInt(parts[1]);
+                String name = csv.getString(0);
+                int calories = csv.getInt(1);
                 Set<String> allergens = new HashSet<>();
-                if (!parts[2].equalsIgnoreCase("None") && !parts[2].isEmpty()) {
-                    String[] allergenArr = parts[2].split(";");
-                    for (String allergen : allergenArr) {
-                        allergens.add(allergen.trim().toLowerCase());
+                if (!csv.equalsIgnoreCase(2, "None") && !csv.isEmpty(2)) {
+                    for (String allergen : csv.getParts(2, ';')) {
+                        allergens.add(Vocabulary.ALLERGENS.intern(allergen.toLowerCase()));
                     }
                 }
-                double protein = Double.parseDouble(parts[3]);
-                double fiber = Double.parseDouble(parts[4]);
-                double carbs = Double.parseDouble(parts[5]);
-                int sodium = Integer.parseInt(parts[6]);
-                String mealType = parts[7].toLowerCase();
-                String cuisine = parts[8];
-                boolean isVegetarian = Boolean.parseBoolean(parts[9]);
-                boolean isVegan = Boolean.parseBoolean(parts[10]);
+                double protein = csv.getDouble(3);
+                double fiber = csv.getDouble(4);
+                double carbs = csv.getDouble(5);
+                int sodium = csv.getInt(6);
+                String mealType = csv.getString(7).toLowerCase();
+                MealType mealTypeCode = MealType.of(mealType);
+                if (mealTypeCode != MealType.OTHER) mealType = mealTypeCode.key();
+                boolean isVegetarian = csv.getBoolean(9);
+                boolean isVegan = csv.getBoolean(10);
 
+                // availability_regions is quoted, e.g. "North America;Europe"
                 Set<String> availabilityRegions = new HashSet<>();
-                if (!parts[11].isEmpty()) {
-                    String[] regions = parts[11].split(";");
-                    for (String region : regions) {
-                        availabilityRegions.add(region.trim());
-                    }
+                for (String region : csv.getParts(11, ';')) {
+                    availabilityRegions.add(Vocabulary.REGIONS.intern(region));
                 }
 
                 Dish dish = new Dish(name, calories, allergens, protein, fiber, carbs, sodium, mealType, availabilityRegions, isVegetarian, isVegan);
                 dishes.add(dish);
             }
-        } catch (Exception e) {
-            System.err.println("Error loading dishes: " + e.getMessage());
-            e.printStackTrace();
+        }
+        return dishes;
+    }
+
+    public static void writeSnapshot(List<Dish> dishes, Path path) throws IOException {
+        int n = dishes.size();
+        ColumnarSnapshot.Writer out = new ColumnarSnapshot.Writer(ColumnarSnapshot.KIND_DISHES);
+        int[] names = new int[n];
+        int[] calories = new int[n];
+        int[] sodium = new int[n];
+        int[] mealTypes = new int[n];
+        byte[] flags = new byte[n];
+        double[] protein = new double[n];
+        double[] fiber = new double[n];
+        double[] carbs = new double[n];
+        int[] allergenStarts = new int[n + 1];
+        ColumnarSnapshot.IntList allergenIds = new ColumnarSnapshot.IntList();
+        int[] regionStarts = new int[n + 1];
+        ColumnarSnapshot.IntList regionIds = new ColumnarSnapshot.IntList();
+        for (int i = 0; i < n; i++) {
+            Dish d = dishes.get(i);
+            names[i] = out.stringId(d.getName());
+            calories[i] = d.getCalories();
+            sodium[i] = d.getSodium();
+            mealTypes[i] = out.stringId(d.getMealType());
+            flags[i] = (byte) ((d.isVegetarian() ? 1 : 0) | (d.isVegan() ? 2 : 0));
+            protein[i] = d.getProtein();
+            fiber[i] = d.getFiber();
+            carbs[i] = d.getCarbs();
+            allergenStarts[i] = allergenIds.size();
+            if (d.getAllergens() != null) {
+                for (String allergen : d.getAllergens()) allergenIds.add(out.stringId(allergen));
+            }
+            regionStarts[i] = regionIds.size();
+            if (d.getAvailabilityRegions() != null) {
+                for (String region : d.getAvailabilityRegions()) regionIds.add(out.stringId(region));
+            }
+        }
+        allergenStarts[n] = allergenIds.size();
+        regionStarts[n] = regionIds.size();
+
+        out.rows(n);
+        out.intColumn(names, n);
+        out.intColumn(calories, n);
+        out.intColumn(sodium, n);
+        out.intColumn(mealTypes, n);
+        out.byteColumn(flags, n);
+        out.doubleColumn(protein, n);
+        out.doubleColumn(fiber, n);
+        out.doubleColumn(carbs, n);
+        out.intColumn(allergenStarts, n + 1);
+        out.intColumn(allergenIds);
+        out.intColumn(regionStarts, n + 1);
+        out.intColumn(regionIds);
+        out.write(path);
+    }
+
+    public static List<Dish> readDishesFromSnapshot(Path path) throws IOException {
+        ColumnarSnapshot.Reader in = ColumnarSnapshot.Reader.open(path, ColumnarSnapshot.KIND_DISHES);
+        int n = in.rows();
+        String[] strings = in.strings();
+        ColumnarSnapshot.IntColumn names = in.intColumn(n);
+        ColumnarSnapshot.IntColumn calories = in.intColumn(n);
+        ColumnarSnapshot.IntColumn sodium = in.intColumn(n);
+        ColumnarSnapshot.IntColumn mealTypes = in.intColumn(n);
+        ColumnarSnapshot.ByteColumn flags = in.byteColumn(n);
+        ColumnarSnapshot.DoubleColumn protein = in.doubleColumn(n);
+        ColumnarSnapshot.DoubleColumn fiber = in.doubleColumn(n);
+        ColumnarSnapshot.DoubleColumn carbs = in.doubleColumn(n);
+        ColumnarSnapshot.IntColumn allergenStarts = in.intColumn(n + 1);
+        ColumnarSnapshot.IntColumn allergenIds = in.intColumn(allergenStarts.get(n));
+        ColumnarSnapshot.IntColumn regionStarts = in.intColumn(n + 1);
+        ColumnarSnapshot.IntColumn regionIds = in.intColumn(regionStarts.get(n));
+
+        // Allergen and region ids resolve to the shared vocabulary instances, as with the CSV path
+        String[] allergens = new String[strings.length];
+        String[] regions = new String[strings.length];
+        List<Dish> dishes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Set<String> dishAllergens = new HashSet<>();
+            for (int a = allergenStarts.get(i); a < allergenStarts.get(i + 1); a++) {
+                int id = allergenIds.get(a);
+                if (allergens[id] == null) allergens[id] = Vocabulary.ALLERGENS.intern(strings[id]);
+                dishAllergens.add(allergens[id]);
+            }
+            Set<String> dishRegions = new HashSet<>();
+            for (int r = regionStarts.get(i); r < regionStarts.get(i + 1); r++) {
+                int id = regionIds.get(r);
+                if (regions[id] == null) regions[id] = Vocabulary.REGIONS.intern(strings[id]);
+                dishRegions.add(regions[id]);
+            }
+            byte flag = flags.get(i);
+            dishes.add(new Dish(strings[names.get(i)], calories.get(i), dishAllergens, protein.get(i), fiber.get(i),
+                    carbs.get(i), sodium.get(i), strings[mealTypes.get(i)], dishRegions, (flag & 1) != 0, (flag & 2) != 0));
         }
         return dishes;
     }
@@ -0,0 +1,185 @@
+package org.example.utility;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small recursive descent JSON parser for request bodies. Objects become {@code Map<String, Object>},
+ * arrays {@code List<Object>}, numbers {@code Double} or {@code Long}, plus {@code String},
+ * {@code Boolean} and null. Malformed input throws {@link IllegalArgumentException}.
+ */
+public final class JsonParser {
+
+    private static final int MAX_DEPTH = 32;
+
+    private final String text;
+    private int pos;
+
+    private JsonParser(String text) {
+        this.text = text;
+    }
+
+    public static Object parse(String text) {
+        JsonParser parser = new JsonParser(text);
+        Object value = parser.value(0);
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) throw parser.error("Trailing characters");
+        return value;
+    }
+
+    private Object value(int depth) {
+        if (depth > MAX_DEPTH) throw error("Nesting too deep");
+        skipWhitespace();
+        if (pos >= text.length()) throw error("Unexpected end of input");
+        char c = text.charAt(pos);
+        switch (c) {
+            case '{': return object(depth);
+            case '[': return array(depth);
+            case '"': return string();
+            case 't': return literal("true", Boolean.TRUE);
+            case 'f': return literal("false", Boolean.FALSE);
+            case 'n': return literal("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) return number();
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> object(int depth) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        pos++;
+        skipWhitespace();
+        if (peek('}')) return map;
+        while (true) {
+            skipWhitespace();
+            if (pos >= text.length() || text.charAt(pos) != '"') throw error("Expected field name");
+            String key = string();
+            skipWhitespace();
+            expect(':');
+            map.put(key, value(depth + 1));
+            skipWhitespace();
+            if (peek('}')) return map;
+            expect(',');
+        }
+    }
+
+    private List<Object> array(int depth) {
+        List<Object> list = new ArrayList<>();
+        pos++;
+        skipWhitespace();
+        if (peek(']')) return list;
+        while (true) {
+            list.add(value(depth + 1));
+            skipWhitespace();
+            if (peek(']')) return list;
+            expect(',');
+        }
+    }
+
+    private String string() {
+        pos++; // opening quote
+        StringBuilder sb = null;
+        int start = pos;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c == '"') {
+                String s = sb == null ? text.substring(start, pos) : sb.append(text, start, pos).toString();
+                pos++;
+                return s;
+            }
+            if (c == '\\') {
+                if (sb == null) sb = new StringBuilder();
+                sb.append(text, start, pos);
+                sb.append(escape());
+                start = pos;
+            } else {
+                if (c < 0x20) throw error("Control character in string");
+                pos++;
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private char escape() {
+        if (pos + 1 >= text.length()) throw error("Unterminated escape");
+        char c = text.charAt(pos + 1);
+        pos += 2;
+        switch (c) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '/': return '/';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'u':
+                if (pos + 4 > text.length()) throw error("Bad unicode escape");
+                try {
+                    char u = (char) Integer.parseInt(text.substring(pos, pos + 4), 16);
+                    pos += 4;
+                    return u;
+                } catch (NumberFormatException e) {
+                    throw error("Bad unicode escape");
+                }
+            default:
+                throw error("Bad escape '\\" + c + "'");
+        }
+    }
+
+    private Object number() {
+        int start = pos;
+        boolean integral = true;
+        if (text.charAt(pos) == '-') pos++;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                pos++;
+            } else if (c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                integral = false;
+                pos++;
+            } else {
+                break;
+            }
+        }
+        String s = text.substring(start, pos);
+        try {
+            if (integral && s.length() < 19) return Long.parseLong(s);
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            throw error("Bad number '" + s + "'");
+        }
+    }
+
+    private Object literal(String word, Object value) {
+        if (!text.startsWith(word, pos)) throw error("Unexpected token");
+        pos += word.length();
+        return value;
+    }
+
+    private boolean peek(char c) {
+        if (pos < text.length() && text.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!peek(c)) throw error("Expected '" + c + "'");
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') break;
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos);
+    }
+}
@@ -0,0 +1,444 @@
+package org.example.utility;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Forward-only RFC 4180 CSV reader over a memory-mapped file.
+ * A record is tokenized in place as start/end offsets into the mapping; numbers and booleans
+ * are parsed straight from the bytes and a String is only created when a caller asks for one.
+ * The file is mapped in windows, so inputs larger than 2 GB work too.
+ * <p>
+ * A reader can be limited to a byte range, e.g. one shard of a large file; it returns the
+ * records that start inside the range. See {@link #split(Path, long, int)}.
+ */
+public final class MappedCsvReader implements Closeable {
+
+    private static final int DEFAULT_WINDOW = 64 << 20;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final int window;
+    private final long end;
+
+    private MappedByteBuffer buffer;
+    private long bufferStart;
+    private int bufferLimit;
+    private int position;
+
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16];
+    private int fieldCount;
+    private int recordStart;
+    private int recordEnd;
+    private byte[] scratch = new byte[128];
+
+    private MappedCsvReader(FileChannel channel, int window, long start, long end) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.window = window;
+        this.end = end;
+        map(Math.min(start, fileSize));
+        if (start == 0 && bufferLimit >= 3 && (buffer.get(0) & 0xFF) == 0xEF && (buffer.get(1) & 0xFF) == 0xBB && (buffer.get(2) & 0xFF) == 0xBF) {
+            position = 3; // UTF-8 byte order mark
+        }
+    }
+
+    public static MappedCsvReader open(String filename) throws IOException {
+        return open(Path.of(filename));
+    }
+
+    public static MappedCsvReader open(Path path) throws IOException {
+        return open(path, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads the records starting at or after byte {@code start} and before byte {@code end}.
+     * {@code start} must be the start of a record, e.g. an offset from {@link #split}.
+     */
+    public static MappedCsvReader open(Path path, long start, long end) throws IOException {
+        return new MappedCsvReader(FileChannel.open(path, StandardOpenOption.READ), DEFAULT_WINDOW, start, end);
+    }
+
+    static MappedCsvReader open(Path path, int window) throws IOException {
+        return new MappedCsvReader(FileChannel.open(path, StandardOpenOption.READ), window, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Splits the bytes from {@code from} to the end of the file into {@code parts} ranges of
+     * about equal size, each starting right after a line break. Boundaries are found by
+     * scanning forward for {@code '\n'}, so records must not contain quoted line breaks.
+     *
+     * @return {@code parts + 1} ascending offsets; range i is {@code [offsets[i], offsets[i + 1])}.
+     * Ranges can be empty when lines are longer than a part.
+     */
+    public static long[] split(Path path, long from, int parts) throws IOException {
+        if (parts < 1) throw new IllegalArgumentException("parts must be positive: " + parts);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] offsets = new long[parts + 1];
+            offsets[0] = Math.min(from, size);
+            offsets[parts] = size;
+            ByteBuffer chunk = ByteBuffer.allocate(8192);
+            for (int i = 1; i < parts; i++) {
+                long target = Math.max(offsets[i - 1], offsets[0] + (size - offsets[0]) * i / parts);
+                offsets[i] = target == offsets[0] ? target : lineStartAtOrAfter(channel, target, size, chunk);
+            }
+            return offsets;
+        }
+    }
+
+    // First offset at or after target that follows a '\n', or the file size
+    private static long lineStartAtOrAfter(FileChannel channel, long target, long size, ByteBuffer chunk) throws IOException {
+        long p = target - 1;
+        while (p < size) {
+            chunk.clear();
+            int read = channel.read(chunk, p);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (chunk.get(i) == '\n') return p + i + 1;
+            }
+            p += read;
+        }
+        return size;
+    }
+
+    private void map(long start) throws IOException {
+        map(start, window);
+    }
+
+    private void map(long start, long length) throws IOException {
+        long size = Math.min(length, fileSize - start);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        bufferStart = start;
+        bufferLimit = (int) size;
+        position = 0;
+    }
+
+    /**
+     * Advances to the next non-empty record.
+     *
+     * @return false once the end of the file has been reached
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            if (bufferStart + position >= end) return false;
+            if (position >= bufferLimit) {
+                if (bufferStart + bufferLimit >= fileSize) return false;
+                map(bufferStart + bufferLimit);
+                continue;
+            }
+            int result = tokenize(position);
+            if (result == -1) {
+                // Record runs past the end of the window; remap starting at the record.
+                long recordOffset = bufferStart + position;
+                long length = position == 0 ? (long) bufferLimit * 2 : window;
+                if (length > Integer.MAX_VALUE) throw new IOException("CSV record larger than 2 GB at offset " + recordOffset);
+                map(recordOffset, Math.max(length, window));
+                continue;
+            }
+            position = result;
+            if (fieldCount == 1 && starts[0] == ends[0] && !escaped[0] && recordEnd == recordStart) {
+                continue; // blank line
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Tokenizes the record starting at {@code from}.
+     *
+     * @return offset of the following record, or -1 if the window ends before the record does
+     */
+    private int tokenize(int from) {
+        fieldCount = 0;
+        recordStart = from;
+        boolean atEndOfFile = bufferStart + bufferLimit >= fileSize;
+        int p = from;
+        while (true) {
+            ensureFieldCapacity();
+            if (p < bufferLimit && buffer.get(p) == '"') {
+                int start = p + 1;
+                boolean hasEscapes = false;
+                p = start;
+                while (true) {
+                    if (p >= bufferLimit) {
+                        if (!atEndOfFile) return -1;
+                        break; // unterminated quote, take the rest of the file
+                    }
+                    if (buffer.get(p) == '"') {
+                        if (p + 1 < bufferLimit && buffer.get(p + 1) == '"') {
+                            hasEscapes = true;
+                            p += 2;
+                            continue;
+                        }
+                        if (p + 1 >= bufferLimit && !atEndOfFile) return -1;
+                        break;
+                    }
+                    p++;
+                }
+                starts[fieldCount] = start;
+                ends[fieldCount] = Math.min(p, bufferLimit);
+                escaped[fieldCount] = hasEscapes;
+                fieldCount++;
+                p++; // closing quote
+                // Skip anything between the closing quote and the delimiter.
+                while (p < bufferLimit && buffer.get(p) != ',' && buffer.get(p) != '\n' && buffer.get(p) != '\r') p++;
+            } else {
+                int start = p;
+                while (p < bufferLimit && buffer.get(p) != ',' && buffer.get(p) != '\n' && buffer.get(p) != '\r') p++;
+                starts[fieldCount] = start;
+                ends[fieldCount] = p;
+                escaped[fieldCount] = false;
+                fieldCount++;
+            }
+
+            if (p >= bufferLimit) {
+                if (!atEndOfFile) return -1;
+                recordEnd = bufferLimit;
+                return bufferLimit;
+            }
+            byte b = buffer.get(p);
+            if (b == ',') {
+                p++;
+                continue;
+            }
+            recordEnd = p;
+            if (b == '\r') {
+                if (p + 1 >= bufferLimit && !atEndOfFile) return -1;
+                if (p + 1 < bufferLimit && buffer.get(p + 1) == '\n') p++;
+            }
+            return p + 1;
+        }
+    }
+
+    private void ensureFieldCapacity() {
+        if (fieldCount == starts.length) {
+            int size = starts.length * 2;
+            starts = java.util.Arrays.copyOf(starts, size);
+            ends = java.util.Arrays.copyOf(ends, size);
+            escaped = java.util.Arrays.copyOf(escaped, size);
+        }
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * File offset just past the current record.
+     */
+    public long offset() {
+        return bufferStart + position;
+    }
+
+    public boolean isEmpty(int field) {
+        return trimmedStart(field) >= trimmedEnd(field);
+    }
+
+    public String getString(int field) {
+        checkField(field);
+        if (!escaped[field]) {
+            return decode(starts[field], ends[field]);
+        }
+        int len = 0;
+        ensureScratch(ends[field] - starts[field]);
+        for (int p = starts[field]; p < ends[field]; p++) {
+            byte b = buffer.get(p);
+            scratch[len++] = b;
+            if (b == '"' && p + 1 < ends[field] && buffer.get(p + 1) == '"') p++;
+        }
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Splits a field on {@code separator}, trimming each part and dropping empty ones.
+     */
+    public List<String> getParts(int field, char separator) {
+        checkField(field);
+        List<String> parts = new ArrayList<>(4);
+        int start = starts[field];
+        int end = ends[field];
+        int partStart = start;
+        for (int p = start; p <= end; p++) {
+            if (p == end || buffer.get(p) == separator) {
+                int s = partStart;
+                int e = p;
+                while (s < e && buffer.get(s) == ' ') s++;
+                while (e > s && buffer.get(e - 1) == ' ') e--;
+                if (s < e) parts.add(decode(s, e));
+                partStart = p + 1;
+            }
+        }
+        return parts;
+    }
+
+    /**
+     * Whole current record as text, for error messages.
+     */
+    public String getRecord() {
+        return decode(recordStart, recordEnd);
+    }
+
+    public boolean equalsIgnoreCase(int field, String value) {
+        int s = trimmedStart(field);
+        int e = trimmedEnd(field);
+        if (e - s != value.length()) return false;
+        for (int i = 0; i < value.length(); i++) {
+            int b = buffer.get(s + i) & 0xFF;
+            char c = value.charAt(i);
+            if (b != c && Character.toLowerCase((char) b) != Character.toLowerCase(c)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Same semantics as {@link Boolean#parseBoolean(String)}.
+     */
+    public boolean getBoolean(int field) {
+        return equalsIgnoreCase(field, "true");
+    }
+
+    public int getInt(int field) {
+        int s = trimmedStart(field);
+        int e = trimmedEnd(field);
+        if (s >= e) throw new NumberFormatException("Empty int field " + field);
+        boolean negative = false;
+        byte first = buffer.get(s);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            s++;
+            if (s == e) throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+        }
+        long value = 0;
+        for (int p = s; p < e; p++) {
+            int digit = buffer.get(p) - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+        }
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+        return (int) value;
+    }
+
+    /**
+     * Parses plain decimal numbers directly from the mapped bytes. Values that cannot be
+     * converted exactly on the fast path fall back to {@link Double#parseDouble(String)}.
+     */
+    public double getDouble(int field) {
+        int s = trimmedStart(field);
+        int e = trimmedEnd(field);
+        if (s >= e) throw new NumberFormatException("Empty double field " + field);
+        int p = s;
+        boolean negative = false;
+        byte first = buffer.get(p);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            p++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenDigit = false;
+        boolean seenDot = false;
+        for (; p < e; p++) {
+            byte b = buffer.get(p);
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (mantissa == 0 && b == '0') {
+                    if (seenDot) scale--;
+                    continue;
+                }
+                if (digits >= 15) return Double.parseDouble(getString(field).trim());
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (seenDot) scale--;
+            } else if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                break;
+            }
+        }
+        if (p < e) {
+            byte b = buffer.get(p);
+            if (!seenDigit || (b != 'e' && b != 'E')) return Double.parseDouble(getString(field).trim());
+            p++;
+            boolean negativeExponent = false;
+            if (p < e && (buffer.get(p) == '-' || buffer.get(p) == '+')) {
+                negativeExponent = buffer.get(p) == '-';
+                p++;
+            }
+            int exponent = 0;
+            if (p == e) return Double.parseDouble(getString(field).trim());
+            for (; p < e; p++) {
+                int digit = buffer.get(p) - '0';
+                if (digit < 0 || digit > 9 || exponent > 1000) return Double.parseDouble(getString(field).trim());
+                exponent = exponent * 10 + digit;
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (!seenDigit) return Double.parseDouble(getString(field).trim());
+        double value;
+        if (mantissa == 0) {
+            value = 0;
+        } else if (scale >= 0 && scale < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[scale];
+        } else if (scale < 0 && -scale < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[-scale];
+        } else {
+            return Double.parseDouble(getString(field).trim());
+        }
+        return negative ? -value : value;
+    }
+
+    private int trimmedStart(int field) {
+        checkField(field);
+        int s = starts[field];
+        while (s < ends[field] && buffer.get(s) == ' ') s++;
+        return s;
+    }
+
+    private int trimmedEnd(int field) {
+        checkField(field);
+        int e = ends[field];
+        while (e > starts[field] && buffer.get(e - 1) == ' ') e--;
+        return e;
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + field + " of " + fieldCount);
+        }
+    }
+
+    private String decode(int start, int end) {
+        int len = end - start;
+        ensureScratch(len);
+        buffer.get(start, scratch, 0, len);
+        return new String(scratch, 0, len, StandardCharsets.UTF_8);
+    }
+
+    private void ensureScratch(int len) {
+        if (scratch.length < len) scratch = new byte[Math.max(len, scratch.length * 2)];
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+}
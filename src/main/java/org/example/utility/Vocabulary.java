@@ -0,0 +1,128 @@
+package org.example.utility;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the free-text allergen and region terms and gives each one a small int code.
+ * Dishes and profiles keep their terms as a {@code long} mask of those codes, so
+ * intersection checks are a single AND. The first 63 terms get their own bit; later terms
+ * share {@link #OVERFLOW}.
+ * <p>
+ * Only dishes assign codes. Profiles build their masks with {@link #lookupMask}, so free-text
+ * profile terms never grow the tables; a term no dish has used yet also maps to
+ * {@code OVERFLOW}, and such profiles are matched by comparing the sets.
+ */
+public final class Vocabulary {
+
+    public static final long OVERFLOW = 1L << 63;
+
+    public static final Vocabulary ALLERGENS = new Vocabulary("fish", "shellfish", "dairy");
+    public static final Vocabulary REGIONS = new Vocabulary();
+
+    public static final long FISH = ALLERGENS.bit("fish");
+    public static final long SHELLFISH = ALLERGENS.bit("shellfish");
+    public static final long DAIRY = ALLERGENS.bit("dairy");
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private final List<String> terms = new ArrayList<>();
+
+    private Vocabulary(String... wellKnown) {
+        for (String term : wellKnown) {
+            code(term);
+        }
+    }
+
+    /**
+     * Returns the code for {@code term}, assigning the next one if it has not been seen.
+     */
+    public int code(String term) {
+        Integer code = codes.get(term);
+        if (code != null) return code;
+        synchronized (terms) {
+            return codes.computeIfAbsent(term, t -> {
+                terms.add(t);
+                return terms.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Returns the code for {@code term}, or -1 if it has never been interned.
+     */
+    public int lookup(String term) {
+        Integer code = codes.get(term);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * The interned instance of {@code term} if it has one, otherwise {@code term} itself.
+     * Never assigns a code.
+     */
+    public String canonical(String term) {
+        int code = lookup(term);
+        return code < 0 ? term : term(code);
+    }
+
+    /**
+     * Canonical instance of {@code term}, so repeated terms share one String.
+     */
+    public String intern(String term) {
+        int code = code(term);
+        synchronized (terms) {
+            return terms.get(code);
+        }
+    }
+
+    public String term(int code) {
+        synchronized (terms) {
+            return terms.get(code);
+        }
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    public long bit(String term) {
+        int code = code(term);
+        return code < 63 ? 1L << code : OVERFLOW;
+    }
+
+    public long mask(Collection<String> terms) {
+        long mask = 0;
+        if (terms != null) {
+            for (String term : terms) {
+                mask |= bit(term);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Like {@link #mask}, but terms without a code map to {@link #OVERFLOW} instead of being
+     * assigned one.
+     */
+    public long lookupMask(Collection<String> terms) {
+        long mask = 0;
+        if (terms != null) {
+            for (String term : terms) {
+                int code = lookup(term);
+                mask |= code >= 0 && code < 63 ? 1L << code : OVERFLOW;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * True if the two term sets share an element, using the masks where they are exact.
+     * {@code maskA} is an interned mask ({@link #mask}) and {@code maskB} a looked-up one
+     * ({@link #lookupMask}); the sets are only compared when {@code maskB} has
+     * {@link #OVERFLOW}, since its terms may have been given bits after it was built.
+     */
+    public static boolean intersects(long maskA, Set<String> termsA, long maskB, Set<String> termsB) {
+        if ((maskA & maskB & ~OVERFLOW) != 0) return true;
+        if ((maskB & OVERFLOW) == 0 || termsA == null || termsB == null) return false;
+        return !Collections.disjoint(termsA, termsB);
+    }
+}
@@ -1,47 +1,34 @@
 package org.example.utility;
 
+import org.example.entity.Preference;
 import org.example.entity.Profile;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class profileLoader {
 
+    // First of the optional per-preference weight columns
+    private static final int WEIGHT_COLUMNS = 11;
+
     public static List<Profile> loadProfilesFromCSV(String filePath) {
         List<Profile> profiles = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String header = br.readLine(); // skip header
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] fields = line.split(",", -1);
-                if (fields.length < 8) {
-                    System.err.println("Invalid line skipped: " + line);
+        try (MappedCsvReader csv = MappedCsvReader.open(filePath)) {
+            csv.next(); // skip header
+            while (csv.next()) {
+                if (csv.fieldCount() < 8) {
+                    System.err.println("Invalid line skipped: " + csv.getRecord());
                     continue;
                 }
                 try {
-                    int age = Integer.parseInt(fields[0]);
-                    int calorieTarget = Integer.parseInt(fields[1]);
-                    String diet = fields[2];
-                    Set<String> excludeAllergens = new HashSet<>();
-                    if (!fields[3].isEmpty()) {
-                        excludeAllergens = new HashSet<>(Arrays.asList(fields[3].split(";")));
-                    }
-                    boolean highProtein = Boolean.parseBoolean(fields[4]);
-                    boolean highFiber = Boolean.parseBoolean(fields[5]);
-                    boolean lowCarb = Boolean.parseBoolean(fields[6]);
-                    Set<String> preferredRegions = new HashSet<>();
-                    if (!fields[7].isEmpty()) {
-                        preferredRegions = new HashSet<>(Arrays.asList(fields[7].split(";")));
-                    }
-
-                    Map<String, Boolean> preferences = new HashMap<>();
-                    preferences.put("high_protein", highProtein);
-                    preferences.put("high_fiber", highFiber);
-                    preferences.put("low_carb", lowCarb);
-
-                    Profile profile = new Profile(calorieTarget, excludeAllergens, diet, preferences, age, preferredRegions);
-                    profiles.add(profile);
+                    profiles.add(parseProfile(csv));
 //                    System.out.println("Loaded Profile:");
 //                    System.out.println(" Age: " + age + ", Diet: " + diet);
 //                    System.out.println(" Calorie Target: " + calorieTarget);
@@ -51,7 +38,7 @@ public class profileLoader {
 //                    System.out.println("------------------------------------");
 
                 } catch (Exception e) {
-                    System.err.println("Error parsing line: " + line);
+                    System.err.println("Error parsing line: " + csv.getRecord());
                     e.printStackTrace();
                 }
             }
@@ -62,41 +49,311 @@ public class profileLoader {
         return profiles;
     }
 
+    /**
+     * Lazily reads profiles one record at a time, so memory stays flat regardless of file size.
+     * Invalid records are skipped. The returned stream must be closed to release the file.
+     */
+    public static Stream<Profile> streamProfilesFromCSV(String filepath) {
+        MappedCsvReader csv;
+        try {
+            csv = MappedCsvReader.open(filepath);
+            csv.next(); // Skip header
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading profile CSV: " + filepath, e);
+        }
+        return streamProfiles(csv);
+    }
+
+    /**
+     * Streams the profiles whose records start in {@code [start, end)} of a profile CSV, for
+     * planning one shard of a large file. Ranges come from {@link #shardOffsets}.
+     */
+    public static Stream<Profile> streamProfilesFromCSV(String filepath, long start, long end) {
+        try {
+            return streamProfiles(MappedCsvReader.open(Path.of(filepath), start, end));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading profile CSV: " + filepath, e);
+        }
+    }
 
-    public static void processLargeProfileCSV(String filepath) {
-        try (BufferedReader br = new BufferedReader(new FileReader(filepath))) {
-            String header = br.readLine(); // Skip header
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] fields = line.split(",", -1);
-                if (fields.length < 8) continue; // validate
+    /**
+     * Splits the records after the header into {@code shards} byte ranges on line boundaries.
+     *
+     * @return {@code shards + 1} offsets, see {@link MappedCsvReader#split}
+     */
+    public static long[] shardOffsets(String filepath, int shards) throws IOException {
+        long dataStart;
+        try (MappedCsvReader csv = MappedCsvReader.open(filepath)) {
+            dataStart = csv.next() ? csv.offset() : 0;
+        }
+        return MappedCsvReader.split(Path.of(filepath), dataStart, shards);
+    }
 
+    /**
+     * Number of profiles {@link #streamProfilesFromCSV(String, long, long)} returns for the
+     * range, without printing the invalid ones.
+     */
+    public static long countProfiles(String filepath, long start, long end) throws IOException {
+        long count = 0;
+        try (MappedCsvReader csv = MappedCsvReader.open(Path.of(filepath), start, end)) {
+            while (csv.next()) {
+                if (csv.fieldCount() < 8) continue;
                 try {
-                    int age = Integer.parseInt(fields[0]);
-                    int calorieTarget = Integer.parseInt(fields[1]);
-                    String diet = fields[2];
-                    Set<String> excludeAllergens = new HashSet<>(Arrays.asList(fields[3].split(";")));
-                    boolean highProtein = Boolean.parseBoolean(fields[4]);
-                    boolean highFiber = Boolean.parseBoolean(fields[5]);
-                    boolean lowCarb = Boolean.parseBoolean(fields[6]);
-                    Set<String> preferredRegions = new HashSet<>(Arrays.asList(fields[7].split(";")));
+                    parseProfile(csv);
+                    count++;
+                } catch (RuntimeException e) {
+                    // Skipped by the stream as well
+                }
+            }
+        }
+        return count;
+    }
 
-                    Map<String, Boolean> preferences = new HashMap<>();
-                    preferences.put("high_protein", highProtein);
-                    preferences.put("high_fiber", highFiber);
-                    preferences.put("low_carb", lowCarb);
+    private static Stream<Profile> streamProfiles(MappedCsvReader csv) {
+        Spliterator<Profile> profiles = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Profile> action) {
+                try {
+                    while (csv.next()) {
+                        if (csv.fieldCount() < 8) continue; // validate
+                        try {
+                            action.accept(parseProfile(csv));
+                            return true;
+                        } catch (RuntimeException e) {
+                            System.err.println("Skipping invalid line due to error: " + e.getMessage());
+                        }
+                    }
+                    return false;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(profiles, false).onClose(() -> {
+            try {
+                csv.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
 
-                    Profile profile = new Profile(calorieTarget, excludeAllergens, diet, preferences, age, preferredRegions);
+    /**
+     * Streams profiles from the binary snapshot next to the CSV ({@code <file>.snap}) when it is
+     * newer than the CSV, otherwise from the CSV itself. A snapshot path can also be
+     * passed directly. Snapshots are made with {@link #refreshSnapshot(String)}.
+     */
+    public static Stream<Profile> streamProfiles(String filepath) {
+        Path path = Path.of(filepath);
+        Path snapshot = ColumnarSnapshot.isSnapshot(path) ? path : Path.of(filepath + ".snap");
+        if (snapshot == path || ColumnarSnapshot.isFresh(snapshot, path)) {
+            try {
+                return streamProfilesFromSnapshot(snapshot);
+            } catch (IOException e) {
+                if (snapshot == path) throw new UncheckedIOException("Error reading profile snapshot: " + filepath, e);
+                System.err.println("Ignoring unreadable profile snapshot: " + e.getMessage());
+            }
+        }
+        return streamProfilesFromCSV(filepath);
+    }
 
-                    // Process profile immediately or add to a bounded queue/db
-                    System.out.println("Loaded profile for age " + age);
+    /**
+     * Rewrites the snapshot next to a profile CSV ({@code <file>.snap}) unless it is already
+     * fresh, so later {@link #streamProfiles(String)} calls skip CSV parsing. Files too big to
+     * convert in this heap, and write errors, are reported and leave the CSV in use.
+     */
+    public static void refreshSnapshot(String filepath) {
+        Path path = Path.of(filepath);
+        Path snapshot = Path.of(filepath + ".snap");
+        if (ColumnarSnapshot.isSnapshot(path) || ColumnarSnapshot.isFresh(snapshot, path)) return;
+        try {
+            // Columns and the file image are both built in memory, roughly twice the CSV size each
+            if (Files.size(path) > Runtime.getRuntime().maxMemory() / 8) {
+                System.out.println("Profile file too large to snapshot in this heap; reading the CSV.");
+                return;
+            }
+            writeSnapshot(filepath, snapshot);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Could not write profile snapshot: " + e.getMessage());
+        }
+    }
 
-                } catch (Exception e) {
-                    System.err.println("Skipping invalid line due to error: " + e.getMessage());
-                }
+    /**
+     * Converts a profile CSV into a snapshot. Columns are collected in memory first, so this
+     * needs roughly the snapshot's size in heap.
+     */
+    public static void writeSnapshot(String csvPath, Path snapshot) throws IOException {
+        try (Stream<Profile> profiles = streamProfilesFromCSV(csvPath)) {
+            writeSnapshot(profiles.iterator(), snapshot);
+        }
+    }
+
+    public static void writeSnapshot(Iterator<Profile> profiles, Path path) throws IOException {
+        ColumnarSnapshot.Writer out = new ColumnarSnapshot.Writer(ColumnarSnapshot.KIND_PROFILES);
+        ColumnarSnapshot.IntList ages = new ColumnarSnapshot.IntList();
+        ColumnarSnapshot.IntList calorieTargets = new ColumnarSnapshot.IntList();
+        ColumnarSnapshot.IntList diets = new ColumnarSnapshot.IntList();
+        ColumnarSnapshot.IntList flags = new ColumnarSnapshot.IntList();
+        ColumnarSnapshot.IntList allergenStarts = new ColumnarSnapshot.IntList();
+        ColumnarSnapshot.IntList allergenIds = new ColumnarSnapshot.IntList();
+        ColumnarSnapshot.IntList regionStarts = new ColumnarSnapshot.IntList();
+        ColumnarSnapshot.IntList regionIds = new ColumnarSnapshot.IntList();
+        ColumnarSnapshot.IntList maxSodium = new ColumnarSnapshot.IntList();
+        ColumnarSnapshot.DoubleList minProtein = new ColumnarSnapshot.DoubleList();
+        ColumnarSnapshot.DoubleList maxCarbs = new ColumnarSnapshot.DoubleList();
+        // One column per preference; NaN where the profile does not set that weight
+        ColumnarSnapshot.DoubleList[] weights = new ColumnarSnapshot.DoubleList[Preference.values().length];
+        for (int w = 0; w < weights.length; w++) weights[w] = new ColumnarSnapshot.DoubleList();
+        while (profiles.hasNext()) {
+            Profile p = profiles.next();
+            ages.add(p.getAge());
+            calorieTargets.add(p.getCalorieTarget());
+            diets.add(out.stringId(p.getDiet()));
+            flags.add(p.getPreferenceMask());
+            allergenStarts.add(allergenIds.size());
+            for (String allergen : p.getExcludeAllergens()) allergenIds.add(out.stringId(allergen));
+            regionStarts.add(regionIds.size());
+            for (String region : p.getPreferredRegions()) regionIds.add(out.stringId(region));
+            maxSodium.add(p.getMaxSodium());
+            minProtein.add(p.getMinProtein());
+            maxCarbs.add(p.getMaxCarbs());
+            for (Preference preference : Preference.values()) {
+                Double weight = p.getPreferenceWeights() == null ? null : p.getPreferenceWeights().get(preference.key());
+                weights[preference.ordinal()].add(weight == null ? Double.NaN : weight);
+            }
+        }
+        allergenStarts.add(allergenIds.size());
+        regionStarts.add(regionIds.size());
+
+        out.rows(ages.size());
+        out.intColumn(ages);
+        out.intColumn(calorieTargets);
+        out.intColumn(diets);
+        out.byteColumn(flags);
+        out.intColumn(allergenStarts);
+        out.intColumn(allergenIds);
+        out.intColumn(regionStarts);
+        out.intColumn(regionIds);
+        out.intColumn(maxSodium);
+        out.doubleColumn(minProtein);
+        out.doubleColumn(maxCarbs);
+        for (ColumnarSnapshot.DoubleList column : weights) out.doubleColumn(column);
+        out.write(path);
+    }
+
+    /**
+     * Lazily builds profiles from a mapped snapshot; the mapping is released once the stream
+     * is unreachable.
+     */
+    public static Stream<Profile> streamProfilesFromSnapshot(Path path) throws IOException {
+        ColumnarSnapshot.Reader in = ColumnarSnapshot.Reader.open(path, ColumnarSnapshot.KIND_PROFILES);
+        int n = in.rows();
+        String[] strings = in.strings();
+        ColumnarSnapshot.IntColumn ages = in.intColumn(n);
+        ColumnarSnapshot.IntColumn calorieTargets = in.intColumn(n);
+        ColumnarSnapshot.IntColumn diets = in.intColumn(n);
+        ColumnarSnapshot.ByteColumn flags = in.byteColumn(n);
+        ColumnarSnapshot.IntColumn allergenStarts = in.intColumn(n + 1);
+        ColumnarSnapshot.IntColumn allergenIds = in.intColumn(allergenStarts.get(n));
+        ColumnarSnapshot.IntColumn regionStarts = in.intColumn(n + 1);
+        ColumnarSnapshot.IntColumn regionIds = in.intColumn(regionStarts.get(n));
+        ColumnarSnapshot.IntColumn maxSodium = in.intColumn(n);
+        ColumnarSnapshot.DoubleColumn minProtein = in.doubleColumn(n);
+        ColumnarSnapshot.DoubleColumn maxCarbs = in.doubleColumn(n);
+        ColumnarSnapshot.DoubleColumn[] weights = new ColumnarSnapshot.DoubleColumn[Preference.values().length];
+        for (int w = 0; w < weights.length; w++) weights[w] = in.doubleColumn(n);
+
+        // Terms dishes use share their interned instances; only ids that occur are resolved
+        String[] allergens = new String[strings.length];
+        String[] regions = new String[strings.length];
+        return IntStream.range(0, n).mapToObj(i -> {
+            Set<String> excludeAllergens = new HashSet<>();
+            for (int a = allergenStarts.get(i); a < allergenStarts.get(i + 1); a++) {
+                int id = allergenIds.get(a);
+                if (allergens[id] == null) allergens[id] = Vocabulary.ALLERGENS.canonical(strings[id]);
+                excludeAllergens.add(allergens[id]);
+            }
+            Set<String> preferredRegions = new HashSet<>();
+            for (int r = regionStarts.get(i); r < regionStarts.get(i + 1); r++) {
+                int id = regionIds.get(r);
+                if (regions[id] == null) regions[id] = Vocabulary.REGIONS.canonical(strings[id]);
+                preferredRegions.add(regions[id]);
+            }
+            byte flag = flags.get(i);
+            Map<String, Boolean> preferences = new HashMap<>();
+            for (Preference preference : Preference.values()) preferences.put(preference.key(), preference.in(flag));
+            Profile profile = new Profile(calorieTargets.get(i), excludeAllergens, strings[diets.get(i)], preferences,
+                    ages.get(i), preferredRegions);
+            profile.setMaxSodium(maxSodium.get(i));
+            profile.setMinProtein(minProtein.get(i));
+            profile.setMaxCarbs(maxCarbs.get(i));
+            Map<String, Double> preferenceWeights = null;
+            for (Preference preference : Preference.values()) {
+                double weight = weights[preference.ordinal()].get(i);
+                if (Double.isNaN(weight)) continue;
+                if (preferenceWeights == null) preferenceWeights = new HashMap<>();
+                preferenceWeights.put(preference.key(), weight);
             }
+            profile.setPreferenceWeights(preferenceWeights);
+            return profile;
+        });
+    }
+
+    public static void processLargeProfileCSV(String filepath) {
+        processLargeProfileCSV(filepath, profile -> System.out.println("Loaded profile for age " + profile.getAge()));
+    }
+
+    /**
+     * Hands each profile to {@code sink} as soon as its record is parsed; nothing is retained.
+     */
+    public static void processLargeProfileCSV(String filepath, Consumer<Profile> sink) {
+        try (Stream<Profile> profiles = streamProfilesFromCSV(filepath)) {
+            profiles.forEach(sink);
         } catch (Exception e) {
             System.err.println("Error reading profile CSV: " + e.getMessage());
         }
     }
+
+    private static Profile parseProfile(MappedCsvReader csv) {
+        int age = csv.getInt(0);
+        int calorieTarget = csv.getInt(1);
+        String diet = csv.getString(2);
+        Set<String> excludeAllergens = new HashSet<>();
+        for (String allergen : csv.getParts(3, ';')) {
+            excludeAllergens.add(Vocabulary.ALLERGENS.canonical(allergen));
+        }
+        boolean highProtein = csv.getBoolean(4);
+        boolean highFiber = csv.getBoolean(5);
+        boolean lowCarb = csv.getBoolean(6);
+        Set<String> preferredRegions = new HashSet<>();
+        for (String region : csv.getParts(7, ';')) {
+            preferredRegions.add(Vocabulary.REGIONS.canonical(region));
+        }
+
+        Map<String, Boolean> preferences = new HashMap<>();
+        preferences.put("high_protein", highProtein);
+        preferences.put("high_fiber", highFiber);
+        preferences.put("low_carb", lowCarb);
+
+        Profile profile = new Profile(calorieTarget, excludeAllergens, diet, preferences, age, preferredRegions);
+        // Optional budget columns: max_sodium, min_protein, max_carbs
+        if (csv.fieldCount() > 8 && !csv.isEmpty(8)) profile.setMaxSodium(csv.getInt(8));
+        if (csv.fieldCount() > 9 && !csv.isEmpty(9)) profile.setMinProtein(csv.getDouble(9));
+        if (csv.fieldCount() > 10 && !csv.isEmpty(10)) profile.setMaxCarbs(csv.getDouble(10));
+        // Optional weight columns after the budgets, in preference order: high_protein_weight, ...
+        Map<String, Double> weights = null;
+        for (Preference preference : Preference.values()) {
+            int field = WEIGHT_COLUMNS + preference.ordinal();
+            if (csv.fieldCount() <= field || csv.isEmpty(field)) continue;
+            double weight = csv.getDouble(field);
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException(preference.key() + "_weight must be a non-negative number: " + weight);
+            }
+            if (weights == null) weights = new HashMap<>();
+            weights.put(preference.key(), weight);
+        }
+        profile.setPreferenceWeights(weights);
+        return profile;
+    }
 }
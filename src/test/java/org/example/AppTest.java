@@ -10,7 +10,6 @@ import org.mockito.MockedStatic;
 
 import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
@@ -81,9 +80,7 @@ public class AppTest {
     public void testProfileToJson_FormatsCorrectly1() throws Exception {
         Profile profile = mockProfiles.get(0);
 
-        Method method = App.class.getDeclaredMethod("profileToJson", Profile.class);
-        method.setAccessible(true); // <-- Fix!
-        String json = (String) method.invoke(null, profile);
+        String json = HtmlReportWriter.profileToJson(profile);
 
         assertTrue(json.contains("\"age\": 25"));
         assertTrue(json.contains("\"calorie_target\": 2000"));
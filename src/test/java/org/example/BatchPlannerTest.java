@@ -0,0 +1,80 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.Profile;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchPlannerTest {
+
+    private final DishCatalog catalog = DishCatalog.of(List.of(
+            new Dish("Oatmeal", 300, Set.of("gluten"), 10, 7, 45, 150, "breakfast", Set.of("Europe"), true, true),
+            new Dish("Chicken Salad", 400, Set.of(), 35, 3, 10, 80, "lunch", Set.of("US"), false, false),
+            new Dish("Lentil Soup", 280, Set.of(), 12, 9, 35, 100, "dinner", Set.of("Europe"), true, true),
+            new Dish("Almonds", 180, Set.of("nuts"), 6, 4, 6, 0, "snack", Set.of("US"), true, true),
+            new Dish("Fruit Cup", 120, Set.of(), 1, 3, 25, 5, "snack", Set.of("US"), true, true)
+    ));
+
+    private Profile profile(int calorieTarget, String diet) {
+        Profile p = new Profile();
+        p.setCalorieTarget(calorieTarget);
+        p.setDiet(diet);
+        p.setExcludeAllergens(Set.of());
+        p.setPreferences(Map.of());
+        p.setPreferredRegions(Set.of());
+        return p;
+    }
+
+    @Test
+    public void testPlanAllKeepsInputOrder() {
+        List<Profile> profiles = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            profiles.add(profile(800 + i * 10, i % 2 == 0 ? "vegan" : "omnivore"));
+        }
+
+        try (BatchPlanner planner = new BatchPlanner(catalog, 4)) {
+            BatchPlanner.BatchResult<String> result = planner.planAll(profiles);
+
+            assertEquals(profiles.size(), result.getResults().size());
+            for (int i = 0; i < profiles.size(); i++) {
+                assertEquals(MealPlanner.selectMealsHtml(catalog, profiles.get(i)), result.getResults().get(i));
+            }
+            assertTrue(result.profilesPerSecond() > 0);
+        }
+    }
+
+    @Test
+    public void testPlanStreamEmitsInOrderWithBoundedWindow() throws Exception {
+        List<Profile> profiles = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            profiles.add(profile(900 + i, "omnivore"));
+        }
+        List<Long> indexes = new ArrayList<>();
+        List<Profile> emitted = new ArrayList<>();
+
+        try (BatchPlanner planner = new BatchPlanner(catalog, 4)) {
+            long count = planner.planStream(profiles.stream(), 8, (index, profile, plan) -> {
+                indexes.add(index);
+                emitted.add(profile);
+                assertEquals(MealPlanner.selectMealsHtml(catalog, profile), plan);
+            });
+            assertEquals(100, count);
+        }
+        assertEquals(profiles, emitted);
+        for (int i = 0; i < indexes.size(); i++) {
+            assertEquals(i, indexes.get(i));
+        }
+    }
+
+    @Test
+    public void testPlanAllPropagatesFailures() {
+        try (BatchPlanner planner = new BatchPlanner(catalog, 2)) {
+            assertThrows(IllegalStateException.class, () -> planner.planAll(List.of(profile(1000, "omnivore")), p -> {
+                throw new IllegalArgumentException("boom");
+            }));
+        }
+    }
+}
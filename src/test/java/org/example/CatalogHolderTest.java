@@ -0,0 +1,72 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogHolderTest {
+
+    private static final String HEADER = "name,calories,allergens,protein_g,fiber_g,carbs_g,sodium_mg,meal_type,cuisine,is_vegetarian,is_vegan,availability_regions\n";
+    private static final String OATMEAL = "Oatmeal Bowl,350,gluten,10,7,45,150,breakfast,American,true,true,\"North America;Europe\"\n";
+    private static final String SALAD = "Paneer Salad,320,dairy,18,5,15,200,lunch,Indian,true,false,\"India;Europe\"\n";
+
+    @TempDir
+    Path dir;
+
+    // Writes next to the target and renames over it, as a menu publisher should
+    private Path publish(Path file, String content) throws Exception {
+        Path tmp = Files.createTempFile(dir, "dishes", ".tmp");
+        Files.writeString(tmp, content);
+        return Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Test
+    public void testReloadSwapsSnapshotAndKeepsOldOne() throws Exception {
+        Path file = publish(dir.resolve("dishes.csv"), HEADER + OATMEAL);
+        try (CatalogHolder holder = new CatalogHolder(file)) {
+            DishCatalog before = holder.get();
+            assertEquals(1, before.size());
+
+            publish(file, HEADER + OATMEAL + SALAD);
+            assertTrue(holder.reload());
+
+            assertEquals(2, holder.get().size());
+            assertEquals(1, before.size());
+            assertEquals(1, holder.getReloadCount());
+        }
+    }
+
+    @Test
+    public void testBrokenFileKeepsCurrentCatalog() throws Exception {
+        Path file = publish(dir.resolve("dishes.csv"), HEADER + OATMEAL);
+        try (CatalogHolder holder = new CatalogHolder(file)) {
+            DishCatalog before = holder.get();
+            publish(file, HEADER);
+
+            assertFalse(holder.reload());
+            assertSame(before, holder.get());
+            assertEquals(1, holder.getFailedReloadCount());
+        }
+    }
+
+    @Test
+    public void testWatcherPicksUpChanges() throws Exception {
+        Path file = publish(dir.resolve("dishes.csv"), HEADER + OATMEAL);
+        try (CatalogHolder holder = new CatalogHolder(file)) {
+            holder.startWatching();
+            publish(file, HEADER + OATMEAL + SALAD);
+
+            // Some platforms poll for file changes every few seconds
+            long deadline = System.currentTimeMillis() + 20_000;
+            while (holder.get().size() != 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(2, holder.get().size());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.example;
+
+import org.example.entity.MealPlan;
+import org.example.entity.Preference;
+import org.example.entity.Profile;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CohortPlannerTest {
+
+    // A few cohorts, each with several calorie targets
+    private static TestData data(long seed) {
+        return new TestData(seed).allergens("nuts").regions().diets("omnivore", "vegetarian", "vegan")
+                .preferences(Preference.HIGH_PROTEIN).calorieTargets(1400, 1600, 1800, 2000);
+    }
+
+    private static List<Profile> profiles(TestData data, int count) {
+        List<Profile> profiles = data.profiles(count);
+        for (Profile profile : profiles) {
+            if (data.random().nextInt(3) == 0) profile.setMaxSodium(1500);
+        }
+        return profiles;
+    }
+
+    @Test
+    public void testSamePlansAsPlanningEachProfile() {
+        TestData data = data(8);
+        DishCatalog catalog = DishCatalog.of(data.dishes(300));
+        List<Profile> profiles = profiles(data, 500);
+        CohortPlanner cohorts = CohortPlanner.scan(profiles.stream(), 1000);
+
+        assertTrue(cohorts.isGrouped());
+        assertEquals(500, cohorts.getProfiles());
+        assertTrue(cohorts.getCohorts() <= 24, cohorts.toString());
+        for (Profile profile : profiles) {
+            assertEquals(MealPlanner.planMeals(catalog, profile), cohorts.plan(catalog, profile), profile.toString());
+        }
+        assertEquals(cohorts.getCohorts(), cohorts.getMainsPlanned() + cohorts.getUngrouped(), cohorts.toString());
+        assertTrue(cohorts.getSnacksPlanned() <= 4 * cohorts.getCohorts(), cohorts.toString());
+    }
+
+    @Test
+    public void testParallelBatch() {
+        TestData data = data(9);
+        DishCatalog catalog = DishCatalog.of(data.dishes(300));
+        List<Profile> profiles = profiles(data, 2000);
+        CohortPlanner cohorts = CohortPlanner.scan(profiles.stream(), 1000);
+        try (BatchPlanner planner = new BatchPlanner(catalog, 4)) {
+            List<MealPlan> plans = planner.planAll(profiles, p -> cohorts.plan(catalog, p)).getResults();
+            for (int i = 0; i < profiles.size(); i++) {
+                assertEquals(MealPlanner.planMeals(catalog, profiles.get(i)), plans.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testTooManyCohortsPlansEachProfile() {
+        TestData data = data(10);
+        DishCatalog catalog = DishCatalog.of(data.dishes(100));
+        List<Profile> profiles = profiles(data, 200);
+        CohortPlanner cohorts = CohortPlanner.scan(profiles.stream(), 2);
+
+        assertFalse(cohorts.isGrouped());
+        for (Profile profile : profiles) {
+            assertEquals(MealPlanner.planMeals(catalog, profile), cohorts.plan(catalog, profile));
+        }
+        assertEquals(0, cohorts.getMainsPlanned());
+    }
+}
@@ -0,0 +1,151 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.Preference;
+import org.example.entity.Profile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DishCatalogTest {
+
+    private List<Dish> dishes;
+    private DishCatalog catalog;
+
+    @BeforeEach
+    public void setup() {
+        dishes = List.of(
+                new Dish("Oatmeal", 300, Set.of("gluten"), 10, 7, 45, 150, "breakfast", Set.of("Europe"), true, true),
+                new Dish("Egg Scramble", 320, Set.of("eggs"), 20, 1, 5, 250, "breakfast", Set.of("US"), true, false),
+                new Dish("Grilled Fish", 450, Set.of("fish"), 35, 2, 8, 300, "lunch", Set.of("US", "Europe"), false, false),
+                new Dish("Shrimp Bowl", 420, Set.of("shellfish"), 28, 3, 30, 400, "dinner", Set.of("Asia"), false, false),
+                new Dish("Lentil Soup", 280, Set.of(), 12, 9, 35, 100, "dinner", Set.of("Europe"), true, true),
+                new Dish("Almonds", 180, Set.of("nuts"), 6, 4, 6, 0, "snack", Set.of("US"), true, true)
+        );
+        catalog = DishCatalog.of(dishes);
+    }
+
+    private Profile profile(String diet, Set<String> exclude, Map<String, Boolean> prefs, Set<String> regions) {
+        Profile p = new Profile();
+        p.setCalorieTarget(1500);
+        p.setDiet(diet);
+        p.setExcludeAllergens(exclude);
+        p.setPreferences(prefs);
+        p.setPreferredRegions(regions);
+        return p;
+    }
+
+    private Set<Dish> toDishes(BitSet bits) {
+        Set<Dish> result = new HashSet<>();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            result.add(catalog.get(i));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Dish> listPipeline(Profile profile) throws Exception {
+        var method = MealPlanner.class.getDeclaredMethod("applyAllFilters", List.class, Profile.class);
+        method.setAccessible(true);
+        return (Set<Dish>) method.invoke(null, dishes, profile);
+    }
+
+    @Test
+    public void testFilterMatchesListPipeline() throws Exception {
+        List<Profile> profiles = List.of(
+                profile("omnivore", Set.of(), Map.of(), Set.of()),
+                profile("vegetarian", Set.of("gluten"), Map.of("high_fiber", true), Set.of("Europe")),
+                profile("vegan", Set.of("nuts"), Map.of(), Set.of("US")),
+                profile("pescatarian", Set.of("fish"), Map.of("high_protein", true), Set.of()),
+                profile("omnivore", Set.of("eggs"), Map.of("low_carb", true), Set.of("Mars"))
+        );
+        for (Profile p : profiles) {
+            assertEquals(listPipeline(p), toDishes(catalog.filter(p)), "diet " + p.getDiet());
+        }
+    }
+
+    @Test
+    public void testPescatarianExcludesOtherSeafood() {
+        BitSet filtered = catalog.filter(profile("pescatarian", Set.of("fish"), Map.of(), Set.of()));
+        Set<Dish> result = toDishes(filtered);
+        assertFalse(result.contains(dishes.get(2)));
+        assertFalse(result.contains(dishes.get(3)));
+        assertTrue(result.contains(dishes.get(4)));
+    }
+
+    @Test
+    public void testSelectMealsHtmlFromCatalog() {
+        String html = MealPlanner.selectMealsHtml(catalog, profile("omnivore", Set.of(), Map.of(), Set.of()));
+        assertTrue(html.contains("Oatmeal") || html.contains("Egg Scramble"));
+        assertTrue(html.contains("Grilled Fish"));
+        assertTrue(html.contains("Total calories consumed"));
+    }
+
+    @Test
+    public void testRankedByMealTypeIsSortedForEverySignature() {
+        BitSet all = catalog.filter(profile("omnivore", Set.of(), Map.of(), Set.of()));
+        for (boolean protein : new boolean[]{false, true}) {
+            for (boolean fiber : new boolean[]{false, true}) {
+                for (boolean carb : new boolean[]{false, true}) {
+                    Map<String, Boolean> prefs = Map.of("high_protein", protein, "high_fiber", fiber, "low_carb", carb);
+                    Map<String, List<Dish>> ranked = catalog.rankedByMealType(all, prefs);
+                    int total = 0;
+                    for (Map.Entry<String, List<Dish>> entry : ranked.entrySet()) {
+                        List<Dish> list = entry.getValue();
+                        total += list.size();
+                        for (int i = 1; i < list.size(); i++) {
+                            assertTrue(MealPlanner.scoreDish(list.get(i - 1), prefs) >= MealPlanner.scoreDish(list.get(i), prefs));
+                        }
+                        list.forEach(d -> assertEquals(entry.getKey(), d.getMealType()));
+                    }
+                    assertEquals(dishes.size(), total);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testColumnsMatchPerDishScoresAndThresholds() {
+        Random random = new Random(4);
+        List<Dish> many = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            // Whole and half grams, so thresholds and score ties are hit exactly
+            many.add(new Dish("Dish " + i, 100 + random.nextInt(500), Set.of(), random.nextInt(60) / 2.0,
+                    random.nextInt(20) / 2.0, random.nextInt(100) / 2.0, random.nextInt(900), "snack",
+                    Set.of("Europe"), true, false));
+        }
+        DishColumns columns = DishColumns.of(many);
+        double[] scores = new double[many.size()];
+        for (int signature = 0; signature < DishCatalog.SIGNATURES; signature++) {
+            Map<String, Boolean> prefs = Map.of("high_protein", (signature & DishCatalog.HIGH_PROTEIN) != 0,
+                    "high_fiber", (signature & DishCatalog.HIGH_FIBER) != 0,
+                    "low_carb", (signature & DishCatalog.LOW_CARB) != 0);
+            columns.scores(ScoringRules.defaults(), signature, scores);
+            for (int i = 0; i < many.size(); i++) {
+                assertEquals(MealPlanner.scoreDish(many.get(i), prefs), scores[i], 0.0);
+            }
+
+            // Same order as a stable comparator sort
+            int[] positions = new int[many.size()];
+            for (int i = 0; i < positions.length; i++) positions[i] = i;
+            DishCatalog.sortByScore(positions, scores);
+            double[] s = scores;
+            int[] expected = java.util.stream.IntStream.range(0, many.size()).boxed()
+                    .sorted((a, b) -> Double.compare(s[b], s[a])).mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(expected, positions);
+        }
+        BitSet highProtein = columns.matching(ScoringRules.BUILT_IN, Preference.HIGH_PROTEIN);
+        BitSet highFiber = columns.matching(ScoringRules.BUILT_IN, Preference.HIGH_FIBER);
+        BitSet lowCarb = columns.matching(ScoringRules.BUILT_IN, Preference.LOW_CARB);
+        for (int i = 0; i < many.size(); i++) {
+            Dish d = many.get(i);
+            assertEquals(d.getProtein() >= 15, highProtein.get(i));
+            assertEquals(d.getFiber() >= 5, highFiber.get(i));
+            assertEquals(d.getCarbs() < 25, lowCarb.get(i));
+            assertEquals(d.getSodium(), columns.sodium(i));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.MealType;
+import org.example.entity.Profile;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DishSimilarityIndexTest {
+
+    private static final String[] MEALS = {"breakfast", "lunch", "dinner", "snack"};
+
+    private static List<Dish> dishes(Random random, int count) {
+        List<Dish> dishes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // Coarse values so that ties in distance are common
+            dishes.add(new Dish("Dish " + i, 100 * random.nextInt(8), Set.of(), 5 * random.nextInt(8), random.nextInt(4),
+                    10 * random.nextInt(6), 100 * random.nextInt(10), MEALS[random.nextInt(MEALS.length)], Set.of(),
+                    true, random.nextBoolean()));
+        }
+        return dishes;
+    }
+
+    // Brute force: sort every eligible dish by distance, then position
+    private static int[] expected(DishSimilarityIndex index, int size, int dish, int k, IntPredicate eligible) {
+        List<Integer> all = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (eligible.test(i)) all.add(i);
+        }
+        all.sort(Comparator.<Integer>comparingDouble(i -> index.distance(dish, i)).thenComparing(i -> i));
+        return all.subList(0, Math.min(k, all.size())).stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    public void testNearestMatchesBruteForce() {
+        Random random = new Random(21);
+        for (int size : new int[]{1, 2, 17, 300, 2000}) {
+            DishCatalog catalog = DishCatalog.of(dishes(random, size));
+            DishSimilarityIndex index = catalog.similarity();
+            for (int q = 0; q < 50; q++) {
+                int dish = random.nextInt(size);
+                int k = 1 + random.nextInt(12);
+                int modulus = 1 + random.nextInt(5);
+                IntPredicate eligible = i -> i % modulus == 0 && i != dish;
+                int[] found = new int[k];
+                int count = index.nearest(dish, k, eligible, found);
+                assertArrayEquals(expected(index, size, dish, k, eligible), Arrays.copyOf(found, count),
+                        "size " + size + ", dish " + dish + ", k " + k);
+
+                MealType meal = catalog.get(dish).getMealTypeCode();
+                count = index.nearest(dish, meal, k, eligible, found);
+                assertArrayEquals(expected(index, size, dish, k, i -> eligible.test(i) && catalog.get(i).getMealTypeCode() == meal),
+                        Arrays.copyOf(found, count), "size " + size + ", dish " + dish + ", k " + k + ", " + meal);
+            }
+        }
+    }
+
+    @Test
+    public void testSubstitutesRespectProfileAndMeal() {
+        List<Dish> dishes = List.of(
+                new Dish("Porridge", 300, Set.of("gluten"), 10, 6, 50, 100, "breakfast", Set.of(), true, true),
+                new Dish("Muesli", 320, Set.of("nuts"), 11, 6, 48, 120, "breakfast", Set.of(), true, true),
+                new Dish("Tofu Scramble", 310, Set.of(), 20, 3, 10, 400, "breakfast", Set.of(), true, true),
+                new Dish("Rice Pudding", 330, Set.of(), 8, 1, 55, 90, "breakfast", Set.of(), true, false),
+                new Dish("Veggie Curry", 305, Set.of(), 10, 6, 50, 100, "dinner", Set.of(), true, true));
+        DishCatalog catalog = DishCatalog.of(dishes);
+        Profile profile = new Profile(1800, Set.of("nuts"), "vegan", Map.of(), 40, Set.of());
+
+        List<Dish> substitutes = MealPlanner.substitutes(catalog, profile, "porridge", 5);
+        assertEquals(List.of("Tofu Scramble"), substitutes.stream().map(Dish::getName).toList());
+        assertEquals(List.of("Muesli", "Rice Pudding", "Tofu Scramble"),
+                MealPlanner.substitutes(catalog, new Profile(1800, Set.of(), "omnivore", Map.of(), 40, Set.of()), "Porridge", 5)
+                        .stream().map(Dish::getName).toList());
+        assertTrue(MealPlanner.substitutes(catalog, profile, "Pancakes", 5).isEmpty());
+    }
+
+    @Test
+    public void testNamesAreOptionalAndLocaleIndependent() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            DishCatalog catalog = DishCatalog.of(List.of(
+                    new Dish(null, 300, Set.of(), 10, 6, 50, 100, "breakfast", Set.of(), true, true),
+                    new Dish("IDLI", 310, Set.of(), 9, 5, 48, 110, "breakfast", Set.of(), true, true)));
+            DishSimilarityIndex index = catalog.similarity();
+            assertEquals(1, index.find("idli"));
+            assertEquals(1, index.find("Idli"));
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example;
+
+import org.example.entity.Profile;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HtmlReportWriterTest {
+
+    private Profile profile() {
+        Profile p = new Profile();
+        p.setAge(40);
+        p.setCalorieTarget(1800);
+        p.setDiet("vegan");
+        p.setExcludeAllergens(Set.of());
+        p.setPreferences(Map.of());
+        return p;
+    }
+
+    @Test
+    public void testWritesCompleteDocument() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (HtmlReportWriter report = new HtmlReportWriter(out, false, 1)) {
+            report.writeSection(0, profile(), "<ul><li>Plan A</li></ul>");
+            report.writeSection(1, profile(), "<ul><li>Plan B</li></ul>");
+            assertEquals(2, report.getSectionCount());
+            // flushed after every section
+            assertTrue(out.toString(StandardCharsets.UTF_8).contains("Plan B"));
+        }
+        String html = out.toString(StandardCharsets.UTF_8);
+        assertTrue(html.startsWith("<!DOCTYPE html>"));
+        assertTrue(html.contains("<h1>Profile 2</h1>"));
+        assertTrue(html.contains("\"calorie_target\": 1800"));
+        assertTrue(html.endsWith("</html>"));
+    }
+
+    @Test
+    public void testGzipOutput() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (HtmlReportWriter report = new HtmlReportWriter(out, true, 100)) {
+            report.writeSection(0, profile(), "<ul><li>Plan A</li></ul>");
+        }
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String html = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(html.contains("Plan A"));
+            assertTrue(html.endsWith("</html>"));
+        }
+    }
+}
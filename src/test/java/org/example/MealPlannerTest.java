@@ -1,6 +1,7 @@
 package org.example;
 
 import org.example.entity.Dish;
+import org.example.entity.Preference;
 import org.example.entity.Profile;
 import org.junit.jupiter.api.Test;
 
@@ -152,7 +153,29 @@ public class MealPlannerTest {
             return null;
         }
     }
-}
-
-
 
+    @Test
+    public void testPreferenceMaskFollowsMap() {
+        Map<String, Boolean> prefs = new HashMap<>();
+        prefs.put("high_protein", true);
+        prefs.put("low_carb", false);
+        prefs.put("spicy", true);
+        Profile profile = createProfile(1800, "omnivore", Set.of(), prefs);
+        assertEquals(Preference.HIGH_PROTEIN.bit(), profile.getPreferenceMask());
+        assertTrue(profile.prefers(Preference.HIGH_PROTEIN));
+        assertFalse(profile.prefers(Preference.LOW_CARB));
+
+        profile.setPreferences(Map.of("high_fiber", true, "low_carb", true));
+        assertEquals(Preference.HIGH_FIBER.bit() | Preference.LOW_CARB.bit(), profile.getPreferenceMask());
+        profile.setPreferences(null);
+        assertEquals(0, profile.getPreferenceMask());
+
+        Dish dish = createDish("Lentil Soup", "lunch", 300, 18, 7, 30, Set.of(), Set.of(), true, true, 200);
+        for (int mask = 0; mask < Preference.combinations(); mask++) {
+            Map<String, Boolean> map = new HashMap<>();
+            for (Preference preference : Preference.values()) map.put(preference.key(), preference.in(mask));
+            assertEquals(mask, Preference.mask(map));
+            assertEquals(MealPlanner.scoreDish(dish, map), MealPlanner.scoreDish(dish, mask), 0.0);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.MealPlan;
+import org.example.entity.PlannedDish;
+import org.example.entity.Profile;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MultiDayPlannerTest {
+
+    private List<Dish> menu(int perMeal) {
+        List<Dish> dishes = new ArrayList<>();
+        for (String meal : List.of("breakfast", "lunch", "dinner", "snack")) {
+            for (int i = 0; i < perMeal; i++) {
+                int calories = meal.equals("snack") ? 100 + 10 * i : 400 + 10 * i;
+                dishes.add(new Dish(meal + " " + i, calories, Set.of(), 10 + i, 3, 30, 100, meal, Set.of("US"), true, true));
+            }
+        }
+        return dishes;
+    }
+
+    private Profile profile() {
+        Profile p = new Profile();
+        p.setCalorieTarget(1800);
+        p.setDiet("omnivore");
+        p.setExcludeAllergens(Set.of());
+        p.setPreferences(Map.of("high_protein", true));
+        p.setPreferredRegions(Set.of());
+        return p;
+    }
+
+    private List<Dish> dishes(MealPlan plan) {
+        List<Dish> result = new ArrayList<>();
+        for (PlannedDish pd : plan.getMainMeals()) result.add(pd.getDish());
+        for (PlannedDish pd : plan.getSnacks()) result.add(pd.getDish());
+        return result;
+    }
+
+    @Test
+    public void testFirstDayMatchesSingleDayPlan() {
+        DishCatalog catalog = DishCatalog.of(menu(10));
+        List<MealPlan> week = MultiDayPlanner.planDays(catalog, profile(), 7);
+
+        assertEquals(7, week.size());
+        assertEquals(MealPlanner.planMeals(catalog, profile()), week.get(0));
+    }
+
+    @Test
+    public void testNoDishRepeatsWhileThePoolLasts() {
+        DishCatalog catalog = DishCatalog.of(menu(30));
+        Set<Dish> seen = new HashSet<>();
+        for (MealPlan day : MultiDayPlanner.planDays(catalog, profile(), 7)) {
+            assertEquals(3, day.getMainMeals().size());
+            for (Dish dish : dishes(day)) {
+                assertTrue(seen.add(dish), "repeated " + dish.getName());
+            }
+        }
+    }
+
+    @Test
+    public void testStartsOverWhenMainMealsRunOut() {
+        MultiDayPlanner planner = new MultiDayPlanner(DishCatalog.of(menu(2)), profile());
+        for (int i = 0; i < 5; i++) {
+            MealPlan day = planner.nextDay();
+            assertEquals(3, day.getMainMeals().size());
+            assertEquals(dishes(day).size(), new HashSet<>(dishes(day)).size());
+        }
+        assertEquals(5, planner.getDay());
+        assertTrue(planner.getRotations() > 0);
+    }
+}
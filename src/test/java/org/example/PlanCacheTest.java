@@ -0,0 +1,68 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.Profile;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlanCacheTest {
+
+    private final List<Dish> dishes = List.of(
+            new Dish("Oatmeal", 300, Set.of("gluten"), 10, 7, 45, 150, "breakfast", Set.of("Europe"), true, true),
+            new Dish("Chicken Salad", 400, Set.of(), 35, 3, 10, 80, "lunch", Set.of("US"), false, false),
+            new Dish("Lentil Soup", 280, Set.of(), 12, 9, 35, 100, "dinner", Set.of("Europe"), true, true),
+            new Dish("Almonds", 180, Set.of("nuts"), 6, 4, 6, 0, "snack", Set.of("US"), true, true)
+    );
+
+    private Profile profile(int age, int calorieTarget) {
+        Map<String, Boolean> prefs = new HashMap<>();
+        prefs.put("high_protein", true);
+        return new Profile(calorieTarget, new HashSet<>(Set.of("nuts")), "omnivore", prefs, age, new HashSet<>(Set.of("US")));
+    }
+
+    @Test
+    public void testProfilesDifferingOnlyInAgeHit() {
+        DishCatalog catalog = DishCatalog.of(dishes);
+        PlanCache<String> cache = PlanCache.forHtml(10);
+
+        String first = cache.get(catalog, profile(30, 1500));
+        String second = cache.get(catalog, profile(65, 1500));
+
+        assertSame(first, second);
+        assertEquals(MealPlanner.selectMealsHtml(catalog, profile(30, 1500)), first);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        DishCatalog catalog = DishCatalog.of(dishes);
+        PlanCache<String> cache = PlanCache.forHtml(2);
+
+        cache.get(catalog, profile(30, 1000));
+        cache.get(catalog, profile(30, 1100));
+        cache.get(catalog, profile(30, 1000)); // touch 1000
+        cache.get(catalog, profile(30, 1200)); // evicts 1100
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        cache.get(catalog, profile(30, 1000));
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void testNewCatalogInvalidatesEntries() {
+        PlanCache<String> cache = PlanCache.forHtml(10);
+        cache.get(DishCatalog.of(dishes), profile(30, 1500));
+        cache.get(DishCatalog.of(dishes.subList(0, 2)), profile(30, 1500));
+
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.size());
+
+        cache.invalidate();
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,120 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.MealPlan;
+import org.example.entity.Profile;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlanningScratchTest {
+
+    // Duplicate rows must only be planned once
+    private static TestData data(long seed) {
+        return new TestData(seed).duplicates(10);
+    }
+
+    @Test
+    public void testMatchesReferencePlanner() {
+        TestData data = data(11);
+        for (int size : new int[]{5, 40, 400}) {
+            DishCatalog catalog = DishCatalog.of(data.dishes(size));
+            for (int i = 0; i < 300; i++) {
+                Profile profile = data.profile();
+                assertEquals(MealPlanner.toMealPlan(MealPlanner.assignMeals(catalog, profile)),
+                        MealPlanner.planMeals(catalog, profile), "catalog " + size + ", " + profile);
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesReferencePlannerWithBudgets() {
+        TestData data = data(17).budgets();
+        for (int size : new int[]{5, 40, 400}) {
+            DishCatalog catalog = DishCatalog.of(data.dishes(size));
+            for (int i = 0; i < 300; i++) {
+                Profile profile = data.profile();
+                MealPlan plan = MealPlanner.planMeals(catalog, profile);
+                assertEquals(MealPlanner.toMealPlan(MealPlanner.assignMeals(catalog, profile)), plan,
+                        "catalog " + size + ", " + profile);
+                assertEquals(plan, MultiDayPlanner.planDays(catalog, profile, 1).get(0), "catalog " + size + ", " + profile);
+                if (profile.getMaxSodium() > 0) assertTrue(plan.getTotalSodium() <= profile.getMaxSodium(), profile.toString());
+                if (profile.getMaxCarbs() > 0) assertTrue(plan.getTotalCarbs() <= profile.getMaxCarbs(), profile.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testSnacksAddedForProteinGoal() {
+        // Mains already reach the calorie band, but not the protein goal
+        List<Dish> dishes = new ArrayList<>();
+        for (String meal : new String[]{"breakfast", "lunch", "dinner"}) {
+            dishes.add(new Dish(meal, 550, Set.of(), 10, 3, 40, 300, meal, Set.of(), true, true));
+        }
+        dishes.add(new Dish("Salty Jerky", 60, Set.of(), 20, 0, 2, 900, "snack", Set.of(), true, true));
+        dishes.add(new Dish("Egg Whites", 80, Set.of(), 15, 0, 1, 150, "snack", Set.of(), true, true));
+        Profile profile = new Profile(1800, Set.of(), "omnivore", Map.of(), 40, Set.of());
+        profile.setMaxSodium(1200);
+        profile.setMinProtein(40);
+
+        MealPlan plan = MealPlanner.planMeals(DishCatalog.of(dishes), profile);
+        assertEquals(3, plan.getMainMeals().size());
+        assertEquals(1, plan.getSnacks().size());
+        assertEquals("Egg Whites", plan.getSnacks().get(0).getDish().getName());
+        assertEquals(1050, plan.getTotalSodium());
+    }
+
+    @Test
+    public void testFilterIntoMatchesFilter() {
+        TestData data = data(5);
+        DishCatalog catalog = DishCatalog.of(data.dishes(200));
+        BitSet out = new BitSet();
+        BitSet work = new BitSet();
+        for (int i = 0; i < 200; i++) {
+            Profile profile = data.profile();
+            catalog.filterInto(profile, out, work);
+            assertEquals(catalog.filter(profile), out);
+        }
+    }
+
+    @Test
+    public void testScratchSurvivesSmallerCatalog() {
+        TestData data = data(3);
+        Profile profile = data.profile();
+        MealPlanner.planMeals(DishCatalog.of(data.dishes(500)), profile);
+        DishCatalog small = DishCatalog.of(data.dishes(10));
+        assertEquals(MealPlanner.toMealPlan(MealPlanner.assignMeals(small, profile)), MealPlanner.planMeals(small, profile));
+    }
+
+    // Runs a task on a new thread, as the server does with a virtual thread per request
+    private static <T> T onNewThread(Callable<T> task) throws Exception {
+        FutureTask<T> future = new FutureTask<>(task);
+        Thread thread = new Thread(future);
+        thread.start();
+        thread.join();
+        return future.get();
+    }
+
+    @Test
+    public void testScratchIsReusedAcrossThreads() throws Exception {
+        TestData data = data(13);
+        DishCatalog catalog = DishCatalog.of(data.dishes(200));
+        Profile profile = data.profile();
+        PlanningScratch first = onNewThread(() -> {
+            PlanningScratch scratch = PlanningScratch.acquire();
+            scratch.plan(catalog, profile);
+            scratch.release();
+            return scratch;
+        });
+        MealPlan plan = onNewThread(() -> MealPlanner.planMeals(catalog, profile));
+
+        assertEquals(MealPlanner.toMealPlan(MealPlanner.assignMeals(catalog, profile)), plan);
+        PlanningScratch reused = onNewThread(PlanningScratch::acquire);
+        assertSame(first, reused);
+        reused.release();
+    }
+}
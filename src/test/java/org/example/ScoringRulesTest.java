@@ -0,0 +1,120 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.Preference;
+import org.example.entity.Profile;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoringRulesTest {
+
+    private static TestData data(long seed) {
+        return new TestData(seed).allergens().regions();
+    }
+
+    private static Properties properties(String... pairs) {
+        Properties properties = new Properties();
+        for (int i = 0; i < pairs.length; i += 2) properties.setProperty(pairs[i], pairs[i + 1]);
+        return properties;
+    }
+
+    @Test
+    public void testParseStartsFromBuiltInRules() {
+        assertEquals(ScoringRules.BUILT_IN, ScoringRules.parse(new Properties()));
+        assertEquals(ScoringRules.BUILT_IN, ScoringRules.parse(properties(
+                "high_protein.nutrient", "protein", "high_protein.weight", "2", "low_carb.cap", "50")));
+
+        ScoringRules rules = ScoringRules.parse(properties("high_fiber.weight", "4", "low_carb.nutrient", "sodium",
+                "low_carb.cap", "600", "low_carb.max", "400"));
+        assertEquals(4, rules.weight(Preference.HIGH_FIBER));
+        assertEquals(ScoringRules.Nutrient.SODIUM, rules.nutrient(Preference.LOW_CARB));
+        assertNotEquals(ScoringRules.BUILT_IN, rules);
+    }
+
+    @Test
+    public void testParseRejectsBadRules() {
+        assertThrows(IllegalArgumentException.class, () -> ScoringRules.parse(properties("spicy.weight", "1")));
+        assertThrows(IllegalArgumentException.class, () -> ScoringRules.parse(properties("high_fiber.slope", "1")));
+        assertThrows(IllegalArgumentException.class, () -> ScoringRules.parse(properties("high_fiber.nutrient", "salt")));
+        assertThrows(IllegalArgumentException.class, () -> ScoringRules.parse(properties("high_fiber.weight", "NaN")));
+        assertThrows(IllegalArgumentException.class, () -> ScoringRules.parse(properties("high_fiber.min", "lots")));
+    }
+
+    @Test
+    public void testCompiledScorerMatchesPerDishScores() {
+        List<Dish> dishes = data(23).dishes(300);
+        DishColumns columns = DishColumns.of(dishes);
+        ScoringRules rules = ScoringRules.parse(properties("high_protein.weight", "0.7", "high_fiber.nutrient", "calories",
+                "high_fiber.cap", "400", "high_fiber.weight", "0.3", "low_carb.nutrient", "sodium", "low_carb.cap", "900",
+                "low_carb.weight", "0.01"));
+        double[] scores = new double[dishes.size()];
+        for (int signature = 0; signature < Preference.combinations(); signature++) {
+            columns.scores(rules, signature, scores);
+            for (int i = 0; i < dishes.size(); i++) assertEquals(rules.score(dishes.get(i), signature), scores[i], 0.0);
+        }
+        for (Preference preference : Preference.values()) {
+            BitSet matching = columns.matching(rules, preference);
+            for (int i = 0; i < dishes.size(); i++) {
+                assertEquals(rules.accepts(dishes.get(i), preference.bit()), matching.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testProfileWeightsMatchReferencePlanner() {
+        TestData data = data(29).weights();
+        DishCatalog catalog = DishCatalog.of(data.dishes(200));
+        for (int i = 0; i < 300; i++) {
+            Profile profile = data.profile();
+            assertEquals(MealPlanner.toMealPlan(MealPlanner.assignMeals(catalog, profile)),
+                    MealPlanner.planMeals(catalog, profile), profile.toString());
+        }
+    }
+
+    @Test
+    public void testWeightsChangeTheRanking() {
+        Dish protein = new Dish("Tofu Scramble", 400, Set.of(), 30, 2, 10, 300, "breakfast", Set.of(), true, true);
+        Dish fiber = new Dish("Bran Porridge", 400, Set.of(), 10, 12, 40, 100, "breakfast", Set.of(), true, true);
+        DishCatalog catalog = DishCatalog.of(List.of(protein, fiber));
+        Profile profile = new Profile(400, Set.of(), "vegan", Map.of("high_protein", true, "high_fiber", true), 30, Set.of());
+        assertEquals(protein, MealPlanner.planMeals(catalog, profile).getMainMeals().get(0).getDish());
+
+        profile.setPreferenceWeights(Map.of("high_fiber", 10.0));
+        assertSame(ScoringRules.of(profile), ScoringRules.of(profile));
+        assertEquals(fiber, MealPlanner.planMeals(catalog, profile).getMainMeals().get(0).getDish());
+        assertNotEquals(ProfileSignature.of(profile),
+                ProfileSignature.of(new Profile(400, Set.of(), "vegan", profile.getPreferences(), 30, Set.of())));
+    }
+
+    @Test
+    public void testTunedRankingsAreBoundedAndRankCandidatesFirst() {
+        DishCatalog catalog = DishCatalog.of(data(31).dishes(200));
+        ScoringRules rules = ScoringRules.defaults().withWeights(Map.of("high_fiber", 7.0));
+        DishCatalog.Ranking tuned = catalog.ranking(rules);
+        assertSame(tuned, catalog.ranking(rules));
+
+        // The first plan ranks only its candidates; the second ranks and keeps the whole catalog
+        int signature = Preference.HIGH_FIBER.bit();
+        BitSet candidates = new BitSet();
+        candidates.set(0, 50);
+        DishCatalog.Ranking first = tuned.within(signature, candidates);
+        assertNotSame(tuned, first);
+        for (int m = 0; m < DishCatalog.MEAL_TYPES.size(); m++) {
+            for (int i : first.ranked(signature, m)) assertTrue(candidates.get(i));
+        }
+        assertSame(tuned, tuned.within(signature, candidates));
+
+        // Least recently used rule sets are dropped once the limit is reached
+        ScoringRules oldest = ScoringRules.defaults().withWeights(Map.of("low_carb", 3.0));
+        DishCatalog.Ranking dropped = catalog.ranking(oldest);
+        for (int i = 0; i < DishCatalog.MAX_TUNED_RANKINGS; i++) {
+            catalog.ranking(ScoringRules.defaults().withWeights(Map.of("high_protein", 10.0 + i)));
+            catalog.ranking(rules);
+        }
+        assertSame(tuned, catalog.ranking(rules));
+        assertNotSame(dropped, catalog.ranking(oldest));
+    }
+}
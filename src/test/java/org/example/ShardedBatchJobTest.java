@@ -0,0 +1,105 @@
+package org.example;
+
+import org.example.entity.Profile;
+import org.example.utility.DishLoader;
+import org.example.utility.profileLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedBatchJobTest {
+
+    private static final String DISHES = "src/main/java/org/example/data/dishes.csv";
+    private static final String[] DIETS = {"omnivore", "vegetarian", "vegan", "pescatarian"};
+    private static final String[] ALLERGENS = {"dairy", "gluten", "nuts", "fish", "eggs"};
+    private static final String[] REGIONS = {"North America", "Europe", "Asia", "India"};
+
+    @TempDir
+    Path dir;
+
+    private Path profiles(int count) throws IOException {
+        Random random = new Random(9);
+        StringBuilder csv = new StringBuilder("age,calorie_target,diet,exclude_allergens,high_protein,high_fiber,low_carb,preferred_regions\n");
+        for (int i = 0; i < count; i++) {
+            if (i == count / 2) csv.append("not,a,valid,profile,line,at,all,here\n");
+            csv.append(18 + random.nextInt(60)).append(',').append(1400 + 100 * random.nextInt(12)).append(',')
+                    .append(DIETS[random.nextInt(DIETS.length)]).append(',').append(ALLERGENS[random.nextInt(ALLERGENS.length)])
+                    .append(',').append(random.nextBoolean()).append(',').append(random.nextBoolean()).append(',')
+                    .append(random.nextBoolean()).append(",\"").append(REGIONS[random.nextInt(REGIONS.length)]).append("\"\n");
+        }
+        Path file = dir.resolve("profiles.csv");
+        Files.writeString(file, csv);
+        return file;
+    }
+
+    private String singlePass(Path profiles) throws IOException {
+        Path out = dir.resolve("single.html");
+        DishCatalog catalog = DishCatalog.of(DishLoader.readDishesFromCSV(DISHES));
+        try (HtmlReportWriter report = HtmlReportWriter.open(out.toString());
+             Stream<Profile> stream = profileLoader.streamProfilesFromCSV(profiles.toString())) {
+            long[] index = {0};
+            stream.forEach(p -> {
+                try {
+                    report.writeSection(index[0]++, p, MealPlanner.planMeals(catalog, p));
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            });
+        }
+        return Files.readString(out);
+    }
+
+    @Test
+    public void testMergedReportMatchesSinglePass() throws IOException {
+        Path profiles = profiles(300);
+        DishCatalog catalog = DishCatalog.of(DishLoader.readDishesFromCSV(DISHES));
+        Path out = dir.resolve("sharded.html");
+        ShardedBatchJob.Result result = new ShardedBatchJob(() -> catalog, dir.resolve("work"), 3, 1, 7)
+                .run(profiles.toString(), out.toString());
+
+        assertEquals(7, result.shards);
+        assertEquals(0, result.resumedShards);
+        assertEquals(300, result.profiles);
+        assertEquals(singlePass(profiles), Files.readString(out));
+    }
+
+    @Test
+    public void testRerunOnlyPlansUnfinishedShards() throws IOException {
+        Path profiles = profiles(120);
+        DishCatalog catalog = DishCatalog.of(DishLoader.readDishesFromCSV(DISHES));
+        Path work = dir.resolve("work");
+        Path out = dir.resolve("sharded.html");
+        new ShardedBatchJob(() -> catalog, work, 2, 1, 5).run(profiles.toString(), out.toString());
+        String expected = Files.readString(out);
+
+        // A crash mid-shard: the part is cut short and its checkpoint was never written
+        Files.delete(work.resolve("part-00002.done"));
+        Files.writeString(work.resolve("part-00002.html"), "<section>\n<h1>Prof");
+        ShardedBatchJob.Result result = new ShardedBatchJob(() -> catalog, work, 2, 1, 5)
+                .run(profiles.toString(), out.toString());
+
+        assertEquals(4, result.resumedShards);
+        assertTrue(result.plannedProfiles > 0 && result.plannedProfiles < 120);
+        assertEquals(expected, Files.readString(out));
+    }
+
+    @Test
+    public void testRefusesToResumeForChangedInput() throws IOException {
+        Path profiles = profiles(20);
+        DishCatalog catalog = DishCatalog.of(DishLoader.readDishesFromCSV(DISHES));
+        Path work = dir.resolve("work");
+        new ShardedBatchJob(() -> catalog, work, 1, 1, 2).run(profiles.toString(), dir.resolve("a.html").toString());
+
+        Files.writeString(profiles, Files.readString(profiles) + "30,1800,vegan,,true,false,false,Asia\n");
+        IOException e = assertThrows(IOException.class, () -> new ShardedBatchJob(() -> catalog, work, 1, 1, 2)
+                .run(profiles.toString(), dir.resolve("b.html").toString()));
+        assertTrue(e.getMessage().contains("changed"), e.getMessage());
+    }
+}
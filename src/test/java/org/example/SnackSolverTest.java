@@ -0,0 +1,76 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnackSolverTest {
+
+    private Dish snack(String name, int calories, double protein) {
+        return new Dish(name, calories, Set.of(), protein, 1, 10, 10, "snack", Set.of("US"), true, true);
+    }
+
+    private int calories(List<Dish> dishes) {
+        return dishes.stream().mapToInt(Dish::getCalories).sum();
+    }
+
+    @Test
+    public void testLandsInsideBandWhereGreedyOvershoots() {
+        // Greedy in rank order would take the 600 kcal bar first and overshoot a 400 kcal gap.
+        List<Dish> ranked = List.of(snack("Bar", 600, 0), snack("Apple", 150, 0), snack("Yogurt", 250, 0));
+        List<Dish> chosen = SnackSolver.DEFAULT.select(ranked, new HashSet<>(), 1600, 2000, Map.of());
+
+        assertNotNull(chosen);
+        int total = 1600 + calories(chosen);
+        assertTrue(total >= 1800 && total <= 2100, "total " + total);
+        assertFalse(chosen.contains(ranked.get(0)));
+    }
+
+    @Test
+    public void testMaximisesScoreWithinBand() {
+        List<Dish> ranked = List.of(snack("Shake", 200, 30), snack("Chips", 200, 1), snack("Jerky", 150, 20));
+        List<Dish> chosen = SnackSolver.DEFAULT.select(ranked, new HashSet<>(), 1600, 2000, Map.of("high_protein", true));
+
+        assertEquals(List.of(ranked.get(0), ranked.get(2)), chosen);
+    }
+
+    @Test
+    public void testSkipsUsedDishesAndReachedTargets() {
+        Dish apple = snack("Apple", 150, 0);
+        Set<Dish> used = Collections.newSetFromMap(new IdentityHashMap<>());
+        used.add(apple);
+
+        assertNull(SnackSolver.DEFAULT.select(List.of(apple), used, 1000, 2000, Map.of()));
+        assertEquals(List.of(), SnackSolver.DEFAULT.select(List.of(apple), new HashSet<>(), 1900, 2000, Map.of()));
+    }
+
+    @Test
+    public void testUnreachableBandReturnsNull() {
+        List<Dish> ranked = List.of(snack("Apple", 150, 0), snack("Pear", 120, 0));
+        assertNull(SnackSolver.DEFAULT.select(ranked, new HashSet<>(), 500, 2000, Map.of()));
+    }
+
+    @Test
+    public void testOverCellBudgetFallsBack() {
+        SnackSolver solver = new SnackSolver(0.9, 1.05, 32, 0);
+        List<Dish> ranked = List.of(snack("Apple", 150, 0), snack("Yogurt", 250, 0));
+        assertNull(solver.select(ranked, new HashSet<>(), 1600, 2000, Map.of()));
+    }
+
+    @Test
+    public void testRoundCaloriesShrinkTheTable() {
+        // 1000 cells at one calorie per column, but 150 and 250 share a divisor of 50
+        SnackSolver solver = new SnackSolver(0.9, 1.05, 32, 100);
+        List<Dish> round = List.of(snack("Apple", 150, 0), snack("Yogurt", 250, 0));
+        List<Dish> chosen = solver.select(round, new HashSet<>(), 1600, 2000, Map.of());
+
+        assertNotNull(chosen);
+        int total = 1600 + calories(chosen);
+        assertTrue(total >= 1800 && total <= 2100, "total " + total);
+        assertNull(solver.select(List.of(snack("Apple", 151, 0), snack("Yogurt", 250, 0)),
+                new HashSet<>(), 1600, 2000, Map.of()));
+    }
+}
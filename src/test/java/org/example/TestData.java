@@ -0,0 +1,177 @@
+package org.example;
+
+import org.example.entity.Dish;
+import org.example.entity.Preference;
+import org.example.entity.Profile;
+
+import java.util.*;
+
+/**
+ * Random dish catalogs and profiles for planner tests. Defaults give a small, dense catalog
+ * where every filter and fallback is hit; the options narrow or widen it per test.
+ */
+public final class TestData {
+
+    public static final String[] MEALS = {"breakfast", "lunch", "dinner", "snack", "snack"};
+    public static final String[] ALLERGENS = {"gluten", "dairy", "eggs", "fish", "shellfish", "nuts"};
+    public static final String[] REGIONS = {"Europe", "Asia", "India", "North America"};
+    public static final String[] DIETS = {"omnivore", "vegetarian", "vegan", "pescatarian"};
+    private static final String[] OVERFLOW_REGIONS = new String[80];
+
+    static {
+        for (int i = 0; i < OVERFLOW_REGIONS.length; i++) OVERFLOW_REGIONS[i] = "Test region " + i;
+    }
+
+    private final Random random;
+    private String[] allergens = ALLERGENS;
+    private String[] regions = REGIONS;
+    private String[] diets = DIETS;
+    private Preference[] preferences = Preference.values();
+    private int[] calorieTargets;
+    private String nameSuffix = "";
+    private int duplicateOneIn;
+    private boolean budgets;
+    private boolean missingPreferences;
+    private boolean weights;
+
+    public TestData(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public Random random() {
+        return random;
+    }
+
+    /**
+     * Allergen terms for dishes and profiles; none gives empty sets.
+     */
+    public TestData allergens(String... allergens) {
+        this.allergens = allergens;
+        return this;
+    }
+
+    public TestData regions(String... regions) {
+        this.regions = regions;
+        return this;
+    }
+
+    /**
+     * Draws regions from more terms than a vocabulary mask can name, so some sets overflow.
+     */
+    public TestData overflowRegions() {
+        return regions(OVERFLOW_REGIONS);
+    }
+
+    public TestData diets(String... diets) {
+        this.diets = diets;
+        return this;
+    }
+
+    /**
+     * Preferences profiles may set; the others are left out of their map.
+     */
+    public TestData preferences(Preference... preferences) {
+        this.preferences = preferences;
+        return this;
+    }
+
+    /**
+     * Calorie targets profiles pick from, instead of 1200 to 2600 in steps of 100.
+     */
+    public TestData calorieTargets(int... calorieTargets) {
+        this.calorieTargets = calorieTargets;
+        return this;
+    }
+
+    public TestData nameSuffix(String nameSuffix) {
+        this.nameSuffix = nameSuffix;
+        return this;
+    }
+
+    /**
+     * Repeats about one dish row in {@code n} as an equal copy, as duplicate rows in a dish file.
+     */
+    public TestData duplicates(int n) {
+        this.duplicateOneIn = n;
+        return this;
+    }
+
+    /**
+     * Gives profiles random sodium, protein and carb budgets.
+     */
+    public TestData budgets() {
+        this.budgets = true;
+        return this;
+    }
+
+    /**
+     * Leaves the preference map out of about one profile in five.
+     */
+    public TestData missingPreferences() {
+        this.missingPreferences = true;
+        return this;
+    }
+
+    /**
+     * Gives some profiles random score weights; the others have none.
+     */
+    public TestData weights() {
+        this.weights = true;
+        return this;
+    }
+
+    public Set<String> pick(String[] terms, int max) {
+        Set<String> picked = new HashSet<>();
+        if (terms.length == 0) return picked;
+        for (int i = random.nextInt(max + 1); i > 0; i--) picked.add(terms[random.nextInt(terms.length)]);
+        return picked;
+    }
+
+    public List<Dish> dishes(int count) {
+        List<Dish> dishes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            boolean vegan = random.nextInt(4) == 0;
+            Dish dish = new Dish("Dish " + i + nameSuffix, 50 + 10 * random.nextInt(60), pick(allergens, 2),
+                    random.nextInt(40), random.nextInt(12), random.nextInt(60), 50 * random.nextInt(20),
+                    MEALS[random.nextInt(MEALS.length)], pick(regions, 2), vegan || random.nextBoolean(), vegan);
+            dishes.add(dish);
+            if (duplicateOneIn > 0 && random.nextInt(duplicateOneIn) == 0) {
+                dishes.add(new Dish(dish.getName(), dish.getCalories(), new HashSet<>(dish.getAllergens()), dish.getProtein(),
+                        dish.getFiber(), dish.getCarbs(), dish.getSodium(), dish.getMealType(),
+                        new HashSet<>(dish.getAvailabilityRegions()), dish.isVegetarian(), dish.isVegan()));
+            }
+        }
+        return dishes;
+    }
+
+    public Profile profile() {
+        Map<String, Boolean> prefs = null;
+        if (!missingPreferences || random.nextInt(5) > 0) {
+            prefs = new HashMap<>();
+            for (Preference preference : preferences) prefs.put(preference.key(), random.nextBoolean());
+        }
+        int calorieTarget = calorieTargets == null ? 1200 + 100 * random.nextInt(15)
+                : calorieTargets[random.nextInt(calorieTargets.length)];
+        Profile profile = new Profile(calorieTarget, pick(allergens, 3), diets[random.nextInt(diets.length)], prefs,
+                20 + random.nextInt(50), pick(regions, 2));
+        if (budgets) {
+            if (random.nextBoolean()) profile.setMaxSodium(800 + 100 * random.nextInt(20));
+            if (random.nextBoolean()) profile.setMinProtein(20 + random.nextInt(80));
+            if (random.nextBoolean()) profile.setMaxCarbs(60 + random.nextInt(140));
+        }
+        if (weights && random.nextBoolean()) {
+            Map<String, Double> tuned = new HashMap<>();
+            for (Preference preference : Preference.values()) {
+                if (random.nextBoolean()) tuned.put(preference.key(), (double) random.nextInt(5));
+            }
+            if (!tuned.isEmpty()) profile.setPreferenceWeights(tuned);
+        }
+        return profile;
+    }
+
+    public List<Profile> profiles(int count) {
+        List<Profile> profiles = new ArrayList<>();
+        for (int i = 0; i < count; i++) profiles.add(profile());
+        return profiles;
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.metrics;
+
+import org.example.DishCatalog;
+import org.example.MealPlanner;
+import org.example.entity.Dish;
+import org.example.entity.Profile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlannerStatsTest {
+
+    private static Dish dish(String name, int calories, String mealType, boolean vegetarian) {
+        return new Dish(name, calories, new HashSet<>(), 20, 6, 10, 100, mealType,
+                new HashSet<>(Set.of("Europe")), vegetarian, false);
+    }
+
+    // No breakfast and no vegan dishes, so a vegan plan needs both fallbacks
+    private static DishCatalog catalog() {
+        return DishCatalog.of(Arrays.asList(
+                dish("Lentil Soup", 400, "lunch", true),
+                dish("Veg Curry", 500, "dinner", true),
+                dish("Risotto", 450, "dinner", true),
+                dish("Fruit", 100, "snack", true)));
+    }
+
+    private static Profile veganProfile() {
+        Map<String, Boolean> prefs = new HashMap<>();
+        prefs.put("high_protein", false);
+        prefs.put("high_fiber", false);
+        prefs.put("low_carb", false);
+        return new Profile(1500, new HashSet<>(), "vegan", prefs, 30, new HashSet<>(Set.of("Asia")));
+    }
+
+    @AfterEach
+    public void restore() {
+        PlannerMetrics.setSink(null);
+        PlannerMetrics.setLogLevel(PlannerMetrics.LogLevel.INFO);
+    }
+
+    @Test
+    public void testCountsFallbacksAndStages() {
+        PlannerStats stats = new PlannerStats();
+        PlannerMetrics.setSink(stats);
+        MealPlanner.planMeals(catalog(), veganProfile());
+
+        assertEquals(1, stats.getFallbackCount(Fallback.VEGETARIAN_FOR_VEGAN));
+        assertEquals(1, stats.getFallbackCount(Fallback.ANY_REGION));
+        assertEquals(1, stats.getFallbackCount(Fallback.MEAL_SWAPPED));
+        assertEquals(0, stats.getFallbackCount(Fallback.MEAL_UNFILLED));
+        for (PlannerStage stage : PlannerStage.values()) {
+            assertEquals(1, stats.getStage(stage).getCount(), stage.name());
+        }
+        assertEquals(4, stats.getCandidates(FilterStep.ALLERGENS).getMax());
+        assertEquals(4, stats.getCandidates(FilterStep.NUTRITION).getMax());
+
+        String json = stats.toJson();
+        assertTrue(json.contains("\"meal_swapped\":1"), json);
+        assertTrue(json.contains("\"plan\":{\"count\":1"), json);
+    }
+
+    @Test
+    public void testLogLevelOffKeepsStdoutQuiet() {
+        PrintStream original = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PlannerMetrics.setLogLevel(PlannerMetrics.LogLevel.OFF);
+        System.setOut(new PrintStream(captured));
+        try {
+            MealPlanner.planMeals(catalog(), veganProfile());
+        } finally {
+            System.setOut(original);
+        }
+        assertEquals("", captured.toString());
+    }
+
+    @Test
+    public void testEnabledOnlyWithSink() {
+        assertFalse(PlannerMetrics.isEnabled());
+        PlannerMetrics.setSink(MetricsSink.tee(new PlannerStats(), new JfrMetricsSink()));
+        assertTrue(PlannerMetrics.isEnabled());
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.render;
+
+import org.example.entity.Dish;
+import org.example.entity.MealPlan;
+import org.example.entity.PlannedDish;
+import org.example.entity.Profile;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlanRendererTest {
+
+    private final Dish oatmeal = new Dish("Oatmeal", 300, Set.of(), 10, 7, 45, 150, "breakfast", Set.of("US"), true, true);
+    private final Dish salad = new Dish("Salad, \"Greek\"", 350, Set.of("dairy"), 12, 4, 12, 300, "lunch", Set.of("US"), true, false);
+    private final Dish nuts = new Dish("Nuts", 200, Set.of(), 6, 5, 10, 15, "snack", Set.of("US"), true, true);
+
+    private final MealPlan plan = new MealPlan(
+            List.of(new PlannedDish(oatmeal, "breakfast"), new PlannedDish(salad, "dinner")),
+            List.of(new PlannedDish(nuts, "snack")));
+
+    private Profile profile() {
+        return new Profile(1200, Set.of(), "vegetarian", Map.of("high_fiber", true), 30, Set.of());
+    }
+
+    @Test
+    public void testMealPlanTotalsAndSwaps() {
+        assertEquals(850, plan.getTotalCalories());
+        assertEquals(3, plan.getMealCount());
+        assertNull(plan.getMainMeal("lunch"));
+        assertTrue(plan.getMainMeal("dinner").isSwapped());
+        assertEquals("lunch", plan.getMainMeal("dinner").getSwappedFrom());
+        assertFalse(plan.getMainMeal("breakfast").isSwapped());
+    }
+
+    @Test
+    public void testHtmlRenderer() {
+        String html = PlanRenderer.forFormat("html").render(plan, profile());
+        assertTrue(html.contains("<li><strong>Breakfast:</strong> Oatmeal (300 kcal) - high fiber, vegetarian</li>"));
+        assertTrue(html.contains("includes dairy, vegetarian, swapped from lunch"));
+        assertTrue(html.contains("<p><strong>Total calories consumed:</strong> 850 kcal</p>"));
+    }
+
+    @Test
+    public void testJsonRenderer() {
+        String json = PlanRenderer.forFormat("json").render(plan, profile());
+        assertEquals("{\"meals\":[{\"meal\":\"breakfast\",\"name\":\"Oatmeal\",\"calories\":300},"
+                + "{\"meal\":\"dinner\",\"name\":\"Salad, \\\"Greek\\\"\",\"calories\":350,\"swapped_from\":\"lunch\"}],"
+                + "\"snacks\":[{\"meal\":\"snack\",\"name\":\"Nuts\",\"calories\":200}],"
+                + "\"total_calories\":850,\"calorie_target\":1200}", json);
+    }
+
+    @Test
+    public void testCsvRenderer() {
+        String csv = PlanRenderer.forFormat("csv").render(plan, profile());
+        assertEquals("breakfast,Oatmeal,300,\ndinner,\"Salad, \"\"Greek\"\"\",350,lunch\nsnack,Nuts,200,\n", csv);
+    }
+
+    @Test
+    public void testUnknownFormat() {
+        assertThrows(IllegalArgumentException.class, () -> PlanRenderer.forFormat("xml"));
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.server;
+
+import org.example.DishCatalog;
+import org.example.entity.Dish;
+import org.example.entity.Profile;
+import org.example.utility.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlanningServerTest {
+
+    private PlanningServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    public void start() throws Exception {
+        DishCatalog catalog = DishCatalog.of(List.of(
+                new Dish("Oatmeal", 300, Set.of("gluten"), 10, 7, 45, 150, "breakfast", Set.of("Europe"), true, true),
+                new Dish("Grilled Fish", 450, Set.of("fish"), 35, 2, 8, 300, "lunch", Set.of("Europe"), false, false),
+                new Dish("Lentil Soup", 280, Set.of(), 12, 9, 35, 100, "dinner", Set.of("Europe"), true, true),
+                new Dish("Almonds", 180, Set.of("nuts"), 6, 4, 6, 0, "snack", Set.of("Europe"), true, true)
+        ));
+        server = new PlanningServer(new InetSocketAddress("127.0.0.1", 0), () -> catalog);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.close();
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testPlansProfileAsJson() throws Exception {
+        HttpResponse<String> response = post("/plan", "{\"calorie_target\": 1500, \"diet\": \"pescatarian\","
+                + " \"exclude_allergens\": [\"nuts\"], \"preferences\": {\"high_protein\": true}}");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"name\":\"Grilled Fish\""), response.body());
+        assertFalse(response.body().contains("Almonds"));
+        assertTrue(response.body().contains("\"calorie_target\":1500"));
+    }
+
+    @Test
+    public void testRejectsBadRequests() throws Exception {
+        assertEquals(400, post("/plan", "{\"diet\": \"vegan\"}").statusCode());
+        assertEquals(400, post("/plan", "{not json").statusCode());
+        assertEquals(400, post("/plan?format=xml", "{\"calorie_target\": 1500}").statusCode());
+        assertEquals(400, post("/plan", "{\"calorie_target\": 1500, \"max_sodium\": -1}").statusCode());
+        assertEquals(400, post("/plan", "{\"calorie_target\": 1500, \"weights\": {\"spicy\": 2}}").statusCode());
+        assertEquals(400, post("/plan", "{\"calorie_target\": 1500, \"weights\": {\"high_fiber\": -1}}").statusCode());
+        assertEquals(200, post("/plan", "{\"calorie_target\": 1500, \"weights\": {\"high_fiber\": 3}}").statusCode());
+    }
+
+    @Test
+    public void testSubstitutes() throws Exception {
+        HttpResponse<String> response = post("/substitute?dish=Grilled%20Fish&k=3", "{\"calorie_target\": 1500}");
+        assertEquals(200, response.statusCode(), response.body());
+        assertEquals("{\"dish\":\"Grilled Fish\",\"substitutes\":[]}", response.body());
+        assertEquals(404, post("/substitute?dish=Pizza", "{\"calorie_target\": 1500}").statusCode());
+        assertEquals(400, post("/substitute?dish=Oatmeal&k=0", "{\"calorie_target\": 1500}").statusCode());
+    }
+
+    @Test
+    public void testMetricsReportLatency() throws Exception {
+        post("/plan?format=html", "{\"calorie_target\": 1500}");
+        HttpResponse<String> metrics = client.send(HttpRequest.newBuilder(
+                URI.create("http://127.0.0.1:" + server.getPort() + "/metrics")).build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, metrics.statusCode());
+        assertTrue(metrics.body().contains("\"requests\":1"), metrics.body());
+        assertTrue(metrics.body().contains("\"p99_us\""));
+        assertEquals(1, server.getLatency().getCount());
+    }
+
+    @Test
+    public void testMetricsAreJsonInAnyLocale() throws Exception {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            post("/plan", "{\"calorie_target\": 1500}");
+            HttpResponse<String> metrics = client.send(HttpRequest.newBuilder(
+                    URI.create("http://127.0.0.1:" + server.getPort() + "/metrics")).build(), HttpResponse.BodyHandlers.ofString());
+
+            Map<?, ?> body = (Map<?, ?>) JsonParser.parse(metrics.body());
+            assertInstanceOf(Number.class, body.get("p50_us"), metrics.body());
+            assertInstanceOf(Number.class, body.get("plan_cache_hit_rate"), metrics.body());
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    @Test
+    public void testLoadGeneratorAgainstServer() throws Exception {
+        LoadGenerator.Report report = new LoadGenerator(URI.create("http://127.0.0.1:" + server.getPort() + "/plan"))
+                .run(200, 4, 7);
+
+        assertEquals(0, report.failures);
+        assertEquals(200, report.latency.getCount());
+    }
+
+    @Test
+    public void testUnknownTermsAreDropped() {
+        Profile profile = PlanningServer.parseProfile("{\"calorie_target\": 1800, \"exclude_allergens\": [\"Fish\", \"never-seen-allergen\"],"
+                + " \"preferred_regions\": [\"never-seen-region\"], \"age\": 40}");
+
+        assertEquals(Set.of("fish"), profile.getExcludeAllergens());
+        assertTrue(profile.getPreferredRegions().isEmpty());
+        assertEquals(40, profile.getAge());
+        assertEquals("omnivore", profile.getDiet());
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.store;
+
+import org.example.DishCatalog;
+import org.example.MealPlanner;
+import org.example.TestData;
+import org.example.entity.Dish;
+import org.example.entity.Profile;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapStoreTest {
+
+    // Some records carry their region codes, and some profiles have no diet or preferences
+    private static TestData data(long seed) {
+        return new TestData(seed).nameSuffix(" é").duplicates(10).overflowRegions()
+                .diets("omnivore", "vegetarian", "vegan", "pescatarian", null).missingPreferences().budgets().weights();
+    }
+
+    @Test
+    public void testDishesRoundTrip() {
+        List<Dish> dishes = data(3).dishes(500);
+        OffHeapDishStore store = OffHeapDishStore.of(dishes);
+        assertEquals(dishes.size(), store.size());
+        assertEquals(dishes, store.asList());
+        DishRecord record = store.record();
+        for (int i = 0; i < dishes.size(); i++) {
+            Dish dish = dishes.get(i);
+            record.at(i);
+            assertEquals(dish.getCalories(), record.getCalories());
+            assertEquals(dish.getAllergenMask(), record.getAllergenMask());
+            assertEquals(dish.getRegionMask(), record.getRegionMask());
+            assertEquals(dish.getMealTypeCode(), record.getMealTypeCode());
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> record.at(dishes.size()));
+    }
+
+    @Test
+    public void testMissingSetsComeBackEmpty() {
+        OffHeapDishStore store = OffHeapDishStore.of(List.of(
+                new Dish(null, 100, null, 1, 2, 3, 4, null, null, false, false)));
+        Dish dish = store.get(0);
+        assertNull(dish.getName());
+        assertEquals(Set.of(), dish.getAllergens());
+        assertEquals(Set.of(), dish.getAvailabilityRegions());
+    }
+
+    @Test
+    public void testProfilesRoundTrip() {
+        List<Profile> profiles = data(5).profiles(1000);
+        OffHeapProfileStore store = OffHeapProfileStore.load(profiles.stream());
+        assertEquals(profiles.size(), store.size());
+        assertEquals(profiles, store.stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testPlansMatchHeapCatalogAndProfiles() {
+        TestData data = data(7);
+        List<Dish> dishes = data.dishes(400);
+        DishCatalog heap = DishCatalog.of(dishes);
+        DishCatalog offHeap = DishCatalog.of(OffHeapDishStore.of(dishes));
+        List<Profile> profiles = data.profiles(300);
+        OffHeapProfileStore store = OffHeapProfileStore.load(profiles.stream());
+        ProfileRecord record = store.record();
+        for (int i = 0; i < profiles.size(); i++) {
+            Profile profile = profiles.get(i);
+            assertEquals(MealPlanner.planMeals(heap, profile), MealPlanner.planMeals(offHeap, profile), profile.toString());
+            assertEquals(MealPlanner.planMeals(heap, profile), MealPlanner.planMeals(heap, record.at(i)), profile.toString());
+        }
+    }
+}
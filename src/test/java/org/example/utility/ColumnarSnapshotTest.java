@@ -0,0 +1,121 @@
+package org.example.utility;
+
+import org.example.entity.Dish;
+import org.example.entity.Profile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarSnapshotTest {
+
+    private static final String DISHES = "name,calories,allergens,protein_g,fiber_g,carbs_g,sodium_mg,meal_type,cuisine,is_vegetarian,is_vegan,availability_regions\n"
+            + "Oatmeal Bowl,350,gluten,10,7,45.5,150,breakfast,American,true,true,\"North America;Europe\"\n"
+            + "Paneer Salad,320,Dairy;Nuts,18,5,15,200,Lunch,Indian,true,false,India\n"
+            + "Grilled Fish,450,None,35.25,2,8,300,dinner,Nordic,false,false,\"\"\n";
+    private static final String PROFILES = "age,calorie_target,diet,exclude_allergens,high_protein,high_fiber,low_carb,preferred_regions,max_sodium,min_protein,max_carbs,high_protein_weight,high_fiber_weight,low_carb_weight\n"
+            + "38,1600,vegetarian,peanuts,true,true,false,\"North America;Europe\"\n"
+            + "45,2200,omnivore,,false,false,true,\n"
+            + "61,1800,omnivore,,false,false,false,,1500,62.5,\n"
+            + "29,2000,vegan,,true,true,true,Asia,,,,,4,0.5\n"
+            + "33,2000,vegan,,true,false,false,,,,,-1,,\n";
+
+    @TempDir
+    Path dir;
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(dir.resolve(name), content);
+    }
+
+    @Test
+    public void testDishesRoundTrip() throws Exception {
+        Path csv = write("dishes.csv", DISHES);
+        List<Dish> parsed = DishLoader.readDishesFromCSV(csv.toString());
+        Path snapshot = dir.resolve("dishes.snap");
+        DishLoader.writeSnapshot(parsed, snapshot);
+
+        assertTrue(ColumnarSnapshot.isSnapshot(snapshot));
+        assertFalse(ColumnarSnapshot.isSnapshot(csv));
+        assertEquals(parsed, DishLoader.readDishesFromSnapshot(snapshot));
+    }
+
+    @Test
+    public void testReadDishesUsesFreshSnapshot() throws Exception {
+        Path csv = write("dishes.csv", DISHES);
+        List<Dish> first = DishLoader.readDishes(csv.toString());
+        Path snapshot = dir.resolve("dishes.csv.snap");
+        assertTrue(Files.exists(snapshot));
+
+        // A snapshot newer than the CSV is used even if the CSV has changed behind its back
+        Files.writeString(csv, DISHES.substring(0, DISHES.indexOf("Grilled")));
+        Files.setLastModifiedTime(snapshot, FileTime.fromMillis(Files.getLastModifiedTime(csv).toMillis() + 1000));
+        assertEquals(first, DishLoader.readDishes(csv.toString()));
+
+        // An older snapshot is replaced
+        Files.setLastModifiedTime(snapshot, FileTime.fromMillis(Files.getLastModifiedTime(csv).toMillis() - 1000));
+        assertEquals(2, DishLoader.readDishes(csv.toString()).size());
+        assertEquals(2, DishLoader.readDishesFromSnapshot(snapshot).size());
+    }
+
+    @Test
+    public void testProfilesRoundTrip() throws Exception {
+        Path csv = write("profiles.csv", PROFILES);
+        Path snapshot = Path.of(csv + ".snap");
+        profileLoader.refreshSnapshot(csv.toString());
+        assertTrue(ColumnarSnapshot.isSnapshot(snapshot));
+
+        List<Profile> expected = profileLoader.loadProfilesFromCSV(csv.toString());
+        assertEquals(1500, expected.get(2).getMaxSodium());
+        assertEquals(62.5, expected.get(2).getMinProtein());
+        assertEquals(0, expected.get(2).getMaxCarbs());
+        assertFalse(expected.get(0).hasBudgets());
+        assertNull(expected.get(0).getPreferenceWeights());
+        assertEquals(Map.of("high_fiber", 4.0, "low_carb", 0.5), expected.get(3).getPreferenceWeights());
+        assertEquals(4, expected.size(), "negative weights are rejected");
+        try (Stream<Profile> profiles = profileLoader.streamProfiles(csv.toString())) {
+            assertEquals(expected, profiles.collect(Collectors.toList()));
+        }
+        try (Stream<Profile> profiles = profileLoader.streamProfiles(snapshot.toString())) {
+            assertEquals(expected, profiles.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testOlderVersionIsRewritten() throws Exception {
+        Path csv = write("profiles.csv", PROFILES);
+        // Older than any snapshot written below, whatever the clock resolution
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(System.currentTimeMillis() - 10_000));
+        Path snapshot = Path.of(csv + ".snap");
+        profileLoader.refreshSnapshot(csv.toString());
+        assertTrue(ColumnarSnapshot.isFresh(snapshot, csv));
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[4] = (byte) (ColumnarSnapshot.VERSION - 1);
+        Files.write(snapshot, bytes);
+        assertFalse(ColumnarSnapshot.isFresh(snapshot, csv));
+        profileLoader.refreshSnapshot(csv.toString());
+        assertTrue(ColumnarSnapshot.isFresh(snapshot, csv));
+    }
+
+    @Test
+    public void testCorruptSnapshotIsRejected() throws Exception {
+        Path snapshot = dir.resolve("dishes.snap");
+        DishLoader.writeSnapshot(DishLoader.readDishesFromCSV(write("dishes.csv", DISHES).toString()), snapshot);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(snapshot, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> DishLoader.readDishesFromSnapshot(snapshot));
+        assertTrue(e.getMessage().contains("checksum"));
+        assertThrows(IOException.class, () -> profileLoader.streamProfilesFromSnapshot(snapshot));
+    }
+}
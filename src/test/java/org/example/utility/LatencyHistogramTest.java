@@ -0,0 +1,35 @@
+package org.example.utility;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsCoverValuesInOrder() {
+        int previous = -1;
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1000, 1_000_000, Long.MAX_VALUE}) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(bucket >= previous);
+            assertTrue(LatencyHistogram.upperBound(bucket) >= value);
+            previous = bucket;
+        }
+    }
+
+    @Test
+    public void testPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5_000_000, histogram.percentile(0.5), 5_000_000 * 0.07);
+        assertEquals(9_900_000, histogram.percentile(0.99), 9_900_000 * 0.07);
+        assertEquals(10_000_000, histogram.percentile(1.0));
+        assertEquals(10_000_000, histogram.getMax());
+
+        histogram.reset();
+        assertEquals(0, histogram.percentile(0.5));
+    }
+}
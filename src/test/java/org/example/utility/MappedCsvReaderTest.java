@@ -0,0 +1,109 @@
+package org.example.utility;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedCsvReaderTest {
+
+    private Path write(String content) throws Exception {
+        Path file = Files.createTempFile("csv_reader", ".csv");
+        Files.writeString(file, content);
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void testQuotedFieldsKeepSeparators() throws Exception {
+        Path file = write("name,regions\nOatmeal Bowl,\"North America;Europe\"\n\"Say \"\"Hi\"\", then eat\",\"A,B\"\n");
+        try (MappedCsvReader csv = MappedCsvReader.open(file)) {
+            assertTrue(csv.next());
+            assertTrue(csv.next());
+            assertEquals("Oatmeal Bowl", csv.getString(0));
+            assertEquals(List.of("North America", "Europe"), csv.getParts(1, ';'));
+            assertTrue(csv.next());
+            assertEquals(2, csv.fieldCount());
+            assertEquals("Say \"Hi\", then eat", csv.getString(0));
+            assertEquals("A,B", csv.getString(1));
+            assertFalse(csv.next());
+        }
+    }
+
+    @Test
+    public void testNumbersAndBooleansParseInPlace() throws Exception {
+        Path file = write("350,-12,10.5,0.05,1e3,TRUE,false,,x\r\n");
+        try (MappedCsvReader csv = MappedCsvReader.open(file)) {
+            assertTrue(csv.next());
+            assertEquals(350, csv.getInt(0));
+            assertEquals(-12, csv.getInt(1));
+            assertEquals(10.5, csv.getDouble(2));
+            assertEquals(0.05, csv.getDouble(3));
+            assertEquals(1000.0, csv.getDouble(4));
+            assertTrue(csv.getBoolean(5));
+            assertFalse(csv.getBoolean(6));
+            assertTrue(csv.isEmpty(7));
+            assertThrows(NumberFormatException.class, () -> csv.getInt(8));
+            assertThrows(NumberFormatException.class, () -> csv.getDouble(8));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0.1", "123.456", "-7.25", "3.14159265358979", "2.5E-3", "12345678901234567890.5"})
+    public void testDoubleMatchesParseDouble(String value) throws Exception {
+        Path file = write(value + "\n");
+        try (MappedCsvReader csv = MappedCsvReader.open(file)) {
+            assertTrue(csv.next());
+            assertEquals(Double.parseDouble(value), csv.getDouble(0));
+        }
+    }
+
+    @Test
+    public void testRecordsSpanningMappingWindows() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            content.append(i).append(",\"row ").append(i).append(";x\",").append(i * 0.5).append('\n');
+        }
+        Path file = write(content.toString());
+        List<Integer> ids = new ArrayList<>();
+        try (MappedCsvReader csv = MappedCsvReader.open(file, 7)) {
+            while (csv.next()) {
+                int id = csv.getInt(0);
+                ids.add(id);
+                assertEquals(List.of("row " + id, "x"), csv.getParts(1, ';'));
+                assertEquals(id * 0.5, csv.getDouble(2));
+            }
+        }
+        assertEquals(500, ids.size());
+        assertEquals(499, ids.get(499));
+    }
+
+    @Test
+    public void testSplitRangesCoverEveryRecordOnce() throws Exception {
+        StringBuilder content = new StringBuilder("id,text\n");
+        for (int i = 0; i < 200; i++) {
+            content.append(i).append(",\"").append("x".repeat(i % 17)).append(",y\"\r\n");
+        }
+        Path file = write(content.toString());
+        long header = "id,text\n".length();
+        for (int parts : new int[]{1, 3, 7, 64, 500}) {
+            long[] offsets = MappedCsvReader.split(file, header, parts);
+            assertEquals(parts + 1, offsets.length);
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < parts; i++) {
+                assertTrue(offsets[i] <= offsets[i + 1]);
+                try (MappedCsvReader csv = MappedCsvReader.open(file, offsets[i], offsets[i + 1])) {
+                    while (csv.next()) ids.add(csv.getInt(0));
+                }
+            }
+            assertEquals(200, ids.size(), parts + " parts");
+            for (int i = 0; i < 200; i++) assertEquals(i, ids.get(i));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.utility;
+
+import org.example.entity.Dish;
+import org.example.entity.MealType;
+import org.example.entity.Profile;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VocabularyTest {
+
+    @Test
+    public void testWellKnownAllergensHaveFixedBits() {
+        assertEquals(1L, Vocabulary.FISH);
+        assertEquals(2L, Vocabulary.SHELLFISH);
+        assertEquals(4L, Vocabulary.DAIRY);
+        assertSame(Vocabulary.ALLERGENS.intern(new String("dairy")), Vocabulary.ALLERGENS.intern("dairy"));
+    }
+
+    @Test
+    public void testDishCodesFollowSetters() {
+        Dish dish = new Dish("Prawn Curry", 500, Set.of("shellfish"), 20, 2, 30, 500, "Dinner", Set.of("India"), false, false);
+        assertEquals(MealType.DINNER, dish.getMealTypeCode());
+        assertEquals(Vocabulary.SHELLFISH, dish.getAllergenMask());
+
+        dish.setAllergens(Set.of("dairy"));
+        dish.setMealType("snack");
+        assertEquals(Vocabulary.DAIRY, dish.getAllergenMask());
+        assertEquals(MealType.SNACK, dish.getMealTypeCode());
+    }
+
+    @Test
+    public void testOverflowTermsFallBackToSetComparison() {
+        Set<String> many = new HashSet<>();
+        for (int i = 0; i < 80; i++) {
+            many.add("overflow-region-" + i);
+        }
+        Vocabulary.REGIONS.mask(many);
+
+        Set<String> a = Set.of("overflow-region-70");
+        Set<String> b = Set.of("overflow-region-71");
+        long maskA = Vocabulary.REGIONS.mask(a);
+        long maskB = Vocabulary.REGIONS.mask(b);
+        assertEquals(Vocabulary.OVERFLOW, maskA);
+        assertEquals(Vocabulary.OVERFLOW, maskB);
+        assertFalse(Vocabulary.intersects(maskA, a, maskB, b));
+        assertTrue(Vocabulary.intersects(maskA, a, maskA, Set.of("overflow-region-70", "x")));
+    }
+
+    @Test
+    public void testProfilesLookUpTermsWithoutInterning() {
+        int before = Vocabulary.ALLERGENS.size();
+        Profile profile = new Profile(2000, Set.of("lupin"), "omnivore", Map.of(), 30, Set.of());
+        assertEquals(before, Vocabulary.ALLERGENS.size());
+        assertEquals(Vocabulary.OVERFLOW, profile.getAllergenMask());
+
+        // A dish read afterwards gives the term its own bit; the profile still matches by set
+        Dish dish = new Dish("Lupin Flatbread", 300, Set.of("lupin"), 12, 6, 40, 200, "Lunch", Set.of("Europe"), true, true);
+        assertNotEquals(Vocabulary.OVERFLOW, dish.getAllergenMask());
+        assertTrue(Vocabulary.intersects(dish.getAllergenMask(), dish.getAllergens(),
+                profile.getAllergenMask(), profile.getExcludeAllergens()));
+        assertSame(Vocabulary.ALLERGENS.intern("lupin"), Vocabulary.ALLERGENS.canonical(new String("lupin")));
+    }
+}